@@ -5,24 +5,75 @@
  */
 package algorithms;
 
+import data.Config;
+import data.DataSet;
+import data.Tunable;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
- * This interface provides a way to run an algorithm
- * on a thread as a {@link java.lang.Runnable}object.
+ * This interface provides the steps of an algorithm. An
+ * {@link AlgorithmScheduler} initializes the algorithm, then performs one
+ * {@link #step()} per iteration until the algorithm converges or the
+ * maximum number of iterations is reached, and asks for a
+ * {@link #snapshot()} whenever the chart is updated. Pausing, update
+ * intervals and cancellation are handled by the scheduler; an algorithm
+ * only implements the computation.
+ * <p>
+ * The methods of a run are called one at a time, possibly from different
+ * scheduler threads. Algorithms are instantiated through their public
+ * no-argument constructor, which should not do any work.
+ *
  * @author Ritwik Banerjee
  */
-public interface Algorithm extends Runnable {
+public interface Algorithm {
 
-    int getMaxIterations();
+    /**
+     * Prepares a run over the given data
+     *
+     * @param dataset data the algorithm runs on
+     * @param config settings of the run
+     */
+    void init(DataSet dataset, Config config);
 
-    int getUpdateInterval();
+    /**
+     * Performs one iteration
+     */
+    void step();
 
-    boolean tocontinue();
+    /**
+     * Indicates whether further iterations would change nothing. Also
+     * called after {@link #init(DataSet, Config)}, before any step.
+     *
+     * @return true if the run can terminate by itself
+     */
+    boolean isConverged();
 
-    void startAlgorithm();
+    /**
+     * Publishes the current state of the algorithm so that it can be shown,
+     * such as the labels of the data set for a clusterer
+     */
+    void snapshot();
 
-    void continueAlgorithm();
+    String getName();
 
-    void stopAlgorithm();
+    /**
+     * Returns information about the last iteration, shown with the
+     * iteration number
+     *
+     * @return text to display, empty if there is nothing to add
+     */
+    default String getIterationInfo() {
+        return "";
+    }
 
-    String getName();
+    /**
+     * Returns the optional settings this algorithm reads from its
+     * {@link data.Config}, in addition to the ones every algorithm has.
+     *
+     * @return the settings to show in the configuration window
+     */
+    default Set<Tunable> getTunables() {
+        return EnumSet.noneOf(Tunable.class);
+    }
 }
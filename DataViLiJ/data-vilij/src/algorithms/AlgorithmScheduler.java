@@ -0,0 +1,264 @@
+package algorithms;
+
+import data.Config;
+import data.DataSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drives the runs of {@link Algorithm}s on a fixed number of threads. A run
+ * is a task that performs a slice of iterations and schedules its next
+ * slice: one iteration followed by the delay of the {@link RunPacer} in the
+ * default mode, or iterations back to back for {@link #SLICE_NANOS} in max
+ * throughput mode, so that a long run does not keep a thread from the
+ * other runs. A paused run has no scheduled slice and uses no thread until
+ * it is resumed, and a cancelled run simply never schedules again. A slice
+ * stops at the next iteration once its run is cancelled and drops what is
+ * left of it to report; cancelling does not wait for it, so that a long
+ * iteration does not hold the thread cancelling the run. A run replacing
+ * another waits for the slice of that run instead, on a scheduler thread,
+ * before it is initialized.
+ *
+ * @author Neil Opena
+ */
+public final class AlgorithmScheduler {
+
+	/**
+	 * default number of threads running the slices
+	 */
+	public static final int DEFAULT_THREADS = 2;
+	/**
+	 * time a max throughput run iterates before giving its thread back
+	 */
+	public static final long SLICE_NANOS = 10_000_000L;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	public AlgorithmScheduler() {
+		this(DEFAULT_THREADS);
+	}
+
+	/**
+	 * Creates a scheduler
+	 *
+	 * @param threads number of runs that can iterate at the same time
+	 */
+	public AlgorithmScheduler(int threads) {
+		AtomicInteger count = new AtomicInteger();
+		executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+			Thread thread = new Thread(runnable, "algorithm-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Starts a run. The algorithm is initialized on a scheduler thread,
+	 * after the delay of the pacer.
+	 *
+	 * @param algorithm a new instance of the algorithm to run
+	 * @param dataset data the algorithm runs on
+	 * @param config settings of the run
+	 * @param listener receiver of the progress of the run
+	 * @return the run, to resume or cancel it
+	 */
+	public Run submit(Algorithm algorithm, DataSet dataset, Config config, RunListener listener) {
+		return submit(algorithm, dataset, config, listener, null);
+	}
+
+	/**
+	 * Starts a run in place of another. The previous run is cancelled, and
+	 * the algorithm is initialized once the slice of the previous run being
+	 * performed if any has ended, so that both never use the data set or
+	 * the listener at the same time.
+	 *
+	 * @param algorithm a new instance of the algorithm to run
+	 * @param dataset data the algorithm runs on
+	 * @param config settings of the run
+	 * @param listener receiver of the progress of the run
+	 * @param previous the run replaced, may be null
+	 * @return the run, to resume or cancel it
+	 */
+	public Run submit(Algorithm algorithm, DataSet dataset, Config config, RunListener listener, Run previous) {
+		if (previous != null) {
+			previous.cancel();
+		}
+		Run run = new Run(algorithm, dataset, config, listener, previous);
+		run.schedule();
+		return run;
+	}
+
+	/**
+	 * Stops every run and the threads of the scheduler
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * A run of an algorithm, driven by the scheduler
+	 */
+	public final class Run implements Runnable {
+
+		private final Algorithm algorithm;
+		private final DataSet dataset;
+		private final Config config;
+		private final RunListener listener;
+		private final RunPacer pacer;
+
+		//only used by the slices, which never run at the same time
+		private boolean initialized;
+		private int iteration;
+		private Run previous;
+
+		private final AtomicBoolean paused = new AtomicBoolean();
+		private volatile boolean done;
+		private volatile Future<?> next;
+		//held by the slice being performed
+		private final ReentrantLock slice = new ReentrantLock();
+
+		private Run(Algorithm algorithm, DataSet dataset, Config config, RunListener listener, Run previous) {
+			this.algorithm = algorithm;
+			this.dataset = dataset;
+			this.config = config;
+			this.listener = listener;
+			this.pacer = new RunPacer(config);
+			this.previous = previous;
+		}
+
+		/**
+		 * Performs a slice of iterations
+		 */
+		@Override
+		public void run() {
+			slice.lock();
+			try {
+				if (done) {
+					return;
+				}
+				if (!initialized) {
+					if (previous != null) {
+						previous.slice.lock();
+						previous.slice.unlock();
+						previous = null;
+					}
+					algorithm.init(dataset, config);
+					initialized = true;
+				}
+				long sliceEnd = System.nanoTime() + SLICE_NANOS;
+				do {
+					if (done) {
+						return;
+					}
+					if (iteration >= config.getMaxIterations() || algorithm.isConverged()) {
+						finish();
+						return;
+					}
+					iteration++;
+					algorithm.step();
+					if (done) {
+						return;
+					}
+					if (pacer.showsIteration(iteration)) {
+						listener.showCurrentIteration(iteration, algorithm.getIterationInfo());
+					}
+					if (pacer.updatesChart(iteration) && !done) {
+						algorithm.snapshot();
+						listener.updateChart(iteration);
+					}
+					if (done) {
+						return;
+					}
+					if (pacer.pausesAfter(iteration) && iteration < config.getMaxIterations() && !algorithm.isConverged()) {
+						paused.set(true);
+						listener.enableRun();
+						return;
+					}
+				} while (pacer.isMaxThroughput() && System.nanoTime() - sliceEnd < 0);
+				schedule();
+			} catch (RuntimeException | Error e) {
+				//an error such as running out of memory ends the run as well,
+				//the executor would otherwise keep it in the future unseen
+				if (!done) {
+					done = true;
+					listener.abortAlgorithm(e);
+				}
+			} finally {
+				slice.unlock();
+			}
+		}
+
+		/**
+		 * Resumes a paused run
+		 */
+		public void resume() {
+			if (!done && paused.compareAndSet(true, false)) {
+				listener.disableRun();
+				schedule();
+			}
+		}
+
+		/**
+		 * Stops the run without waiting. The slice being performed if any
+		 * ends at its current iteration and reports nothing more of it; a run
+		 * submitted in place of this one waits for that slice.
+		 */
+		public void cancel() {
+			done = true;
+			Future<?> scheduled = next;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+		}
+
+		public boolean isPaused() {
+			return paused.get();
+		}
+
+		/**
+		 * Indicates whether the run has completed or was cancelled
+		 *
+		 * @return true if no more iterations will be performed
+		 */
+		public boolean isDone() {
+			return done;
+		}
+
+		public int getIteration() {
+			return iteration;
+		}
+
+		/**
+		 * Reports the final state, then the end of the run, so that the
+		 * final state is posted before the listener stops displaying
+		 */
+		private void finish() {
+			done = true;
+			algorithm.snapshot();
+			listener.updateChart(iteration);
+			if (iteration >= config.getMaxIterations()) {
+				listener.completeAlgorithm(); //algorithm exhausted all iterations
+			} else {
+				listener.autocompleteAlgorithm(); //algorithm terminated by itself
+			}
+		}
+
+		private void schedule() {
+			if (done) {
+				return;
+			}
+			try {
+				long delay = pacer.getDelay();
+				next = delay == 0 ? executor.submit(this) : executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				done = true; //scheduler shut down
+			}
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package algorithms;
+
+import data.DataSet;
+
+/**
+ * The two classes of a classifier separating the instances of one label
+ * from all the others by a line. The first original label of the data set
+ * is the positive class and every other label the negative class; the
+ * instances without a label are left out of the training.
+ *
+ * @author Neil Opena
+ */
+public final class BinaryClasses {
+
+	/**
+	 * class of an instance on the positive side of the line
+	 */
+	public static final byte POSITIVE = 1;
+	/**
+	 * class of an instance on the negative side of the line
+	 */
+	public static final byte NEGATIVE = 0;
+	/**
+	 * class of an instance left out of the training
+	 */
+	public static final byte UNLABELED = -1;
+
+	private BinaryClasses() {
+	}
+
+	/**
+	 * Returns the class of every instance from its original label
+	 *
+	 * @param dataset the instances
+	 * @param unlabeled label of the instances that have none
+	 * @return {@link #POSITIVE}, {@link #NEGATIVE} or {@link #UNLABELED} by
+	 * instance
+	 */
+	public static byte[] encode(DataSet dataset, String unlabeled) {
+		int size = dataset.size();
+		byte[] classes = new byte[size];
+		String positive = null;
+		for (int i = 0; i < size; i++) {
+			String label = dataset.getOriginalLabel(i);
+			if (unlabeled.equals(label)) {
+				classes[i] = UNLABELED;
+			} else if (positive == null || positive.equals(label)) {
+				positive = label;
+				classes[i] = POSITIVE;
+			} else {
+				classes[i] = NEGATIVE;
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Indicates whether there is a line to look for, a single class having
+	 * none separating it
+	 *
+	 * @param classes class of every instance
+	 * @return true if some instance is in the negative class
+	 */
+	public static boolean hasBothClasses(byte[] classes) {
+		for (byte c : classes) {
+			if (c == NEGATIVE) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
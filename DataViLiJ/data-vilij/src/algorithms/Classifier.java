@@ -4,27 +4,237 @@
  * and open the template in the editor.
  */
 package algorithms;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import vilij.propertymanager.PropertyManager;
+import static settings.AppPropertyTypes.NULL;
 
 /**
  * An abstract class for classification algorithms. The output
  * for these algorithms is a straight line, as described in
  * Appendix C of the software requirements specification
- * (SRS). The {@link #output} is defined with extensibility
- * in mind.
+ * (SRS), or a polynomial curve as anticipated by 3.4.4 of
+ * the SRS.
+ * <p>
+ * The output is published as <code>double</code> coefficients
+ * a<sub>1</sub>, ..., a<sub>d</sub>, b, c of the curve
+ * a<sub>1</sub>x + ... + a<sub>d</sub>x<sup>d</sup> + by + c = 0,
+ * through {@link #publishCoefficients(double...)}. A line is
+ * the curve of degree 1 and its coefficients are a, b, c, in
+ * the order of the legacy integer {@link #output}. The
+ * coefficients are replaced atomically and read with an
+ * optimistic lock into an array of the caller, so that the
+ * thread showing the output never blocks the algorithm and
+ * allocates nothing.
+ * <p>
+ * A classifier labelling every location of the plane rather
+ * than drawing a curve publishes its {@link DecisionRegions}
+ * instead, through {@link #publishDecisionRegions}.
  *
  * @author Ritwik Banerjee
  */
 public abstract class Classifier implements Algorithm {
 
+    /**
+     * magnitude of the largest coefficient of x and y in the
+     * legacy integer output converted from the coefficients
+     */
+    public static final int OUTPUT_SCALE = 10000;
+
     /**
      * See Appendix C of the SRS. Defining the output as a
      * list instead of a triple allows for future extension
      * into polynomial curves instead of just straight lines.
      * See 3.4.4 of the SRS.
+     * <p>
+     * Legacy output, read as the coefficients as long as no
+     * coefficients were published.
      */
     protected List<Integer> output;
 
-    public List<Integer> getOutput() { return output; }
+    private final StampedLock coefficientLock = new StampedLock();
+    private double[] coefficients = new double[0];
+    private int coefficientCount;
+    private volatile DecisionRegions decisionRegions;
+
+    /**
+     * Replaces the output with the given coefficients, which
+     * are copied
+     *
+     * @param values coefficients a<sub>1</sub>, ...,
+     * a<sub>d</sub>, b, c of a curve of degree d
+     * @throws IllegalArgumentException if there are fewer than
+     * 3 coefficients
+     */
+    protected final void publishCoefficients(double... values) {
+        if (values.length < 3) {
+            throw new IllegalArgumentException("Expected at least 3 coefficients, got " + values.length);
+        }
+        long stamp = coefficientLock.writeLock();
+        try {
+            if (coefficients.length < values.length) {
+                coefficients = new double[values.length];
+            }
+            System.arraycopy(values, 0, coefficients, 0, values.length);
+            coefficientCount = values.length;
+        } finally {
+            coefficientLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the original label of the instances that have
+     * none, as the data files write it. Such instances are not
+     * trained on.
+     *
+     * @return the label, read from the properties of the
+     * application
+     */
+    protected static String getUnlabeledLabel() {
+        return PropertyManager.getManager().getPropertyValue(NULL.name());
+    }
+
+    /**
+     * Replaces the output with regions, which must not change
+     * once published
+     *
+     * @param regions label of every location of the plane
+     */
+    protected final void publishDecisionRegions(DecisionRegions regions) {
+        decisionRegions = regions;
+    }
+
+    /**
+     * Returns the current regions
+     *
+     * @return the regions, or null if the output is a curve or
+     * there is no output yet
+     */
+    public DecisionRegions getDecisionRegions() {
+        return decisionRegions;
+    }
+
+    /**
+     * Copies the current coefficients into an array, if it is
+     * long enough
+     *
+     * @param target array receiving the coefficients
+     * @return number of coefficients, 0 if there is no output
+     * yet; nothing is copied if it is more than the length of
+     * the array
+     */
+    public int readCoefficients(double[] target) {
+        int count = readPublished(target);
+        if (count == 0) {
+            List<Integer> legacy = output;
+            if (legacy != null) {
+                count = legacy.size();
+                for (int i = 0; i < count && count <= target.length; i++) {
+                    target[i] = legacy.get(i);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the published coefficients, optimistically then
+     * under the read lock if a publication interfered
+     */
+    private int readPublished(double[] target) {
+        long stamp = coefficientLock.tryOptimisticRead();
+        int count = copyCoefficients(target);
+        if (!coefficientLock.validate(stamp)) {
+            stamp = coefficientLock.readLock();
+            try {
+                count = copyCoefficients(target);
+            } finally {
+                coefficientLock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the coefficients without validating the read,
+     * possibly inconsistent while not holding the lock
+     */
+    private int copyCoefficients(double[] target) {
+        double[] source = coefficients;
+        int count = Math.min(coefficientCount, source.length);
+        if (count <= target.length) {
+            System.arraycopy(source, 0, target, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the current coefficients in a new array
+     *
+     * @return the coefficients, empty if there is no output yet
+     */
+    public double[] getCoefficients() {
+        double[] target = new double[3];
+        int count;
+        while ((count = readCoefficients(target)) > target.length) {
+            target = new double[count];
+        }
+        return Arrays.copyOf(target, count);
+    }
+
+    /**
+     * Returns the y value of a curve at an x value
+     *
+     * @param coefficients a<sub>1</sub>, ..., a<sub>d</sub>, b,
+     * c
+     * @param count number of coefficients, the array may be
+     * longer
+     * @param x the x value
+     * @return -(a<sub>1</sub>x + ... + a<sub>d</sub>x<sup>d</sup>
+     * + c) / b
+     */
+    public static double evaluate(double[] coefficients, int count, double x) {
+        int degree = count - 2;
+        double polynomial = 0;
+        for (int k = degree - 1; k >= 0; k--) {
+            polynomial = (polynomial + coefficients[k]) * x;
+        }
+        return -(polynomial + coefficients[count - 1]) / coefficients[degree];
+    }
+
+    /**
+     * Returns the output as integers, the published
+     * coefficients being scaled so that the largest
+     * coefficient of x and y is {@link #OUTPUT_SCALE}. Kept for
+     * callers of the legacy output, a new list is built on
+     * every call.
+     *
+     * @return the coefficients as integers, or null if there is
+     * no output yet
+     */
+    public List<Integer> getOutput() {
+        double[] current = new double[3];
+        int count;
+        while ((count = readPublished(current)) > current.length) {
+            current = new double[count];
+        }
+        if (count == 0) {
+            return output;
+        }
+        current = Arrays.copyOf(current, count);
+        double largest = 0;
+        for (int i = 0; i < current.length - 1; i++) {
+            largest = Math.max(largest, Math.abs(current[i]));
+        }
+        double scale = largest > 0 && !Double.isInfinite(largest) ? OUTPUT_SCALE / largest : 1;
+        List<Integer> scaled = new ArrayList<>(current.length);
+        for (double coefficient : current) {
+            long rounded = Math.round(coefficient * scale);
+            scaled.add((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, rounded)));
+        }
+        return scaled;
+    }
 
-}
\ No newline at end of file
+}
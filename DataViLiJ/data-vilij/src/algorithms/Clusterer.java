@@ -1,25 +1,41 @@
 package algorithms;
 
 /**
- * An abstract class for classification algorithms. The output for these
- * algorithms is a straight line, as described in Appendix C of the software
- * requirements specification (SRS). The {@link #output} is defined with
- * extensibility in mind.
+ * An abstract class for clustering algorithms. The output for these
+ * algorithms is a label for every instance of the data set, written into
+ * its labels when a snapshot is taken.
  *
  * @author Ritwik Banerjee
  */
-/**
- * @author Ritwik Banerjee
- */
 public abstract class Clusterer implements Algorithm {
 
-	protected final int numberOfClusters;
+	/**
+	 * number of clusters of the run, set directly by the algorithms that
+	 * find it themselves
+	 */
+	protected int numberOfClusters;
 
 	public int getNumberOfClusters() {
 		return numberOfClusters;
 	}
 
-	public Clusterer(int k) {
+	/**
+	 * Indicates whether the number of clusters is read from the number of
+	 * labels of the {@link data.Config}, the configuration window only asks
+	 * for it if so
+	 *
+	 * @return false if the algorithm finds the number of clusters itself
+	 */
+	public boolean usesNumberOfClusters() {
+		return true;
+	}
+
+	/**
+	 * Sets the number of clusters of the run, between 2 and 4
+	 *
+	 * @param k requested number of clusters
+	 */
+	protected void setNumberOfClusters(int k) {
 		if (k < 2) {
 			k = 2;
 		} else if (k > 4) {
@@ -0,0 +1,237 @@
+package algorithms;
+
+import data.SpatialIndex;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The numerical part of DBSCAN, density based clustering. An instance with
+ * at least minPoints instances within epsilon of it, itself included, is a
+ * core instance; a cluster is every instance within epsilon of a core
+ * instance of the cluster, grown from one core instance to the next. An
+ * instance within epsilon of no core instance is noise.
+ * <p>
+ * The neighbors of an instance are found through a {@link SpatialIndex},
+ * which only looks at the cells around it, so a run costs about the number
+ * of instances times the number of neighbors rather than the square of the
+ * number of instances. Every instance has its neighbors searched once; the
+ * index is built with cells about epsilon wide, so that a search looks at a
+ * few cells without many instances beyond epsilon.
+ * <p>
+ * The clustering advances by a given number of searches per iteration, so
+ * that the clusters can be shown while they grow; a cluster being grown
+ * is left as it is until the next iteration.
+ *
+ * @author Neil Opena
+ */
+public class DbscanKernel {
+
+	/**
+	 * assignment of an instance in no cluster
+	 */
+	public static final int NOISE = -1;
+	/**
+	 * assignment of an instance not reached yet
+	 */
+	public static final int UNVISITED = -2;
+	/**
+	 * fewest average instances per cell of the index, bounding the number
+	 * of cells for an epsilon small compared with the spread of the data
+	 */
+	public static final double MIN_INSTANCES_PER_CELL = 0.25;
+
+	private final SpatialIndex index;
+	private final double[] xs;
+	private final double[] ys;
+	private final int size;
+	private final double epsilon;
+	private final int minPoints;
+
+	private final int[] assignments;
+	//instances whose neighbors are still to be searched, every instance
+	//being queued at most once over the run
+	private final int[] queue;
+	private int queueStart;
+	private int queueEnd;
+	private int seed;
+
+	//neighbors of the last search
+	private int[] neighbors = new int[16];
+	private int neighborCount;
+	private final IntConsumer collector = i -> {
+		if (neighborCount == neighbors.length) {
+			neighbors = Arrays.copyOf(neighbors, neighborCount * 2);
+		}
+		neighbors[neighborCount++] = i;
+	};
+
+	private int clusterCount;
+	private int noiseCount;
+	private int searched;
+
+	/**
+	 * Creates a kernel over the given instances, indexing them. The arrays
+	 * are read by every iteration and must not be modified.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 * @param epsilon distance within which two instances are neighbors
+	 * @param minPoints number of neighbors of a core instance, itself
+	 * included
+	 */
+	public DbscanKernel(double[] xs, double[] ys, int size, double epsilon, int minPoints) {
+		this(new SpatialIndex(xs, ys, size, instancesPerCell(xs, ys, size, epsilon)), xs, ys, size, epsilon, minPoints);
+	}
+
+	/**
+	 * Creates a kernel over instances already indexed
+	 *
+	 * @param index index of the instances
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 * @param epsilon distance within which two instances are neighbors
+	 * @param minPoints number of neighbors of a core instance, itself
+	 * included
+	 */
+	public DbscanKernel(SpatialIndex index, double[] xs, double[] ys, int size, double epsilon, int minPoints) {
+		this.index = index;
+		this.xs = xs;
+		this.ys = ys;
+		this.size = size;
+		this.epsilon = epsilon;
+		this.minPoints = minPoints;
+		assignments = new int[size];
+		Arrays.fill(assignments, UNVISITED);
+		queue = new int[size];
+	}
+
+	/**
+	 * Returns the average number of instances per cell that makes the cells
+	 * of an index at most epsilon wide
+	 */
+	private static double instancesPerCell(double[] xs, double[] ys, int size, double epsilon) {
+		double lowX = Double.POSITIVE_INFINITY;
+		double highX = Double.NEGATIVE_INFINITY;
+		double lowY = Double.POSITIVE_INFINITY;
+		double highY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			lowX = xs[i] < lowX ? xs[i] : lowX;
+			highX = xs[i] > highX ? xs[i] : highX;
+			lowY = ys[i] < lowY ? ys[i] : lowY;
+			highY = ys[i] > highY ? ys[i] : highY;
+		}
+		double side = Math.max(highX - lowX, highY - lowY) / epsilon;
+		if (!(side > 1)) {
+			return Math.max(size, 1);
+		}
+		return Math.max(MIN_INSTANCES_PER_CELL, size / (side * side));
+	}
+
+	/**
+	 * Searches the neighbors of a number of instances, growing the current
+	 * cluster or starting a new one from the next instance not reached yet
+	 *
+	 * @param searches number of neighbor searches to perform
+	 * @return true if instances are left to search
+	 */
+	public boolean iterate(int searches) {
+		for (int s = 0; s < searches; s++) {
+			if (queueStart < queueEnd) {
+				int i = queue[queueStart++];
+				if (search(i)) {
+					expand(assignments[i]);
+				}
+			} else {
+				while (seed < size && assignments[seed] != UNVISITED) {
+					seed++;
+				}
+				if (seed == size) {
+					return false;
+				}
+				int i = seed++;
+				if (search(i)) {
+					assignments[i] = clusterCount++;
+					expand(assignments[i]);
+				} else {
+					assignments[i] = NOISE;
+					noiseCount++;
+				}
+			}
+		}
+		return queueStart < queueEnd || hasUnvisited();
+	}
+
+	private boolean hasUnvisited() {
+		while (seed < size && assignments[seed] != UNVISITED) {
+			seed++;
+		}
+		return seed < size;
+	}
+
+	/**
+	 * Finds the neighbors of an instance
+	 *
+	 * @return true if it is a core instance
+	 */
+	private boolean search(int i) {
+		neighborCount = 0;
+		index.forEachWithinRadius(xs[i], ys[i], epsilon, collector);
+		searched++;
+		return neighborCount >= minPoints;
+	}
+
+	/**
+	 * Adds the neighbors of the last search to a cluster, queueing the ones
+	 * not reached yet for their own search. Noise becomes a border instance
+	 * of the cluster; it was already found not to be a core instance.
+	 */
+	private void expand(int cluster) {
+		for (int n = 0; n < neighborCount; n++) {
+			int j = neighbors[n];
+			if (assignments[j] == UNVISITED) {
+				assignments[j] = cluster;
+				queue[queueEnd++] = j;
+			} else if (assignments[j] == NOISE) {
+				assignments[j] = cluster;
+				noiseCount--;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cluster of every instance, {@link #NOISE} or
+	 * {@link #UNVISITED} for the instances in none. The array is updated by
+	 * the iterations.
+	 *
+	 * @return the assignments, by instance
+	 */
+	public int[] getAssignments() {
+		return assignments;
+	}
+
+	public int getClusterCount() {
+		return clusterCount;
+	}
+
+	/**
+	 * Returns the number of instances found in no cluster so far; noise may
+	 * still join a cluster reached later
+	 *
+	 * @return number of noise instances
+	 */
+	public int getNoiseCount() {
+		return noiseCount;
+	}
+
+	/**
+	 * Returns the number of neighbor searches performed, one per instance
+	 * once the run is complete
+	 *
+	 * @return number of searches
+	 */
+	public int getSearched() {
+		return searched;
+	}
+}
@@ -0,0 +1,44 @@
+package algorithms;
+
+/**
+ * The output of a classifier that assigns a label to every location of
+ * the plane, drawn as regions rather than as a curve. The regions are
+ * immutable once published and can be classified from several threads at
+ * once, every call working on its own part of the target array.
+ *
+ * @author Neil Opena
+ * @see Classifier#getDecisionRegions()
+ */
+public interface DecisionRegions {
+
+	/**
+	 * Returns the number of regions
+	 *
+	 * @return number of labels the locations can take
+	 */
+	int getRegionCount();
+
+	/**
+	 * Returns the label of a region
+	 *
+	 * @param region index of the region
+	 * @return the label
+	 */
+	String getLabel(int region);
+
+	/**
+	 * Classifies a grid of locations, the location of column c and row r
+	 * being (xStart + c * xStep, yStart + r * yStep)
+	 *
+	 * @param xStart x value of the first column
+	 * @param yStart y value of the first row
+	 * @param xStep x distance between two columns
+	 * @param yStep y distance between two rows, negative for rows going down
+	 * @param columns number of columns
+	 * @param rows number of rows
+	 * @param target receives the region of every location, row by row
+	 * @param offset index in target of the first location
+	 * @param stride distance in target between two rows
+	 */
+	void classify(double xStart, double yStart, double xStep, double yStep, int columns, int rows, int[] target, int offset, int stride);
+}
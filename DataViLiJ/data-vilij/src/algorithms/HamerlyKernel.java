@@ -0,0 +1,168 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A {@link KMeansKernel} that skips the distance evaluations the triangle
+ * inequality proves useless, following Hamerly's algorithm. Every instance
+ * keeps an upper bound on the distance to its centroid and a lower bound on
+ * the distance to every other centroid. An instance cannot change cluster
+ * while its upper bound is below both its lower bound and half the
+ * distance from its centroid to the closest other centroid, so none of its
+ * distances are evaluated. The bounds are loosened by the distance every
+ * centroid moves.
+ * <p>
+ * The assignments are the ones of the plain kernel, up to ties between
+ * equally distant centroids. The number of skipped evaluations of the last
+ * iteration is available through {@link #getSkippedEvaluations()}.
+ *
+ * @author Neil Opena
+ */
+public class HamerlyKernel extends KMeansKernel {
+
+	private final double[] upperBounds;
+	private final double[] lowerBounds;
+	//half the distance from every centroid to the closest other centroid
+	private final double[] halfSeparations;
+	private final double[] previousXs;
+	private final double[] previousYs;
+	private final double[] moves;
+	private final long[] blockSkipped;
+	private boolean bounded;
+	private long skipped;
+
+	public HamerlyKernel(double[] xs, double[] ys, int size, int numberOfClusters) {
+		super(xs, ys, size, numberOfClusters);
+		upperBounds = new double[size];
+		lowerBounds = new double[size];
+		halfSeparations = new double[numberOfClusters];
+		previousXs = new double[numberOfClusters];
+		previousYs = new double[numberOfClusters];
+		moves = new double[numberOfClusters];
+		blockSkipped = new long[numBlocks];
+	}
+
+	/**
+	 * Returns how many instance-to-centroid distances the last
+	 * {@link #assign()} did not evaluate
+	 *
+	 * @return number of skipped distance evaluations
+	 */
+	public long getSkippedEvaluations() {
+		return skipped;
+	}
+
+	/**
+	 * Returns how many instance-to-centroid distances an assignment
+	 * evaluates without any bound
+	 *
+	 * @return number of instances times number of centroids
+	 */
+	public long getTotalEvaluations() {
+		return (long) size * numberOfClusters;
+	}
+
+	@Override
+	public void setCentroid(int cluster, double x, double y) {
+		super.setCentroid(cluster, x, y);
+		bounded = false;
+	}
+
+	@Override
+	public void assign() {
+		for (int c = 0; c < numberOfClusters; c++) {
+			double closest = Double.POSITIVE_INFINITY;
+			for (int other = 0; other < numberOfClusters; other++) {
+				if (other != c) {
+					closest = Math.min(closest, length(centroidXs[c] - centroidXs[other], centroidYs[c] - centroidYs[other]));
+				}
+			}
+			halfSeparations[c] = closest / 2;
+		}
+		Arrays.fill(blockSkipped, 0);
+
+		super.assign();
+
+		skipped = 0;
+		for (long blockCount : blockSkipped) {
+			skipped += blockCount;
+		}
+		bounded = true;
+	}
+
+	@Override
+	protected int nearestCentroid(int i, int block) {
+		int current = assignments[i];
+		if (bounded) {
+			double bound = Math.max(halfSeparations[current], lowerBounds[i]);
+			if (upperBounds[i] <= bound) {
+				blockSkipped[block] += numberOfClusters;
+				return current;
+			}
+			upperBounds[i] = distance(i, current);
+			if (upperBounds[i] <= bound) {
+				blockSkipped[block] += numberOfClusters - 1;
+				return current;
+			}
+		}
+
+		int nearest = -1;
+		double nearestDistance = Double.POSITIVE_INFINITY;
+		double secondDistance = Double.POSITIVE_INFINITY;
+		for (int c = 0; c < numberOfClusters; c++) {
+			double distance;
+			if (bounded && c == current) {
+				//evaluated above when tightening the upper bound, not skipped
+				distance = upperBounds[i];
+			} else {
+				distance = distance(i, c);
+			}
+			if (distance < nearestDistance) {
+				secondDistance = nearestDistance;
+				nearestDistance = distance;
+				nearest = c;
+			} else if (distance < secondDistance) {
+				secondDistance = distance;
+			}
+		}
+		upperBounds[i] = nearestDistance;
+		lowerBounds[i] = secondDistance;
+		return nearest;
+	}
+
+	@Override
+	public boolean update() {
+		System.arraycopy(centroidXs, 0, previousXs, 0, numberOfClusters);
+		System.arraycopy(centroidYs, 0, previousYs, 0, numberOfClusters);
+		boolean moved = super.update();
+		if (!moved) {
+			return false;
+		}
+
+		int farthest = 0;
+		double secondMove = 0;
+		for (int c = 0; c < numberOfClusters; c++) {
+			moves[c] = length(centroidXs[c] - previousXs[c], centroidYs[c] - previousYs[c]);
+			if (moves[c] > moves[farthest]) {
+				secondMove = moves[farthest];
+				farthest = c;
+			} else if (c != farthest && moves[c] > secondMove) {
+				secondMove = moves[c];
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			int current = assignments[i];
+			upperBounds[i] += moves[current];
+			lowerBounds[i] -= current == farthest ? secondMove : moves[farthest];
+		}
+		return true;
+	}
+
+	private double distance(int i, int c) {
+		return length(xs[i] - centroidXs[c], ys[i] - centroidYs[c]);
+	}
+
+	private static double length(double dx, double dy) {
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+}
@@ -0,0 +1,232 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The numerical part of a k-means iteration, working directly on the
+ * coordinate columns of a {@link data.DataSet}. Every instance is assigned
+ * to its nearest centroid by squared distance, and the coordinate sums of
+ * every cluster are accumulated in the same pass. All the arrays are
+ * allocated once, a sequential iteration allocates nothing.
+ * <p>
+ * The instances are summed in blocks of {@link #BLOCK_SIZE}, each block
+ * into its own partial sums, and the partial sums are then added in block
+ * order. Since the blocks do not depend on the number of threads, the
+ * parallel mode, where the blocks are spread over the common
+ * {@link java.util.concurrent.ForkJoinPool}, gives results that are bit for
+ * bit identical to the sequential mode.
+ *
+ * @author Neil Opena
+ */
+public class KMeansKernel {
+
+	/**
+	 * number of instances summed into the same partial sums
+	 */
+	public static final int BLOCK_SIZE = 1 << 14;
+
+	protected final double[] xs;
+	protected final double[] ys;
+	protected final int size;
+	protected final int numberOfClusters;
+
+	protected final double[] centroidXs;
+	protected final double[] centroidYs;
+	private final double[] sumXs;
+	private final double[] sumYs;
+	private final int[] counts;
+	protected final int[] assignments;
+
+	//partial sums of every block, indexed by block * numberOfClusters + cluster
+	protected final int numBlocks;
+	private final double[] blockSumXs;
+	private final double[] blockSumYs;
+	private final int[] blockCounts;
+	private boolean parallel;
+
+	/**
+	 * Creates a kernel over the given coordinates. The arrays are not
+	 * copied and must not change while the kernel is used.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 * @param numberOfClusters number of centroids
+	 */
+	public KMeansKernel(double[] xs, double[] ys, int size, int numberOfClusters) {
+		this.xs = xs;
+		this.ys = ys;
+		this.size = size;
+		this.numberOfClusters = numberOfClusters;
+		centroidXs = new double[numberOfClusters];
+		centroidYs = new double[numberOfClusters];
+		sumXs = new double[numberOfClusters];
+		sumYs = new double[numberOfClusters];
+		counts = new int[numberOfClusters];
+		assignments = new int[size];
+
+		numBlocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		blockSumXs = new double[numBlocks * numberOfClusters];
+		blockSumYs = new double[numBlocks * numberOfClusters];
+		blockCounts = new int[numBlocks * numberOfClusters];
+	}
+
+	/**
+	 * Sets whether the blocks of an iteration are processed in parallel.
+	 * The results do not depend on this setting.
+	 *
+	 * @param parallel true to use the common fork-join pool
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public void setCentroid(int cluster, double x, double y) {
+		centroidXs[cluster] = x;
+		centroidYs[cluster] = y;
+	}
+
+	public double getCentroidX(int cluster) {
+		return centroidXs[cluster];
+	}
+
+	public double getCentroidY(int cluster) {
+		return centroidYs[cluster];
+	}
+
+	/**
+	 * Returns the cluster of every instance after the last
+	 * {@link #assign()}. The array is reused by the following iterations.
+	 *
+	 * @return cluster index by instance index
+	 */
+	public int[] getAssignments() {
+		return assignments;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Performs one iteration: assigns the instances then moves the
+	 * centroids
+	 *
+	 * @return true if a centroid moved
+	 */
+	public boolean iterate() {
+		assign();
+		return update();
+	}
+
+	/**
+	 * Assigns every instance to its nearest centroid, ties going to the
+	 * lowest cluster index, and accumulates the sums of every cluster
+	 */
+	public void assign() {
+		if (parallel && numBlocks > 1) {
+			IntStream.range(0, numBlocks).parallel().forEach(this::assignBlock);
+		} else {
+			for (int block = 0; block < numBlocks; block++) {
+				assignBlock(block);
+			}
+		}
+
+		Arrays.fill(sumXs, 0);
+		Arrays.fill(sumYs, 0);
+		Arrays.fill(counts, 0);
+		for (int block = 0; block < numBlocks; block++) {
+			int offset = block * numberOfClusters;
+			for (int c = 0; c < numberOfClusters; c++) {
+				sumXs[c] += blockSumXs[offset + c];
+				sumYs[c] += blockSumYs[offset + c];
+				counts[c] += blockCounts[offset + c];
+			}
+		}
+	}
+
+	/**
+	 * Assigns the instances of one block and writes the block's partial
+	 * sums, touching no state shared with the other blocks
+	 */
+	private void assignBlock(int block) {
+		int offset = block * numberOfClusters;
+		Arrays.fill(blockSumXs, offset, offset + numberOfClusters, 0);
+		Arrays.fill(blockSumYs, offset, offset + numberOfClusters, 0);
+		Arrays.fill(blockCounts, offset, offset + numberOfClusters, 0);
+		int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+		for (int i = block * BLOCK_SIZE; i < end; i++) {
+			int nearest = nearestCentroid(i, block);
+			assignments[i] = nearest;
+			blockSumXs[offset + nearest] += xs[i];
+			blockSumYs[offset + nearest] += ys[i];
+			blockCounts[offset + nearest]++;
+		}
+	}
+
+	/**
+	 * Finds the centroid nearest to an instance. Only state belonging to
+	 * the instance or to its block may be written, blocks can run in
+	 * parallel.
+	 *
+	 * @param i index of the instance
+	 * @param block block of the instance
+	 * @return index of the nearest centroid
+	 */
+	protected int nearestCentroid(int i, int block) {
+		return closestCentroid(xs[i], ys[i]);
+	}
+
+	/**
+	 * Finds the centroid nearest to a location by squared distance, ties
+	 * going to the lowest cluster index
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @return index of the nearest centroid
+	 */
+	protected final int closestCentroid(double x, double y) {
+		int nearest = 0;
+		double dx = x - centroidXs[0];
+		double dy = y - centroidYs[0];
+		double minDistance = dx * dx + dy * dy;
+		for (int c = 1; c < numberOfClusters; c++) {
+			dx = x - centroidXs[c];
+			dy = y - centroidYs[c];
+			double distance = dx * dx + dy * dy;
+			if (distance < minDistance) {
+				minDistance = distance;
+				nearest = c;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Moves every centroid to the mean of its cluster. A centroid without
+	 * instances stays where it is.
+	 *
+	 * @return true if a centroid moved
+	 */
+	public boolean update() {
+		boolean moved = false;
+		for (int c = 0; c < numberOfClusters; c++) {
+			if (counts[c] == 0) {
+				continue;
+			}
+			double x = sumXs[c] / counts[c];
+			double y = sumYs[c] / counts[c];
+			if (x != centroidXs[c] || y != centroidYs[c]) {
+				centroidXs[c] = x;
+				centroidYs[c] = y;
+				moved = true;
+			}
+		}
+		return moved;
+	}
+}
@@ -0,0 +1,383 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The numerical part of a logistic regression over the coordinate columns
+ * of a {@link data.DataSet}, trained on the logistic loss. The labelled
+ * instances are copied once into a single array, standardized with their
+ * mean and standard deviation so that one learning rate suits any data
+ * set, and shuffled for the batches; the line is converted back to the
+ * original coordinates by {@link #getA()}, {@link #getB()} and
+ * {@link #getC()}.
+ * <p>
+ * An iteration takes a gradient step over the next batch of the shuffled
+ * copy, read sequentially rather than drawn at random from the columns,
+ * with a learning rate decaying with the square root of the number of
+ * passes over the data. A batch size of at least the number of labelled
+ * instances uses all of them instead and takes a Newton step, the 3 by 3
+ * Hessian being summed in the same pass as the gradient; the sums are made
+ * in blocks of {@link #BLOCK_SIZE} like the sums of a {@link KMeansKernel},
+ * and the parallel mode gives results bit for bit identical to the
+ * sequential mode.
+ * <p>
+ * The run has converged once the gradient is shorter than
+ * {@link #TOLERANCE}; for the batches, it is the gradient averaged over a
+ * pass over the data, checked at the end of every pass. A small L2 penalty
+ * keeps the weights bounded when the classes are separable.
+ *
+ * @author Neil Opena
+ */
+public class LogisticRegressionKernel {
+
+	/**
+	 * number of instances summed into the same partial sums
+	 */
+	public static final int BLOCK_SIZE = 1 << 14;
+	/**
+	 * length of the averaged gradient below which the run has converged
+	 */
+	public static final double TOLERANCE = 1e-3;
+	/**
+	 * weight of the L2 penalty on the coefficients of x and y
+	 */
+	public static final double REGULARIZATION = 1e-4;
+
+	//values per instance of the copy: standardized x and y, then +1 or -1 for the class
+	private static final int STRIDE = 3;
+	//sums: gradient along x, y and the bias, loss, correct predictions,
+	//then the Hessian xx, xy, x1, yy, y1, 11
+	private static final int SUMS = 11;
+
+	private final double[] samples;
+	private final int count;
+	private final int batchSize;
+	private final double learningRate;
+	private int cursor;
+
+	private final double meanX;
+	private final double meanY;
+	private final double scaleX;
+	private final double scaleY;
+
+	//line wx * x + wy * y + w0 = 0 in standardized coordinates
+	private double wx;
+	private double wy = 1;
+	private double w0;
+
+	private final double[] sums = new double[SUMS];
+	//gradient summed over the batches of the current pass
+	private final double[] passGradient = new double[3];
+	private final int passLength;
+	private int passIterations;
+	private long iterations;
+	private double loss;
+	private double accuracy;
+
+	private final int numBlocks;
+	private final double[] blockSums;
+	private boolean parallel;
+
+	/**
+	 * Creates a kernel over the given instances. The arrays are only read
+	 * by the constructor.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param classes {@link BinaryClasses#POSITIVE},
+	 * {@link BinaryClasses#NEGATIVE} or
+	 * {@link BinaryClasses#UNLABELED} by instance
+	 * @param size number of instances, the arrays may be longer
+	 * @param batchSize number of instances of every iteration
+	 * @param learningRate initial step along the gradient of a batch
+	 * @param random source of the order of the instances in the batches
+	 */
+	public LogisticRegressionKernel(double[] xs, double[] ys, byte[] classes, int size, int batchSize, double learningRate, Random random) {
+		this.learningRate = learningRate;
+
+		int labelled = 0;
+		double sumX = 0;
+		double sumY = 0;
+		for (int i = 0; i < size; i++) {
+			if (classes[i] != BinaryClasses.UNLABELED) {
+				labelled++;
+				sumX += xs[i];
+				sumY += ys[i];
+			}
+		}
+		count = labelled;
+		meanX = count == 0 ? 0 : sumX / count;
+		meanY = count == 0 ? 0 : sumY / count;
+		double squaresX = 0;
+		double squaresY = 0;
+		for (int i = 0; i < size; i++) {
+			if (classes[i] != BinaryClasses.UNLABELED) {
+				squaresX += (xs[i] - meanX) * (xs[i] - meanX);
+				squaresY += (ys[i] - meanY) * (ys[i] - meanY);
+			}
+		}
+		scaleX = squaresX > 0 ? Math.sqrt(squaresX / count) : 1;
+		scaleY = squaresY > 0 ? Math.sqrt(squaresY / count) : 1;
+
+		this.batchSize = Math.min(batchSize, count);
+		passLength = Math.max(1, (int) Math.round((double) count / Math.max(this.batchSize, 1)));
+		//inside-out shuffle: instance j of the copy is swapped with a random earlier one
+		samples = new double[count * STRIDE];
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			if (classes[i] != BinaryClasses.UNLABELED) {
+				int k = isFullBatch() ? j : random.nextInt(j + 1);
+				System.arraycopy(samples, k * STRIDE, samples, j * STRIDE, STRIDE);
+				samples[k * STRIDE] = (xs[i] - meanX) / scaleX;
+				samples[k * STRIDE + 1] = (ys[i] - meanY) / scaleY;
+				samples[k * STRIDE + 2] = classes[i] == BinaryClasses.POSITIVE ? 1 : -1;
+				j++;
+			}
+		}
+
+		numBlocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		blockSums = new double[numBlocks * SUMS];
+	}
+
+	/**
+	 * Sets whether the blocks of a full batch are processed in parallel.
+	 * The results do not depend on this setting.
+	 *
+	 * @param parallel true to use the common fork-join pool
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Indicates whether an iteration looks at every labelled instance
+	 *
+	 * @return true if the batch holds every labelled instance
+	 */
+	public boolean isFullBatch() {
+		return batchSize == count;
+	}
+
+	/**
+	 * Performs one step over a batch
+	 *
+	 * @return true if the run has not converged yet
+	 */
+	public boolean iterate() {
+		if (count == 0) {
+			return false;
+		}
+		Arrays.fill(sums, 0);
+		if (isFullBatch()) {
+			sumFullBatch();
+		} else {
+			int end = cursor + batchSize;
+			if (end <= count) {
+				accumulate(cursor, end, sums, 0);
+				cursor = end == count ? 0 : end;
+			} else {
+				//the batch wraps around the end of the copy
+				accumulate(cursor, count, sums, 0);
+				accumulate(0, end - count, sums, 0);
+				cursor = end - count;
+			}
+		}
+		iterations++;
+		double gradientX = sums[0] / batchSize + REGULARIZATION * wx;
+		double gradientY = sums[1] / batchSize + REGULARIZATION * wy;
+		double gradient0 = sums[2] / batchSize;
+		loss = sums[3] / batchSize + REGULARIZATION / 2 * (wx * wx + wy * wy);
+		accuracy = sums[4] / batchSize;
+
+		if (isFullBatch()) {
+			newtonStep(gradientX, gradientY, gradient0);
+			return length(gradientX, gradientY, gradient0) >= TOLERANCE;
+		}
+		double rate = learningRate / Math.sqrt(1 + (double) (iterations - 1) * batchSize / count);
+		wx -= rate * gradientX;
+		wy -= rate * gradientY;
+		w0 -= rate * gradient0;
+		passGradient[0] += gradientX;
+		passGradient[1] += gradientY;
+		passGradient[2] += gradient0;
+		if (++passIterations < passLength) {
+			return true;
+		}
+		double norm = length(passGradient[0], passGradient[1], passGradient[2]) / passLength;
+		Arrays.fill(passGradient, 0);
+		passIterations = 0;
+		return norm >= TOLERANCE;
+	}
+
+	private static double length(double x, double y, double z) {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+
+	/**
+	 * Moves the line by the gradient times the inverse of the Hessian of
+	 * the loss, solved by Cramer's rule. A Hessian that cannot be inverted,
+	 * which only happens when the instances are all on one line, gives a
+	 * plain gradient step.
+	 */
+	private void newtonStep(double gradientX, double gradientY, double gradient0) {
+		double hxx = sums[5] / count + REGULARIZATION;
+		double hxy = sums[6] / count;
+		double hx1 = sums[7] / count;
+		double hyy = sums[8] / count + REGULARIZATION;
+		double hy1 = sums[9] / count;
+		double h11 = sums[10] / count;
+		double det = hxx * (hyy * h11 - hy1 * hy1) - hxy * (hxy * h11 - hy1 * hx1) + hx1 * (hxy * hy1 - hyy * hx1);
+		if (!(det > 1e-300)) {
+			wx -= learningRate * gradientX;
+			wy -= learningRate * gradientY;
+			w0 -= learningRate * gradient0;
+			return;
+		}
+		double stepX = (gradientX * (hyy * h11 - hy1 * hy1) - hxy * (gradientY * h11 - hy1 * gradient0) + hx1 * (gradientY * hy1 - hyy * gradient0)) / det;
+		double stepY = (hxx * (gradientY * h11 - gradient0 * hy1) - gradientX * (hxy * h11 - hy1 * hx1) + hx1 * (hxy * gradient0 - gradientY * hx1)) / det;
+		double step0 = (hxx * (hyy * gradient0 - hy1 * gradientY) - hxy * (hxy * gradient0 - gradientY * hx1) + gradientX * (hxy * hy1 - hyy * hx1)) / det;
+		wx -= stepX;
+		wy -= stepY;
+		w0 -= step0;
+	}
+
+	private void sumFullBatch() {
+		if (parallel && numBlocks > 1) {
+			IntStream.range(0, numBlocks).parallel().forEach(this::sumBlock);
+		} else {
+			for (int block = 0; block < numBlocks; block++) {
+				sumBlock(block);
+			}
+		}
+		for (int block = 0; block < numBlocks; block++) {
+			for (int k = 0; k < SUMS; k++) {
+				sums[k] += blockSums[block * SUMS + k];
+			}
+		}
+	}
+
+	/**
+	 * Sums the instances of one block into the block's partial sums,
+	 * touching no state shared with the other blocks
+	 */
+	private void sumBlock(int block) {
+		int offset = block * SUMS;
+		Arrays.fill(blockSums, offset, offset + SUMS, 0);
+		accumulate(block * BLOCK_SIZE, Math.min(count, (block + 1) * BLOCK_SIZE), blockSums, offset);
+	}
+
+	/**
+	 * Adds the gradient, the loss, the correct predictions and the Hessian
+	 * of a range of instances of the copy to partial sums
+	 *
+	 * @param from index of the first instance
+	 * @param to index after the last instance
+	 * @param target partial sums
+	 * @param offset index of the first partial sum in target
+	 */
+	private void accumulate(int from, int to, double[] target, int offset) {
+		double gx = 0;
+		double gy = 0;
+		double g0 = 0;
+		double lossSum = 0;
+		double correct = 0;
+		double hxx = 0;
+		double hxy = 0;
+		double hx1 = 0;
+		double hyy = 0;
+		double hy1 = 0;
+		double h11 = 0;
+		for (int i = from * STRIDE, end = to * STRIDE; i < end; i += STRIDE) {
+			double x = samples[i];
+			double y = samples[i + 1];
+			double sign = samples[i + 2];
+			double margin = sign * (wx * x + wy * y + w0);
+			//e^-|margin| gives the loss, its slope and its curvature without overflow
+			double e = Math.exp(-Math.abs(margin));
+			double inverse = 1 / (1 + e);
+			double slope = -sign * (margin > 0 ? e * inverse : inverse);
+			double curvature = e * inverse * inverse;
+			gx += slope * x;
+			gy += slope * y;
+			g0 += slope;
+			lossSum += Math.log(1 + e) + Math.max(-margin, 0);
+			if (margin > 0) {
+				correct++;
+			}
+			hxx += curvature * x * x;
+			hxy += curvature * x * y;
+			hx1 += curvature * x;
+			hyy += curvature * y * y;
+			hy1 += curvature * y;
+			h11 += curvature;
+		}
+		target[offset] += gx;
+		target[offset + 1] += gy;
+		target[offset + 2] += g0;
+		target[offset + 3] += lossSum;
+		target[offset + 4] += correct;
+		target[offset + 5] += hxx;
+		target[offset + 6] += hxy;
+		target[offset + 7] += hx1;
+		target[offset + 8] += hyy;
+		target[offset + 9] += hy1;
+		target[offset + 10] += h11;
+	}
+
+	/**
+	 * Returns the mean loss over the batch of the last iteration, before
+	 * the step
+	 *
+	 * @return the logistic loss with its penalty
+	 */
+	public double getLoss() {
+		return loss;
+	}
+
+	/**
+	 * Returns the fraction of the batch of the last iteration on the side
+	 * of its class, before the step
+	 *
+	 * @return the accuracy, between 0 and 1
+	 */
+	public double getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Returns the coefficient of x of the line ax + by + c = 0 in the
+	 * original coordinates, positive instances on the side where ax + by +
+	 * c is positive
+	 *
+	 * @return a
+	 */
+	public double getA() {
+		return wx / scaleX;
+	}
+
+	/**
+	 * Returns the coefficient of y of the line
+	 *
+	 * @return b
+	 * @see #getA()
+	 */
+	public double getB() {
+		return wy / scaleY;
+	}
+
+	/**
+	 * Returns the constant of the line
+	 *
+	 * @return c
+	 * @see #getA()
+	 */
+	public double getC() {
+		return w0 - wx * meanX / scaleX - wy * meanY / scaleY;
+	}
+}
@@ -0,0 +1,129 @@
+package algorithms;
+
+import java.util.Random;
+
+/**
+ * A {@link KMeansKernel} whose iterations only look at a random batch of
+ * instances. Every instance of the batch pulls its nearest centroid towards
+ * it with a learning rate of 1 / n^d, where n is the number of instances
+ * the centroid has absorbed so far and d is the decay. The cost of an
+ * iteration depends on the batch size only.
+ * <p>
+ * The centroids can also be fed batches from any other source, such as
+ * the instances of a file parsed chunk by chunk, through
+ * {@link #update(double[], double[], int)}. The full assignment of the
+ * instances is only computed when {@link #getAssignments()} is called.
+ *
+ * @author Neil Opena
+ */
+public class MiniBatchKMeansKernel extends KMeansKernel {
+
+	private final int batchSize;
+	private final double decay;
+	private final Random random;
+
+	private final double[] batchXs;
+	private final double[] batchYs;
+	private final int[] batchNearest;
+	private final long[] absorbed;
+	private boolean assigned;
+
+	/**
+	 * Creates a kernel over the given coordinates
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 * @param numberOfClusters number of centroids
+	 * @param batchSize number of instances drawn for every iteration, at
+	 * most the number of instances
+	 * @param decay exponent of the learning rate, between 0.5 and 1
+	 * @param random source of the batches
+	 */
+	public MiniBatchKMeansKernel(double[] xs, double[] ys, int size, int numberOfClusters, int batchSize, double decay, Random random) {
+		super(xs, ys, size, numberOfClusters);
+		this.batchSize = Math.min(batchSize, size);
+		this.decay = decay;
+		this.random = random;
+		batchXs = new double[this.batchSize];
+		batchYs = new double[this.batchSize];
+		batchNearest = new int[this.batchSize];
+		absorbed = new long[numberOfClusters];
+	}
+
+	@Override
+	public void setCentroid(int cluster, double x, double y) {
+		super.setCentroid(cluster, x, y);
+		assigned = false;
+	}
+
+	/**
+	 * Draws a batch of instances, with replacement, and moves the centroids
+	 * towards it
+	 *
+	 * @return true if a centroid moved
+	 */
+	@Override
+	public boolean iterate() {
+		if (size == 0) {
+			return false;
+		}
+		for (int j = 0; j < batchSize; j++) {
+			int i = random.nextInt(size);
+			batchXs[j] = xs[i];
+			batchYs[j] = ys[i];
+		}
+		return update(batchXs, batchYs, batchSize);
+	}
+
+	/**
+	 * Moves the centroids towards a batch of instances. The nearest
+	 * centroid of every instance is found before any centroid moves.
+	 *
+	 * @param batchXs x values of the batch
+	 * @param batchYs y values of the batch
+	 * @param count number of instances in the batch, at most the batch size
+	 * @return true if a centroid moved
+	 * @throws IllegalArgumentException if the batch is too large
+	 */
+	public boolean update(double[] batchXs, double[] batchYs, int count) {
+		if (count > batchSize) {
+			throw new IllegalArgumentException("Batch of " + count + " instances, at most " + batchSize + " expected");
+		}
+		for (int j = 0; j < count; j++) {
+			batchNearest[j] = closestCentroid(batchXs[j], batchYs[j]);
+		}
+		boolean moved = false;
+		for (int j = 0; j < count; j++) {
+			int c = batchNearest[j];
+			absorbed[c]++;
+			double rate = decay == 1 ? 1.0 / absorbed[c] : Math.pow(absorbed[c], -decay);
+			double x = centroidXs[c] + rate * (batchXs[j] - centroidXs[c]);
+			double y = centroidYs[c] + rate * (batchYs[j] - centroidYs[c]);
+			if (x != centroidXs[c] || y != centroidYs[c]) {
+				centroidXs[c] = x;
+				centroidYs[c] = y;
+				moved = true;
+			}
+		}
+		if (moved) {
+			assigned = false;
+		}
+		return moved;
+	}
+
+	/**
+	 * Assigns every instance to its nearest centroid if a centroid moved
+	 * since the last call
+	 *
+	 * @return cluster index by instance index
+	 */
+	@Override
+	public int[] getAssignments() {
+		if (!assigned) {
+			assign();
+			assigned = true;
+		}
+		return super.getAssignments();
+	}
+}
@@ -0,0 +1,262 @@
+package algorithms;
+
+import data.SpatialIndex;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The numerical part of a k-nearest neighbors classifier: a location takes
+ * the label most of its k nearest instances have, found through a
+ * {@link SpatialIndex}. A tie between labels goes to the label of the
+ * nearest of the tied instances.
+ * <p>
+ * A grid of locations is classified block by block. The k-th nearest
+ * instance of any location of a block is at most as far as the k-th
+ * nearest instance of the center of the block plus the distance between
+ * the two, so the instances that can vote anywhere in the block are
+ * gathered once from the index and every location only looks at them. A
+ * block is split in four first while it is larger than the distance to
+ * the k-th nearest instance of its center, which keeps the gathered
+ * instances to a few times k wherever the instances are dense; where they
+ * are sparse, the blocks stay large and the index is rarely queried. A
+ * block whose instances all have the same label takes it without looking
+ * at its locations. The kernel holds no state between calls, so that
+ * disjoint parts of a grid can be classified in parallel.
+ *
+ * @author Neil Opena
+ */
+public class NearestNeighborsKernel implements DecisionRegions {
+
+	/**
+	 * average number of instances per cell of the index, fewer than the
+	 * default as the queries are about the size of k instances
+	 */
+	public static final double INSTANCES_PER_CELL = 1;
+
+	private final SpatialIndex index;
+	private final double[] xs;
+	private final double[] ys;
+	private final int[] regions;
+	private final String[] labels;
+	private final int k;
+
+	/**
+	 * Creates a kernel over the given instances, indexing them. The arrays
+	 * are read by every classification and must not be modified.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param regions region of every instance
+	 * @param size number of instances, the arrays may be longer
+	 * @param labels label of every region
+	 * @param k number of neighbors voting for the label of a location
+	 */
+	public NearestNeighborsKernel(double[] xs, double[] ys, int[] regions, int size, List<String> labels, int k) {
+		this.xs = xs;
+		this.ys = ys;
+		this.regions = regions;
+		index = new SpatialIndex(xs, ys, size, INSTANCES_PER_CELL);
+		this.labels = labels.toArray(new String[0]);
+		this.k = Math.max(1, k);
+	}
+
+	@Override
+	public int getRegionCount() {
+		return labels.length;
+	}
+
+	@Override
+	public String getLabel(int region) {
+		return labels[region];
+	}
+
+	/**
+	 * Returns the region of a single location
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @return index of the region, -1 if no instance is indexed
+	 */
+	public int classify(double x, double y) {
+		int[] target = new int[1];
+		classify(x, y, 0, 0, 1, 1, target, 0, 1);
+		return target[0];
+	}
+
+	@Override
+	public void classify(double xStart, double yStart, double xStep, double yStep, int columns, int rows, int[] target, int offset, int stride) {
+		Grid grid = new Grid(xStart, yStart, xStep, yStep, target, offset, stride);
+		classifyBlock(grid, 0, 0, columns, rows);
+	}
+
+	private void classifyBlock(Grid grid, int firstColumn, int firstRow, int columns, int rows) {
+		if (columns <= 0 || rows <= 0) {
+			return;
+		}
+		double centerX = grid.centerX(firstColumn, columns);
+		double centerY = grid.centerY(firstRow, rows);
+		int found = index.nearest(centerX, centerY, k, grid.nearest, grid.distances);
+		if (found == 0) {
+			grid.fill(firstColumn, firstRow, columns, rows, -1);
+			return;
+		}
+		if (columns == 1 && rows == 1) {
+			grid.target[grid.offset + firstRow * grid.stride + firstColumn] = grid.voteNearest(found);
+			return;
+		}
+		double reach = Math.sqrt(grid.distances[found - 1]);
+		double halfDiagonal = Math.hypot((columns - 1) / 2.0 * grid.xStep, (rows - 1) / 2.0 * grid.yStep);
+		if (2 * halfDiagonal > reach) {
+			int left = (columns + 1) / 2;
+			int top = (rows + 1) / 2;
+			classifyBlock(grid, firstColumn, firstRow, left, top);
+			classifyBlock(grid, firstColumn + left, firstRow, columns - left, top);
+			classifyBlock(grid, firstColumn, firstRow + top, left, rows - top);
+			classifyBlock(grid, firstColumn + left, firstRow + top, columns - left, rows - top);
+			return;
+		}
+
+		grid.gather(centerX, centerY, (reach + 2 * halfDiagonal) * (1 + 1e-9));
+		if (grid.uniform) {
+			grid.fill(firstColumn, firstRow, columns, rows, grid.candidateRegions[0]);
+			return;
+		}
+		for (int row = firstRow; row < firstRow + rows; row++) {
+			double y = grid.yStart + row * grid.yStep;
+			int rowOffset = grid.offset + row * grid.stride;
+			for (int column = firstColumn; column < firstColumn + columns; column++) {
+				grid.target[rowOffset + column] = grid.vote(grid.xStart + column * grid.xStep, y);
+			}
+		}
+	}
+
+	/**
+	 * A grid being classified, with the buffers of the searches of one call
+	 */
+	private final class Grid {
+
+		private final double xStart;
+		private final double yStart;
+		private final double xStep;
+		private final double yStep;
+		private final int[] target;
+		private final int offset;
+		private final int stride;
+
+		private final int[] nearest = new int[k];
+		private final double[] distances = new double[k];
+		private final int[] neighborRegions = new int[k];
+		private final int[] votes = new int[labels.length];
+
+		//instances gathered for the current block
+		private double[] candidateXs = new double[16];
+		private double[] candidateYs = new double[16];
+		private int[] candidateRegions = new int[16];
+		private int candidates;
+		private boolean uniform;
+
+		private Grid(double xStart, double yStart, double xStep, double yStep, int[] target, int offset, int stride) {
+			this.xStart = xStart;
+			this.yStart = yStart;
+			this.xStep = xStep;
+			this.yStep = yStep;
+			this.target = target;
+			this.offset = offset;
+			this.stride = stride;
+		}
+
+		private double centerX(int firstColumn, int columns) {
+			return xStart + (firstColumn + (columns - 1) / 2.0) * xStep;
+		}
+
+		private double centerY(int firstRow, int rows) {
+			return yStart + (firstRow + (rows - 1) / 2.0) * yStep;
+		}
+
+		private void fill(int firstColumn, int firstRow, int columns, int rows, int region) {
+			for (int row = firstRow; row < firstRow + rows; row++) {
+				int rowOffset = offset + row * stride;
+				Arrays.fill(target, rowOffset + firstColumn, rowOffset + firstColumn + columns, region);
+			}
+		}
+
+		/**
+		 * Gathers the instances within a distance of a location
+		 */
+		private void gather(double x, double y, double radius) {
+			candidates = 0;
+			uniform = true;
+			index.forEachWithinRadius(x, y, radius, i -> {
+				if (candidates == candidateXs.length) {
+					candidateXs = Arrays.copyOf(candidateXs, candidates * 2);
+					candidateYs = Arrays.copyOf(candidateYs, candidates * 2);
+					candidateRegions = Arrays.copyOf(candidateRegions, candidates * 2);
+				}
+				candidateXs[candidates] = xs[i];
+				candidateYs[candidates] = ys[i];
+				candidateRegions[candidates] = regions[i];
+				uniform &= regions[i] == candidateRegions[0];
+				candidates++;
+			});
+		}
+
+		/**
+		 * Returns the region with the most votes among the k gathered
+		 * instances nearest to a location
+		 */
+		private int vote(double x, double y) {
+			int found = 0;
+			for (int c = 0; c < candidates; c++) {
+				double dx = candidateXs[c] - x;
+				double dy = candidateYs[c] - y;
+				double distance = dx * dx + dy * dy;
+				if (found < k || distance < distances[found - 1]) {
+					//insertion into the sorted nearest instances
+					int position = found < k ? found++ : k - 1;
+					while (position > 0 && distances[position - 1] > distance) {
+						distances[position] = distances[position - 1];
+						neighborRegions[position] = neighborRegions[position - 1];
+						position--;
+					}
+					distances[position] = distance;
+					neighborRegions[position] = candidateRegions[c];
+				}
+			}
+			return found == 0 ? -1 : voteNeighbors(found);
+		}
+
+		/**
+		 * Returns the region with the most votes among the instances of the
+		 * last search of the index
+		 */
+		private int voteNearest(int found) {
+			for (int n = 0; n < found; n++) {
+				neighborRegions[n] = regions[nearest[n]];
+			}
+			return voteNeighbors(found);
+		}
+
+		/**
+		 * Returns the region with the most votes among the regions of the
+		 * nearest instances, the first of them to reach the highest count
+		 * deciding a tie
+		 */
+		private int voteNeighbors(int found) {
+			int best = neighborRegions[0];
+			int bestVotes = 0;
+			for (int n = 0; n < found; n++) {
+				votes[neighborRegions[n]]++;
+			}
+			for (int n = 0; n < found; n++) {
+				if (votes[neighborRegions[n]] > bestVotes) {
+					bestVotes = votes[neighborRegions[n]];
+					best = neighborRegions[n];
+				}
+			}
+			for (int n = 0; n < found; n++) {
+				votes[neighborRegions[n]] = 0;
+			}
+			return best;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The numerical part of a linear support vector machine over the
+ * coordinate columns of a {@link data.DataSet}, trained by Pegasos: a
+ * stochastic sub-gradient descent on the hinge loss with a step of 1 /
+ * (&lambda;t) at iteration t. An iteration draws a fixed number of
+ * labelled instances at random, straight from the columns, so its cost
+ * does not depend on the size of the data set.
+ * <p>
+ * The coordinates are centered on the mean of the labelled instances and
+ * divided by a single scale, the same along both axes, so that the margin
+ * of the line is a distance in the original coordinates. The constant of
+ * the line is learned as the weight of a constant coordinate, penalized
+ * like the other weights, and the weights are projected back into the
+ * ball of radius 1 / &radic;&lambda; after every step, which holds the
+ * optimal weights.
+ *
+ * @author Neil Opena
+ * @see LogisticRegressionKernel
+ */
+public class PegasosKernel {
+
+	private final double[] xs;
+	private final double[] ys;
+	private final byte[] classes;
+	//indices of the labelled instances, drawn from at random
+	private final int[] labelled;
+	private final int count;
+	private final int batchSize;
+	private final double regularization;
+	private final Random random;
+
+	private final double meanX;
+	private final double meanY;
+	private final double scale;
+
+	//line wx * x + wy * y + w0 = 0 in scaled coordinates
+	private double wx;
+	private double wy;
+	private double w0;
+
+	private long iterations;
+	private double hingeLoss;
+	private double violations;
+
+	/**
+	 * Creates a kernel over the given instances. The arrays are read at
+	 * every iteration and must not be modified.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param classes {@link BinaryClasses#POSITIVE},
+	 * {@link BinaryClasses#NEGATIVE} or
+	 * {@link BinaryClasses#UNLABELED} by instance
+	 * @param size number of instances, the arrays may be longer
+	 * @param batchSize number of instances drawn at every iteration
+	 * @param regularization weight &lambda; of the penalty on the weights
+	 * @param random source of the instances drawn
+	 */
+	public PegasosKernel(double[] xs, double[] ys, byte[] classes, int size, int batchSize, double regularization, Random random) {
+		this.xs = xs;
+		this.ys = ys;
+		this.classes = classes;
+		this.batchSize = Math.max(1, batchSize);
+		this.regularization = regularization;
+		this.random = random;
+
+		int[] indices = new int[size];
+		int labelledCount = 0;
+		double sumX = 0;
+		double sumY = 0;
+		for (int i = 0; i < size; i++) {
+			if (classes[i] != BinaryClasses.UNLABELED) {
+				indices[labelledCount++] = i;
+				sumX += xs[i];
+				sumY += ys[i];
+			}
+		}
+		count = labelledCount;
+		labelled = indices.length == count ? indices : Arrays.copyOf(indices, count);
+		meanX = count == 0 ? 0 : sumX / count;
+		meanY = count == 0 ? 0 : sumY / count;
+		double squares = 0;
+		for (int c = 0; c < count; c++) {
+			int i = labelled[c];
+			squares += (xs[i] - meanX) * (xs[i] - meanX) + (ys[i] - meanY) * (ys[i] - meanY);
+		}
+		scale = squares > 0 ? Math.sqrt(squares / (2 * count)) : 1;
+	}
+
+	/**
+	 * Returns the number of instances the kernel trains on
+	 *
+	 * @return number of labelled instances
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Performs one step over a batch of instances drawn at random
+	 *
+	 * @return false if there is no labelled instance to train on
+	 */
+	public boolean iterate() {
+		if (count == 0) {
+			return false;
+		}
+		double gx = 0;
+		double gy = 0;
+		double g0 = 0;
+		double lossSum = 0;
+		int violated = 0;
+		for (int k = 0; k < batchSize; k++) {
+			int i = labelled[random.nextInt(count)];
+			double x = (xs[i] - meanX) / scale;
+			double y = (ys[i] - meanY) / scale;
+			double sign = classes[i] == BinaryClasses.POSITIVE ? 1 : -1;
+			double margin = sign * (wx * x + wy * y + w0);
+			if (margin < 1) {
+				gx += sign * x;
+				gy += sign * y;
+				g0 += sign;
+				lossSum += 1 - margin;
+				violated++;
+			}
+		}
+		iterations++;
+		hingeLoss = lossSum / batchSize;
+		violations = (double) violated / batchSize;
+
+		double rate = 1 / (regularization * iterations);
+		double shrink = 1 - 1.0 / iterations;
+		wx = shrink * wx + rate / batchSize * gx;
+		wy = shrink * wy + rate / batchSize * gy;
+		w0 = shrink * w0 + rate / batchSize * g0;
+		double length = Math.sqrt(wx * wx + wy * wy + w0 * w0);
+		double radius = 1 / Math.sqrt(regularization);
+		if (length > radius) {
+			wx *= radius / length;
+			wy *= radius / length;
+			w0 *= radius / length;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the mean hinge loss over the batch of the last iteration,
+	 * before the step
+	 *
+	 * @return the hinge loss, without the penalty
+	 */
+	public double getHingeLoss() {
+		return hingeLoss;
+	}
+
+	/**
+	 * Returns the fraction of the batch of the last iteration inside the
+	 * margin or on the wrong side of the line, before the step
+	 *
+	 * @return the fraction, between 0 and 1
+	 */
+	public double getViolations() {
+		return violations;
+	}
+
+	/**
+	 * Returns the distance between the line and either edge of its margin,
+	 * in the original coordinates
+	 *
+	 * @return the margin, infinite before the first step
+	 */
+	public double getMargin() {
+		return scale / Math.sqrt(wx * wx + wy * wy);
+	}
+
+	/**
+	 * Returns the coefficient of x of the line ax + by + c = 0 in the
+	 * original coordinates, positive instances on the side where ax + by +
+	 * c is positive
+	 *
+	 * @return a
+	 */
+	public double getA() {
+		return wx / scale;
+	}
+
+	/**
+	 * Returns the coefficient of y of the line
+	 *
+	 * @return b
+	 * @see #getA()
+	 */
+	public double getB() {
+		return wy / scale;
+	}
+
+	/**
+	 * Returns the constant of the line
+	 *
+	 * @return c
+	 * @see #getA()
+	 */
+	public double getC() {
+		return w0 - (wx * meanX + wy * meanY) / scale;
+	}
+}
@@ -0,0 +1,54 @@
+package algorithms;
+
+/**
+ * Receives the progress of a run driven by the {@link AlgorithmScheduler}.
+ * The methods are called from scheduler threads.
+ *
+ * @author Neil Opena
+ */
+public interface RunListener {
+
+	/**
+	 * Shows the number of the iteration just performed
+	 *
+	 * @param iteration the iteration
+	 * @param info information provided by the algorithm, may be empty
+	 */
+	void showCurrentIteration(int iteration, String info);
+
+	/**
+	 * Shows the snapshot the algorithm just took
+	 *
+	 * @param iteration the iteration of the snapshot
+	 */
+	void updateChart(int iteration);
+
+	/**
+	 * Called when a non continuous run pauses, until the run is resumed
+	 */
+	void enableRun();
+
+	/**
+	 * Called when a paused run is resumed
+	 */
+	void disableRun();
+
+	/**
+	 * Called when the run has performed the maximum number of iterations,
+	 * after the final chart update
+	 */
+	void completeAlgorithm();
+
+	/**
+	 * Called when the run terminated by itself before the maximum number of
+	 * iterations, after the final chart update
+	 */
+	void autocompleteAlgorithm();
+
+	/**
+	 * Called when the algorithm failed, the run is over
+	 *
+	 * @param cause what the algorithm threw
+	 */
+	void abortAlgorithm(Throwable cause);
+}
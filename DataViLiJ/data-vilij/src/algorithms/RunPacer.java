@@ -0,0 +1,113 @@
+package algorithms;
+
+import data.Config;
+
+/**
+ * Decides how fast a run iterates and which iterations are shown to the
+ * user. In the default mode the scheduler waits {@link #ITERATION_DELAY}
+ * milliseconds after every iteration so that the user can follow it, every
+ * iteration is shown and the chart is updated every update interval. In
+ * max throughput mode the run never waits; the latest iteration is shown at
+ * most {@link Config#getFrameRate()} times per second, or every update
+ * interval if the frame rate is 0. The chart is always updated before a
+ * non continuous run pauses.
+ *
+ * @author Neil Opena
+ */
+public final class RunPacer {
+
+	/**
+	 * milliseconds between two iterations in the default mode
+	 */
+	public static final long ITERATION_DELAY = 750;
+
+	private final boolean maxThroughput;
+	private final boolean continuous;
+	private final int updateInterval;
+	private final long frameNanos;
+
+	private long lastFrame;
+	private int checkedIteration = -1;
+	private boolean frame;
+
+	public RunPacer(Config config) {
+		maxThroughput = config.isMaxThroughput();
+		continuous = config.getToContinue();
+		updateInterval = Math.max(1, config.getUpdateInterval());
+		frameNanos = config.getFrameRate() > 0 ? 1_000_000_000L / config.getFrameRate() : 0;
+		lastFrame = System.nanoTime();
+	}
+
+	/**
+	 * Returns how long the scheduler waits before the first iteration,
+	 * giving the original chart time to show, and after every iteration
+	 *
+	 * @return delay in milliseconds, 0 in max throughput mode
+	 */
+	public long getDelay() {
+		return maxThroughput ? 0 : ITERATION_DELAY;
+	}
+
+	/**
+	 * Indicates whether iterations run back to back
+	 *
+	 * @return true in max throughput mode
+	 */
+	public boolean isMaxThroughput() {
+		return maxThroughput;
+	}
+
+	/**
+	 * Indicates whether a non continuous run pauses after the iteration
+	 *
+	 * @param iteration the iteration just performed
+	 * @return true every update interval of a non continuous run
+	 */
+	public boolean pausesAfter(int iteration) {
+		return !continuous && iteration % updateInterval == 0;
+	}
+
+	/**
+	 * Indicates whether the iteration number is shown to the user
+	 *
+	 * @param iteration the iteration just performed
+	 * @return true if the iteration should be shown
+	 */
+	public boolean showsIteration(int iteration) {
+		return !maxThroughput || isFrame(iteration);
+	}
+
+	/**
+	 * Indicates whether the chart is updated with the iteration
+	 *
+	 * @param iteration the iteration just performed
+	 * @return true if the chart should be updated
+	 */
+	public boolean updatesChart(int iteration) {
+		if (!maxThroughput) {
+			return iteration % updateInterval == 0;
+		}
+		return isFrame(iteration);
+	}
+
+	/**
+	 * Decides once per iteration whether a frame is due in max throughput
+	 * mode
+	 */
+	private boolean isFrame(int iteration) {
+		if (iteration != checkedIteration) {
+			checkedIteration = iteration;
+			if (pausesAfter(iteration)) {
+				frame = true;
+			} else if (frameNanos == 0) {
+				frame = iteration % updateInterval == 0;
+			} else {
+				frame = System.nanoTime() - lastFrame >= frameNanos;
+			}
+			if (frame) {
+				lastFrame = System.nanoTime();
+			}
+		}
+		return frame;
+	}
+}
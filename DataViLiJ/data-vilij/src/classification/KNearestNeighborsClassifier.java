@@ -0,0 +1,106 @@
+package classification;
+
+import algorithms.Classifier;
+import algorithms.NearestNeighborsKernel;
+import data.Config;
+import data.DataSet;
+import data.Tunable;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * k-nearest neighbors classifier, labelling every location of the plane
+ * with the original label most of its k nearest labelled instances have.
+ * There is nothing to train beyond indexing the instances, so the run
+ * completes after its first iteration; the output is the regions of every
+ * label rather than a line. The number of neighbors is read from the
+ * {@link Config}.
+ *
+ * @author Neil Opena
+ * @see NearestNeighborsKernel
+ */
+public class KNearestNeighborsClassifier extends Classifier {
+
+	private NearestNeighborsKernel kernel;
+	private int neighbors;
+	private int instances;
+	private boolean converged;
+
+	@Override
+	public void init(DataSet dataset, Config config) {
+		int size = dataset.size();
+		double[] xs = dataset.getXs();
+		double[] ys = dataset.getYs();
+		int[] regions = new int[size];
+		List<String> labels = new ArrayList<>();
+		Map<String, Integer> labelRegions = new HashMap<>();
+		String unlabeled = getUnlabeledLabel();
+		int labelled = 0;
+		for (int i = 0; i < size; i++) {
+			String label = dataset.getOriginalLabel(i);
+			if (!unlabeled.equals(label)) {
+				Integer region = labelRegions.get(label);
+				if (region == null) {
+					region = labels.size();
+					labelRegions.put(label, region);
+					labels.add(label);
+				}
+				regions[labelled++] = region;
+			}
+		}
+		if (labelled < size) {
+			//only the labelled instances are indexed, in the same order as their regions
+			double[] labelledXs = new double[labelled];
+			double[] labelledYs = new double[labelled];
+			int j = 0;
+			for (int i = 0; i < size; i++) {
+				if (!unlabeled.equals(dataset.getOriginalLabel(i))) {
+					labelledXs[j] = xs[i];
+					labelledYs[j] = ys[i];
+					j++;
+				}
+			}
+			xs = labelledXs;
+			ys = labelledYs;
+		}
+		neighbors = config.getNeighbors();
+		instances = labelled;
+		kernel = new NearestNeighborsKernel(xs, ys, regions, labelled, labels, neighbors);
+		converged = false;
+	}
+
+	@Override
+	public void step() {
+		publishDecisionRegions(kernel);
+		converged = true;
+	}
+
+	@Override
+	public boolean isConverged() {
+		return converged;
+	}
+
+	@Override
+	public void snapshot() {
+		// the regions are read directly when the chart is updated
+	}
+
+	@Override
+	public String getIterationInfo() {
+		return String.format(" - %d neighbors among %d instances", neighbors, instances);
+	}
+
+	@Override
+	public Set<Tunable> getTunables() {
+		return EnumSet.of(Tunable.NEIGHBORS);
+	}
+
+	@Override
+	public String getName() {
+		return "K-Nearest Neighbors Classifier";
+	}
+}
@@ -0,0 +1,76 @@
+package classification;
+
+import algorithms.BinaryClasses;
+import algorithms.Classifier;
+import algorithms.LogisticRegressionKernel;
+import data.Config;
+import data.DataSet;
+import data.Tunable;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Logistic regression separating the instances of the first label of the
+ * data set from the instances of every other label, trained on the
+ * original labels by gradient descent over random batches. A batch size of
+ * at least the number of labelled instances trains on all of them at every
+ * iteration, in parallel for large data sets. The batch size and the
+ * learning rate are read from the {@link Config}.
+ *
+ * @author Neil Opena
+ * @see LogisticRegressionKernel
+ */
+public class LogisticRegressionClassifier extends Classifier {
+
+	/**
+	 * number of instances from which the full batches use every core
+	 */
+	public static final int PARALLEL_THRESHOLD = 4 * LogisticRegressionKernel.BLOCK_SIZE;
+
+	private LogisticRegressionKernel kernel;
+	private boolean converged;
+
+	@Override
+	public void init(DataSet dataset, Config config) {
+		int size = dataset.size();
+		byte[] classes = BinaryClasses.encode(dataset, getUnlabeledLabel());
+		kernel = new LogisticRegressionKernel(dataset.getXs(), dataset.getYs(), classes, size,
+				config.getBatchSize(), config.getLearningRate(), new Random());
+		kernel.setParallel(size >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1);
+		//a single class has no line to separate it
+		converged = !BinaryClasses.hasBothClasses(classes);
+		publishCoefficients(kernel.getA(), kernel.getB(), kernel.getC());
+	}
+
+	@Override
+	public void step() {
+		converged = !kernel.iterate();
+		publishCoefficients(kernel.getA(), kernel.getB(), kernel.getC());
+	}
+
+	@Override
+	public boolean isConverged() {
+		return converged;
+	}
+
+	@Override
+	public void snapshot() {
+		// the output is read directly when the chart is updated
+	}
+
+	@Override
+	public String getIterationInfo() {
+		return String.format(" - loss %.4f, accuracy %.1f%%", kernel.getLoss(), 100 * kernel.getAccuracy());
+	}
+
+	@Override
+	public Set<Tunable> getTunables() {
+		return EnumSet.of(Tunable.BATCH_SIZE, Tunable.LEARNING_RATE);
+	}
+
+	@Override
+	public String getName() {
+		return "Logistic Regression Classifier";
+	}
+}
@@ -0,0 +1,73 @@
+package classification;
+
+import algorithms.BinaryClasses;
+import algorithms.Classifier;
+import algorithms.PegasosKernel;
+import data.Config;
+import data.DataSet;
+import data.Tunable;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Linear support vector machine separating the instances of the first
+ * label of the data set from the instances of every other label with the
+ * widest margin, trained on the original labels by Pegasos. Every iteration
+ * draws the same number of instances at random, however large the data
+ * set, so the run has no convergence test of its own and goes on until it
+ * is stopped or reaches the maximum number of iterations. The batch size
+ * and the regularization are read from the {@link Config}.
+ *
+ * @author Neil Opena
+ * @see PegasosKernel
+ */
+public class PegasosClassifier extends Classifier {
+
+	private PegasosKernel kernel;
+	private boolean converged;
+
+	@Override
+	public void init(DataSet dataset, Config config) {
+		int size = dataset.size();
+		byte[] classes = BinaryClasses.encode(dataset, getUnlabeledLabel());
+		kernel = new PegasosKernel(dataset.getXs(), dataset.getYs(), classes, size,
+				config.getBatchSize(), config.getRegularization(), new Random());
+		//a single class has no line to separate it
+		converged = !BinaryClasses.hasBothClasses(classes);
+	}
+
+	@Override
+	public void step() {
+		converged = !kernel.iterate();
+		//a vertical line has no y to draw it at, the previous line is kept
+		if (kernel.getB() != 0) {
+			publishCoefficients(kernel.getA(), kernel.getB(), kernel.getC());
+		}
+	}
+
+	@Override
+	public boolean isConverged() {
+		return converged;
+	}
+
+	@Override
+	public void snapshot() {
+		// the output is read directly when the chart is updated
+	}
+
+	@Override
+	public String getIterationInfo() {
+		return String.format(" - margin %.4g, hinge loss %.4f", kernel.getMargin(), kernel.getHingeLoss());
+	}
+
+	@Override
+	public Set<Tunable> getTunables() {
+		return EnumSet.of(Tunable.BATCH_SIZE, Tunable.REGULARIZATION);
+	}
+
+	@Override
+	public String getName() {
+		return "Pegasos Classifier";
+	}
+}
@@ -0,0 +1,114 @@
+package clustering;
+
+import algorithms.Clusterer;
+import algorithms.DbscanKernel;
+import data.Config;
+import data.DataSet;
+import data.Tunable;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DBSCAN clustering, finding as many clusters as there are dense groups of
+ * instances instead of a given number of them; the number of labels of the
+ * configuration is not used, nor asked for. The instances in no cluster are labelled as
+ * noise, and so are the instances not reached yet while the clusters grow.
+ * The neighbor distance and the number of neighbors of a core instance are
+ * read from the {@link Config}.
+ * <p>
+ * Every iteration searches the neighbors of a share of the instances, so
+ * that the run completes within the maximum number of iterations and every
+ * chart update shows the clusters found so far.
+ *
+ * @author Neil Opena
+ * @see DbscanKernel
+ */
+public class DbscanClusterer extends Clusterer {
+
+	/**
+	 * fewest neighbor searches of an iteration
+	 */
+	public static final int MIN_SEARCHES_PER_STEP = 64;
+
+	private static final String NOISE = "noise";
+
+	private DataSet dataset;
+	private DbscanKernel kernel;
+	private int searchesPerStep;
+	private double epsilon;
+	private int minPoints;
+	private int[] labelIndices;
+	private final List<String> clusterLabels = new ArrayList<>();
+
+	private boolean converged;
+
+	@Override
+	public void init(DataSet dataset, Config config) {
+		this.dataset = dataset;
+		int size = dataset.size();
+		epsilon = config.getEpsilon();
+		minPoints = config.getMinPoints();
+		kernel = new DbscanKernel(dataset.getXs(), dataset.getYs(), size, epsilon, minPoints);
+		int iterations = Math.max(1, config.getMaxIterations());
+		searchesPerStep = Math.max(MIN_SEARCHES_PER_STEP, (int) ((size + (long) iterations - 1) / iterations));
+		labelIndices = new int[size];
+		clusterLabels.clear();
+		clusterLabels.add(NOISE);
+		numberOfClusters = 0;
+		converged = size == 0;
+	}
+
+	@Override
+	public void step() {
+		converged = !kernel.iterate(searchesPerStep);
+		numberOfClusters = kernel.getClusterCount();
+	}
+
+	@Override
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * Writes the cluster of every instance into the labels of the data set,
+	 * noise and instances not reached yet under the noise label
+	 */
+	@Override
+	public void snapshot() {
+		if (kernel.getSearched() == 0) {
+			return;
+		}
+		int clusters = kernel.getClusterCount();
+		while (clusterLabels.size() <= clusters) {
+			clusterLabels.add(Integer.toString(clusterLabels.size() - 1));
+		}
+		int[] assignments = kernel.getAssignments();
+		for (int i = 0; i < labelIndices.length; i++) {
+			labelIndices[i] = assignments[i] < 0 ? 0 : assignments[i] + 1;
+		}
+		dataset.setLabels(labelIndices, clusterLabels.toArray(new String[0]));
+	}
+
+	@Override
+	public String getIterationInfo() {
+		return String.format(" - %d clusters, %d noise instances, %d of %d instances searched (epsilon %.4g, min points %d)",
+				kernel.getClusterCount(), kernel.getNoiseCount(), kernel.getSearched(), labelIndices.length, epsilon, minPoints);
+	}
+
+	@Override
+	public boolean usesNumberOfClusters() {
+		return false;
+	}
+
+	@Override
+	public Set<Tunable> getTunables() {
+		return EnumSet.of(Tunable.EPSILON, Tunable.MIN_POINTS);
+	}
+
+	@Override
+	public String getName() {
+		return "DBSCAN Clusterer";
+	}
+}
@@ -0,0 +1,34 @@
+package clustering;
+
+import algorithms.HamerlyKernel;
+import algorithms.KMeansKernel;
+
+/**
+ * KMeans clustering that keeps distance bounds for every instance so that
+ * most distance evaluations are skipped once the clusters settle. The
+ * number of skipped evaluations is shown with every iteration.
+ *
+ * @author Neil Opena
+ * @see HamerlyKernel
+ */
+public class HamerlyKMeansClusterer extends KMeansClusterer {
+
+	private HamerlyKernel kernel;
+
+	@Override
+	protected KMeansKernel createKernel(double[] xs, double[] ys, int size) {
+		kernel = new HamerlyKernel(xs, ys, size, numberOfClusters);
+		return kernel;
+	}
+
+	@Override
+	public String getIterationInfo() {
+		return String.format(" - skipped %d of %d distance evaluations", kernel.getSkippedEvaluations(), kernel.getTotalEvaluations());
+	}
+
+	@Override
+	public String getName() {
+		return "Hamerly KMeans Clusterer";
+	}
+
+}
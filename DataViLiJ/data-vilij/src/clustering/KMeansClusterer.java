@@ -6,183 +6,96 @@
 package clustering;
 
 import algorithms.Clusterer;
+import algorithms.KMeansKernel;
+import data.Config;
 import data.DataSet;
-import dataprocessors.AppData;
-import javafx.geometry.Point2D;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Ritwik Banerjee
  */
 public class KMeansClusterer extends Clusterer {
 
-	private final Thread algorithm;
-	private final AppData appData;
+	/**
+	 * number of instances from which the iterations use every core
+	 */
+	public static final int PARALLEL_THRESHOLD = 4 * KMeansKernel.BLOCK_SIZE;
 
 	private DataSet dataset;
-	private List<Point2D> centroids;
+	protected Config config;
+	private KMeansKernel kernel;
+	private String[] clusterLabels;
 
-	private final int maxIterations;
-	private final int updateInterval;
-
-	private final boolean isContinuous; //value that does not change
-	private final AtomicBoolean tocontinue;
-	private final AtomicBoolean continueIterations; //variable to hanlde non continuous requirement
-
-	public KMeansClusterer(DataSet dataset, int maxIterations, int updateInterval, int numberOfClusters, boolean tocontinue, AppData appData) {
-		super(numberOfClusters);
-		this.dataset = dataset;
-		this.maxIterations = maxIterations;
-		this.updateInterval = updateInterval;
-		this.tocontinue = new AtomicBoolean(false);
-
-		algorithm = new Thread(this);
-		algorithm.setName(getName());
-
-		this.isContinuous = tocontinue;
-		this.continueIterations = new AtomicBoolean(tocontinue);
-		this.appData = appData;
-	}
+	private boolean converged;
+	private boolean assigned; //whether an iteration produced assignments to publish
 
 	@Override
-	public int getMaxIterations() {
-		return maxIterations;
+	public void init(DataSet dataset, Config config) {
+		this.dataset = dataset;
+		this.config = config;
+		setNumberOfClusters(config.getNumLabels());
+		clusterLabels = new String[numberOfClusters];
+		for (int i = 0; i < clusterLabels.length; i++) {
+			clusterLabels[i] = Integer.toString(i);
+		}
+		assigned = false;
+		//fewer instances than clusters, nothing to do
+		converged = dataset.size() < numberOfClusters;
+		if (!converged) {
+			initializeCentroids();
+		}
 	}
 
 	@Override
-	public int getUpdateInterval() {
-		return updateInterval;
+	public void step() {
+		converged = !kernel.iterate();
+		assigned = true;
 	}
 
 	@Override
-	public boolean tocontinue() {
-		return tocontinue.get();
+	public boolean isConverged() {
+		return converged;
 	}
 
+	/**
+	 * Writes the cluster of every instance into the labels of the data set,
+	 * only done when the chart is about to show them
+	 */
 	@Override
-	public void run() {
-		// time for original chart to show
-		try {
-			Thread.sleep(750);
-		} catch (InterruptedException ex) {
-			return;
+	public void snapshot() {
+		if (assigned) {
+			dataset.setLabels(kernel.getAssignments(), clusterLabels);
 		}
-
-		try{
-			initializeCentroids();
-		}catch(IndexOutOfBoundsException ex){
-			//this occurs when the variable i is out of bounds
-			//do nothing
-		}
-
-		int iteration = 0;
-		while (!Thread.interrupted() && iteration++ < maxIterations & tocontinue.get()) {
-			appData.showCurrentIteration(iteration);
-			assignLabels();
-			recomputeCentroids();
-			if (iteration % updateInterval == 0) {
-				appData.updateChart(iteration);
-				if (!isContinuous) {
-					appData.enableRun();
-					continueIterations.set(false);
-					while (!continueIterations.get()) { //wait until play is clicked
-						if (Thread.interrupted()) {
-							return;
-						}
-					}
-					appData.disableRun();
-				}
-			}
-			try {
-				Thread.sleep(750);
-			} catch (InterruptedException ex) {
-				return;
-			}
-		}
-
-		if (iteration - 1 == maxIterations) {
-			appData.completeAlgorithm(); //algorithm exhausted all iterations
-			appData.updateChart(maxIterations); //show the last update
-		} else {
-			appData.autocompleteAlgorithm(); //algorithm terminated by itself
-			appData.updateChart(iteration);
-		}
-
 	}
 
-	private void initializeCentroids() throws IndexOutOfBoundsException{
-		Set<String> chosen = new HashSet<>();
-		List<String> instanceNames = new ArrayList<>(dataset.getOriginalLabels().keySet()); //modified so that it gets original labels instead
+	private void initializeCentroids() {
+		int size = dataset.size();
+		kernel = createKernel(dataset.getXs(), dataset.getYs(), size);
+		kernel.setParallel(size >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1);
+		Set<Integer> chosen = new HashSet<>();
 		Random r = new Random();
 		while (chosen.size() < numberOfClusters) {
-			int i = r.nextInt(instanceNames.size());
-			while (chosen.contains(instanceNames.get(i))) {
-				++i;
+			int i = r.nextInt(size);
+			while (chosen.contains(i)) {
+				i = (i + 1) % size;
 			}
-			chosen.add(instanceNames.get(i));
+			kernel.setCentroid(chosen.size(), dataset.getX(i), dataset.getY(i));
+			chosen.add(i);
 		}
-		centroids = chosen.stream().map(name -> dataset.getLocations().get(name)).collect(Collectors.toList());
-		tocontinue.set(true);
-	}
-
-	private void assignLabels() {
-		dataset.getLocations().forEach((instanceName, location) -> {
-			double minDistance = Double.MAX_VALUE;
-			int minDistanceIndex = -1;
-			for (int i = 0; i < centroids.size(); i++) {
-				double distance = computeDistance(centroids.get(i), location);
-				if (distance < minDistance) {
-					minDistance = distance;
-					minDistanceIndex = i;
-				}
-			}
-			dataset.getLabels().put(instanceName, Integer.toString(minDistanceIndex));
-		});
 	}
 
-	private void recomputeCentroids() {
-		tocontinue.set(false);
-		IntStream.range(0, numberOfClusters).forEach(i -> {
-			AtomicInteger clusterSize = new AtomicInteger();
-			Point2D sum = dataset.getLabels() //this is the modied labels
-				.entrySet()
-				.stream()
-				.filter(entry -> i == Integer.parseInt(entry.getValue()))
-				.map(entry -> dataset.getLocations().get(entry.getKey()))
-				.reduce(new Point2D(0, 0), (p, q) -> {
-					clusterSize.incrementAndGet();
-					return new Point2D(p.getX() + q.getX(), p.getY() + q.getY());
-				});
-			Point2D newCentroid = new Point2D(sum.getX() / clusterSize.get(), sum.getY() / clusterSize.get());
-			if (!newCentroid.equals(centroids.get(i))) {
-				centroids.set(i, newCentroid);
-				tocontinue.set(true);
-			}
-		});
-	}
-
-	private static double computeDistance(Point2D p, Point2D q) {
-		return Math.sqrt(Math.pow(p.getX() - q.getX(), 2) + Math.pow(p.getY() - q.getY(), 2));
-	}
-
-	@Override
-	public void startAlgorithm() {
-		algorithm.start();
-	}
-
-	@Override
-	public void continueAlgorithm() {
-		continueIterations.set(true);
-	}
-
-	@Override
-	public void stopAlgorithm() {
-		algorithm.interrupt();
+	/**
+	 * Creates the kernel running the iterations over the coordinates of the
+	 * data set
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances
+	 * @return a new kernel
+	 */
+	protected KMeansKernel createKernel(double[] xs, double[] ys, int size) {
+		return new KMeansKernel(xs, ys, size, numberOfClusters);
 	}
 
 	@Override
@@ -0,0 +1,38 @@
+package clustering;
+
+import algorithms.KMeansKernel;
+import algorithms.MiniBatchKMeansKernel;
+import data.Config;
+import data.Tunable;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * KMeans clustering that moves the centroids with random batches of
+ * instances instead of the whole data set, so an iteration costs the same
+ * whatever the number of instances. The instances are only all assigned to
+ * a cluster when the chart is updated. The batch size and the learning
+ * rate decay are read from the {@link Config}.
+ *
+ * @author Neil Opena
+ * @see MiniBatchKMeansKernel
+ */
+public class MiniBatchKMeansClusterer extends KMeansClusterer {
+
+	@Override
+	protected KMeansKernel createKernel(double[] xs, double[] ys, int size) {
+		return new MiniBatchKMeansKernel(xs, ys, size, numberOfClusters, config.getBatchSize(), config.getLearningRateDecay(), new Random());
+	}
+
+	@Override
+	public Set<Tunable> getTunables() {
+		return EnumSet.of(Tunable.BATCH_SIZE, Tunable.LEARNING_RATE_DECAY);
+	}
+
+	@Override
+	public String getName() {
+		return "Mini-Batch KMeans Clusterer";
+	}
+
+}
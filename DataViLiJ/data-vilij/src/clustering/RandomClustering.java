@@ -6,12 +6,9 @@
 package clustering;
 
 import algorithms.Clusterer;
+import data.Config;
 import data.DataSet;
-import dataprocessors.AppData;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  *
@@ -21,119 +18,40 @@ public class RandomClustering extends Clusterer { //problem with CLuster
 
 	private static final Random RAND = new Random();
 
-	@SuppressWarnings("FieldCanBeLocal")
 	private DataSet dataset;
-	private List<String> labels;
-
-	private final Thread algorithm;
-	private final AppData appData;
-
-	private final int maxIterations;
-	private final int updateInterval;
-
-	// currently, this value does not change after instantiation
-	private AtomicBoolean tocontinue;
-	private boolean isContinuous; //value that does not change
+	private String[] labels;
+	private int[] assignments;
 
 	@Override
-	public int getMaxIterations() {
-		return maxIterations;
-	}
-
-	@Override
-	public int getUpdateInterval() {
-		return updateInterval;
-	}
-
-	@Override
-	public final boolean tocontinue() {
-		return tocontinue.get();
-	}
-
-	public RandomClustering(DataSet dataset, int maxIterations, int updateInterval, int numberOfClusters, boolean tocontinue, AppData appData) {
-		super(numberOfClusters);
+	public void init(DataSet dataset, Config config) {
 		this.dataset = dataset;
-		this.maxIterations = maxIterations;
-		this.updateInterval = updateInterval;
-
-		algorithm = new Thread(this);
-		algorithm.setName(getName());
-
-		this.tocontinue = new AtomicBoolean(tocontinue);
-		this.isContinuous = tocontinue;
-		this.appData = appData;
-	}
-
-	@Override
-	public void run() {
-		// time for original chart to show
-		try {
-			Thread.sleep(750);
-		} catch (InterruptedException ex) {
-			return;
-		}
-		initializeLabels();
-		int iteration = 0;
-		while (iteration++ < maxIterations && !Thread.interrupted()) {
-			appData.showCurrentIteration(iteration);
-			assignLabels();
-			if(iteration % updateInterval == 0){
-				appData.updateChart(iteration);
-				if (!isContinuous) {
-					appData.enableRun();
-					tocontinue.set(false);
-					while (!tocontinue()) { //wait until play is clicked
-						if (Thread.interrupted()) {
-							return;
-						}
-					}
-					appData.disableRun();
-				}
-			}
-			try {
-				Thread.sleep(750);
-			} catch (InterruptedException ex) {
-				return;
-			}
-		}
-
-		if(iteration-1 == maxIterations){
-			appData.completeAlgorithm(); //algorithm exhausted all iterations
-			appData.updateChart(maxIterations);
-		}else{
-			appData.autocompleteAlgorithm(); //algorithm terminated by itself
-			appData.updateChart(iteration);
+		setNumberOfClusters(config.getNumLabels());
+		labels = new String[numberOfClusters];
+		for (int i = 0; i < numberOfClusters; i++) {
+			labels[i] = "" + i;
 		}
-	}
-
-	private void initializeLabels(){
-		labels = new ArrayList<>();
-		for(int i = 0; i < numberOfClusters; i++){
-			labels.add("" + i);
-		}
-	}
-
-	private void assignLabels() {
-		Random random = new Random();
-		dataset.getLocations().forEach((instanceName, location) -> {
-			int labelIndex = random.nextInt(labels.size());
-			dataset.getLabels().put(instanceName, labels.get(labelIndex));
-		});
+		assignments = null;
 	}
 
 	@Override
-	public void startAlgorithm() {
-		algorithm.start();
+	public void step() {
+		int[] next = new int[dataset.size()];
+		for (int i = 0; i < next.length; i++) {
+			next[i] = RAND.nextInt(labels.length);
+		}
+		assignments = next;
 	}
 
 	@Override
-	public void continueAlgorithm() {
-		tocontinue.set(true);
+	public boolean isConverged() {
+		return false;
 	}
 
 	@Override
-	public void stopAlgorithm() {
-		algorithm.interrupt();
+	public void snapshot() {
+		if (assignments != null) {
+			dataset.setLabels(assignments, labels);
+		}
 	}
 
 	@Override
@@ -5,6 +5,8 @@
  */
 package data;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -18,6 +20,16 @@ public class Config {
 
     	private final AtomicBoolean tocontinue;
 
+	private final Map<Tunable, Double> tunables;
+
+	/**
+	 * default number of times per second a max throughput run is shown
+	 */
+	public static final int DEFAULT_FRAME_RATE = 30;
+
+	private boolean maxThroughput;
+	private int frameRate;
+
 	public Config(){
 		this(-1, -1, false, -1);
 	}
@@ -31,6 +43,8 @@ public class Config {
 		this.updateInterval = updateInterval;
 		this.tocontinue = new AtomicBoolean(toContinue);
 		this.numLabels = numLabels;
+		this.tunables = new EnumMap<>(Tunable.class);
+		this.frameRate = DEFAULT_FRAME_RATE;
 	}
 
 	public int getMaxIterations(){
@@ -49,8 +63,91 @@ public class Config {
 		return tocontinue.get();
 	}
 
+	/**
+	 * Indicates whether the algorithm iterates without waiting between
+	 * iterations
+	 *
+	 * @return true for a max throughput run
+	 */
+	public boolean isMaxThroughput(){
+		return maxThroughput;
+	}
+
+	public void setMaxThroughput(boolean maxThroughput){
+		this.maxThroughput = maxThroughput;
+	}
+
+	/**
+	 * Returns how many times per second a max throughput run is shown
+	 *
+	 * @return frames per second, 0 to show every update interval instead
+	 */
+	public int getFrameRate(){
+		return frameRate;
+	}
+
+	public void setFrameRate(int frameRate){
+		if (frameRate < 0) {
+			throw new IllegalArgumentException("frame rate cannot be negative");
+		}
+		this.frameRate = frameRate;
+	}
+
+	/**
+	 * Returns the value of an optional setting
+	 *
+	 * @param tunable the setting
+	 * @return the value that was set, or the default value of the setting
+	 */
+	public double getTunable(Tunable tunable){
+		return tunables.getOrDefault(tunable, tunable.getDefaultValue());
+	}
+
+	/**
+	 * Sets the value of an optional setting
+	 *
+	 * @param tunable the setting
+	 * @param value new value of the setting
+	 * @throws IllegalArgumentException if the setting does not accept the
+	 * value
+	 */
+	public void setTunable(Tunable tunable, double value){
+		if (!tunable.accepts(value)) {
+			throw new IllegalArgumentException(tunable + " must be between " + tunable.format(tunable.getMin()) + " and " + tunable.format(tunable.getMax()));
+		}
+		tunables.put(tunable, value);
+	}
+
+	public int getBatchSize(){
+		return (int) getTunable(Tunable.BATCH_SIZE);
+	}
+
+	public double getLearningRateDecay(){
+		return getTunable(Tunable.LEARNING_RATE_DECAY);
+	}
+
+	public double getLearningRate(){
+		return getTunable(Tunable.LEARNING_RATE);
+	}
+
+	public double getRegularization(){
+		return getTunable(Tunable.REGULARIZATION);
+	}
+
+	public int getNeighbors(){
+		return (int) getTunable(Tunable.NEIGHBORS);
+	}
+
+	public double getEpsilon(){
+		return getTunable(Tunable.EPSILON);
+	}
+
+	public int getMinPoints(){
+		return (int) getTunable(Tunable.MIN_POINTS);
+	}
+
 	@Override
 	public String toString(){
-		return "[maxIterations=" + maxIterations + ", updateInterval=" + updateInterval + ", toContinue=" + tocontinue + ", numLabels=" + numLabels +"]";
+		return "[maxIterations=" + maxIterations + ", updateInterval=" + updateInterval + ", toContinue=" + tocontinue + ", numLabels=" + numLabels + ", maxThroughput=" + maxThroughput + ", frameRate=" + frameRate + ", tunables=" + tunables + "]";
 	}
 }
@@ -2,14 +2,18 @@ package data;
 
 import javafx.geometry.Point2D;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class specifies how an algorithm will expect the dataset to be. It is
@@ -18,152 +22,670 @@ import java.util.NoSuchElementException;
  * completely write your own class to represent a set of data instances as long
  * as the algorithm can read from and write into two {@link java.util.Map}
  * objects representing the name-to-label map and the name-to-location (i.e.,
- * the x,y values) map. These two are the {@link DataSet#labels} and
- * {@link DataSet#locations} maps in this class.
+ * the x,y values) map. These two are the {@link DataSet#getLabels()} and
+ * {@link DataSet#getLocations()} maps in this class.
+ * <p>
+ * The instances are stored column by column: the coordinates in two
+ * <code>double</code> arrays, the labels as ids into a label dictionary and
+ * the names in a table indexed by the same instance index. The maps are
+ * views over these columns, in insertion order.
  *
  * @author Ritwik Banerjee
  */
 public class DataSet {
 
-	public static class InvalidDataNameException extends Exception {
+	private static final int INITIAL_CAPACITY = 16;
 
-		private static final String NAME_ERROR_MSG = "All data instance names must start with the @ character.";
+	private String[] names;
+	private double[] xs;
+	private double[] ys;
+	private int[] labelIds;
+	private int[] originalLabelIds;
+	private int size;
 
-		public InvalidDataNameException(String name) {
-			super(String.format("Invalid name '%s'." + NAME_ERROR_MSG, name));
-		}
-	}
-
-	private static String nameFormatCheck(String name) throws InvalidDataNameException {
-		if (!name.startsWith("@")) {
-			throw new InvalidDataNameException(name);
-		}
-		return name;
-	}
+	//open addressing table of instance index + 1, 0 is an empty slot
+	private int[] nameTable;
 
-	private static Point2D locationOf(String locationString) {
-		String[] coordinateStrings = locationString.trim().split(",");
-		return new Point2D(Double.parseDouble(coordinateStrings[0]), Double.parseDouble(coordinateStrings[1]));
-	}
+	private List<String> labelDictionary;
+	private Map<String, Integer> labelIdsByName;
 
 	private Map<String, String> labels;
 	private Map<String, String> originalLabels;
 	private Map<String, Point2D> locations;
 
-	private Double[] sortedXValues;
-	private Double[] sortedYValues;
+	private double minX = Double.POSITIVE_INFINITY;
+	private double maxX = Double.NEGATIVE_INFINITY;
+	private double minY = Double.POSITIVE_INFINITY;
+	private double maxY = Double.NEGATIVE_INFINITY;
+
+	//built on the first quantile query, sketchedCount instances added so far
+	private QuantileSketch xSketch;
+	private QuantileSketch ySketch;
+	private int sketchedCount;
+
+	//built on the first spatial query, dropped when an instance is added
+	private volatile SpatialIndex spatialIndex;
+
+	//instances whose label changed, the change to version changeLogStart + k
+	//being changeLog[k]; the oldest changes are forgotten past twice the size
+	private int[] changeLog = new int[INITIAL_CAPACITY];
+	private int changeLogLength;
+	private long changeLogStart;
+	private long labelVersion;
+	private final BitSet changedLabels = new BitSet();
+
+	//label snapshots: one owned by the publishing thread, one by the reading
+	//thread and one in the exchange slot between them
+	private LabelSnapshot publishingLabels;
+	private final AtomicReference<LabelSnapshot> exchangedLabels = new AtomicReference<>();
+	private LabelSnapshot readingLabels;
+	private long publishedSequence;
+	private long readSequence;
+	//label version of the last snapshot taken, -1 before the first one
+	private volatile long readLabelVersion = -1;
+
 	/**
 	 * Creates an empty dataset.
 	 */
 	public DataSet() {
-		labels = new LinkedHashMap<>();
-		originalLabels = new LinkedHashMap<>();
-		locations = new LinkedHashMap<>();
+		names = new String[INITIAL_CAPACITY];
+		xs = new double[INITIAL_CAPACITY];
+		ys = new double[INITIAL_CAPACITY];
+		labelIds = new int[INITIAL_CAPACITY];
+		originalLabelIds = new int[INITIAL_CAPACITY];
+		nameTable = new int[INITIAL_CAPACITY * 2];
+		labelDictionary = new ArrayList<>();
+		labelIdsByName = new HashMap<>();
+
+		labels = new LabelView(true);
+		originalLabels = new LabelView(false);
+		locations = new LocationView();
 	}
 
+	/**
+	 * Returns the name-to-label map. Labels of existing instances can be
+	 * changed through {@link Map#put(Object, Object)}, adding an instance
+	 * this way is not supported.
+	 *
+	 * @return view of the current labels
+	 */
 	public Map<String, String> getLabels() {
 		return labels;
 	}
 
+	/**
+	 * Returns the read only name-to-label map of the labels the instances
+	 * were loaded with.
+	 *
+	 * @return view of the original labels
+	 */
 	public Map<String, String> getOriginalLabels(){
 		return originalLabels;
 	}
 
+	/**
+	 * Returns the read only name-to-location map. A new {@link Point2D} is
+	 * built on every lookup, algorithms iterating over every instance
+	 * should use {@link #getX(int)} and {@link #getY(int)} instead.
+	 *
+	 * @return view of the locations
+	 */
 	public Map<String, Point2D> getLocations() {
 		return locations;
 	}
 
 	public void updateLabel(String instanceName, String newlabel) {
-		if (labels.get(instanceName) == null) {
+		int index = indexOf(instanceName);
+		if (index < 0) {
 			throw new NoSuchElementException();
 		}
-		labels.put(instanceName, newlabel);
+		setLabel(index, newlabel);
+	}
+
+	/**
+	 * Adds an already validated instance to the dataset
+	 *
+	 * @param name name of the instance
+	 * @param label label of the instance
+	 * @param x x value of the instance location
+	 * @param y y value of the instance location
+	 * @return false if an instance with the same name already exists
+	 */
+	public boolean addInstance(String name, String label, double x, double y) {
+		int slot = slotOf(name);
+		if (nameTable[slot] != 0) {
+			return false;
+		}
+		if (size == names.length) {
+			grow();
+			slot = slotOf(name);
+		}
+		int labelId = labelId(label);
+		names[size] = name;
+		xs[size] = x;
+		ys[size] = y;
+		labelIds[size] = labelId;
+		originalLabelIds[size] = labelId;
+		nameTable[slot] = ++size;
+		spatialIndex = null;
+		forgetLabelChanges();
+		if (x < minX) {
+			minX = x;
+		}
+		if (x > maxX) {
+			maxX = x;
+		}
+		if (y < minY) {
+			minY = y;
+		}
+		if (y > maxY) {
+			maxY = y;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of instances in the dataset
+	 *
+	 * @return number of instances
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the index of the instance with the given name
+	 *
+	 * @param name name of the instance
+	 * @return index of the instance, or -1 if there is no such instance
+	 */
+	public int indexOf(String name) {
+		return nameTable[slotOf(name)] - 1;
+	}
+
+	public String getName(int index) {
+		checkIndex(index);
+		return names[index];
+	}
+
+	public double getX(int index) {
+		checkIndex(index);
+		return xs[index];
+	}
+
+	public double getY(int index) {
+		checkIndex(index);
+		return ys[index];
+	}
+
+	public String getLabel(int index) {
+		checkIndex(index);
+		return labelDictionary.get(labelIds[index]);
+	}
+
+	public String getOriginalLabel(int index) {
+		checkIndex(index);
+		return labelDictionary.get(originalLabelIds[index]);
+	}
+
+	/**
+	 * Changes the current label of an instance, the original label is kept
+	 *
+	 * @param index index of the instance
+	 * @param label new label of the instance
+	 */
+	public void setLabel(int index, String label) {
+		checkIndex(index);
+		writeLabel(index, labelId(label));
+	}
+
+	/**
+	 * Sets the current label of every instance at once, for algorithms
+	 * that keep their own label index per instance. The label ids are
+	 * resolved once per label instead of once per instance.
+	 *
+	 * @param assignments index into <code>labels</code> of every instance
+	 * @param labels label of every index
+	 * @throws IllegalArgumentException if there are fewer assignments than
+	 * instances
+	 */
+	public void setLabels(int[] assignments, String[] labels) {
+		if (assignments.length < size) {
+			throw new IllegalArgumentException("Expected " + size + " assignments, got " + assignments.length);
+		}
+		int[] ids = new int[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			ids[i] = labelId(labels[i]);
+		}
+		for (int i = 0; i < size; i++) {
+			writeLabel(i, ids[assignments[i]]);
+		}
+	}
+
+	/**
+	 * Returns the number of label changes so far, to be given later to
+	 * {@link #getChangedSince(long)}. Setting an instance to the label it
+	 * already has is not a change.
+	 *
+	 * @return the current label version
+	 */
+	public long getLabelVersion() {
+		return labelVersion;
+	}
+
+	/**
+	 * Returns the instances whose label changed since a label version, so
+	 * that the work of a caller is proportional to the changes rather than
+	 * to the size of the data set. Only the last changes are kept, about
+	 * twice as many as there are instances; adding an instance forgets them
+	 * all.
+	 *
+	 * @param version a value of {@link #getLabelVersion()}
+	 * @return indices of the changed instances in increasing order, each
+	 * once, or null if the changes since that version are no longer known
+	 */
+	public int[] getChangedSince(long version) {
+		if (version < changeLogStart) {
+			return null;
+		}
+		int from = (int) Math.min(version - changeLogStart, changeLogLength);
+		for (int k = from; k < changeLogLength; k++) {
+			changedLabels.set(changeLog[k]);
+		}
+		int[] changed = new int[changedLabels.cardinality()];
+		int count = 0;
+		for (int i = changedLabels.nextSetBit(0); i >= 0; i = changedLabels.nextSetBit(i + 1)) {
+			changed[count++] = i;
+			changedLabels.clear(i);
+		}
+		return changed;
 	}
 
-	private void addInstance(String tsdLine) throws InvalidDataNameException {
-		String[] arr = tsdLine.split("\t");
-		labels.put(nameFormatCheck(arr[0]), arr[1]);
-		originalLabels.put(nameFormatCheck(arr[0]), arr[1]);
-		locations.put(arr[0], locationOf(arr[2]));
+	private void writeLabel(int index, int labelId) {
+		if (labelIds[index] == labelId) {
+			return;
+		}
+		labelIds[index] = labelId;
+		if (changeLogLength == Math.max(INITIAL_CAPACITY, 2 * size)) {
+			changeLogStart += changeLogLength;
+			changeLogLength = 0;
+		} else if (changeLogLength == changeLog.length) {
+			changeLog = Arrays.copyOf(changeLog, Math.min(2 * changeLogLength, Math.max(INITIAL_CAPACITY, 2 * size)));
+		}
+		changeLog[changeLogLength++] = index;
+		labelVersion++;
 	}
 
-	public void sortValues(){
-		Map<Double, Double> xMap = new LinkedHashMap<>();
-		Map<Double, Double> yMap = new LinkedHashMap<>();
+	private void forgetLabelChanges() {
+		labelVersion++;
+		changeLogStart = labelVersion;
+		changeLogLength = 0;
+	}
 
-		locations.values().forEach(point -> {
-			double xValue = point.getX();
-			double yValue = point.getY();
+	/**
+	 * Publishes a copy of the current labels for another thread to read
+	 * with {@link #takeLabels()}, typically the JavaFX thread while an
+	 * algorithm is writing labels. The copy replaces any published copy that
+	 * was not taken yet. Called from one thread at a time, the one writing
+	 * the labels.
+	 * <p>
+	 * The publishing and the reading thread each own a snapshot and swap it
+	 * with the one in an exchange slot, so neither waits for the other and
+	 * the reader never sees a snapshot being written. No snapshot is
+	 * allocated once the three have been created, unless instances are
+	 * added.
+	 *
+	 * @param stamp number to publish the labels with, such as the iteration
+	 */
+	public void publishLabels(int stamp) {
+		if (publishingLabels == null) {
+			publishingLabels = new LabelSnapshot();
+		}
+		LabelSnapshot snapshot = publishingLabels;
+		snapshot.copy(labelIds, labelDictionary, size, getChangedSince(snapshot.labelVersion));
+		snapshot.stamp = stamp;
+		snapshot.sequence = ++publishedSequence;
+		snapshot.labelVersion = labelVersion;
+		//changes since the labels the reader holds, whichever it takes next
+		snapshot.baseVersion = readLabelVersion;
+		snapshot.changes = snapshot.baseVersion < 0 ? null : getChangedSince(snapshot.baseVersion);
+		publishingLabels = exchangedLabels.getAndSet(snapshot);
+	}
 
-			xMap.put(xValue, xValue);
-			yMap.put(yValue, yValue);
-		});
+	/**
+	 * Takes the labels published last by {@link #publishLabels(int)}. The
+	 * snapshot returned stays unchanged until the next call, which hands it
+	 * back to be reused. Called from one thread at a time, the one reading
+	 * the labels.
+	 *
+	 * @return the labels published since the last call, or null if none
+	 * were
+	 */
+	public LabelSnapshot takeLabels() {
+		LabelSnapshot exchanged = exchangedLabels.get();
+		//only the publisher replaces the exchanged snapshot, with a newer one
+		if (exchanged == null || exchanged.sequence <= readSequence) {
+			return null;
+		}
+		readingLabels = exchangedLabels.getAndSet(readingLabels);
+		readSequence = readingLabels.sequence;
+		readLabelVersion = readingLabels.labelVersion;
+		return readingLabels;
+	}
 
-		sortedXValues = xMap.values().toArray(new Double[0]);
-		Arrays.sort(sortedXValues);
+	/**
+	 * Returns the x column. The array may be longer than {@link #size()}
+	 * and must not be modified.
+	 *
+	 * @return x values indexed by instance
+	 */
+	public double[] getXs() {
+		return xs;
+	}
 
-		sortedYValues = yMap.values().toArray(new Double[0]);
-		Arrays.sort(sortedYValues);
+	/**
+	 * Returns the y column. The array may be longer than {@link #size()}
+	 * and must not be modified.
+	 *
+	 * @return y values indexed by instance
+	 */
+	public double[] getYs() {
+		return ys;
 	}
 
 	/**
 	 * Identifies the minimum x value
-	 * @precondition data must be sorted
-	 * @return minimum x of data
+	 * @return minimum x of data, positive infinity if there is no instance
 	 */
 	public double getMinX() {
-		return sortedXValues[0].doubleValue();
+		return minX;
 	}
 
 	/**
 	 * Identifies the maximum x value
-	 * @precondition data must be sorted
-	 * @return maximum x of data
+	 * @return maximum x of data, negative infinity if there is no instance
 	 */
 	public double getMaxX() {
-		return sortedXValues[sortedXValues.length - 1].doubleValue();
+		return maxX;
 	}
 
 	/**
 	 * Identifies the minimum y value
-	 * @precondition data must be sorted
-	 * @return minimum y of data
+	 * @return minimum y of data, positive infinity if there is no instance
 	 */
 	public double getMinY() {
-		return sortedYValues[0].doubleValue();
+		return minY;
 	}
 
 	/**
 	 * Identifies the maximum y value
-	 * @precondition data must be sorted
-	 * @return maximum y of data
+	 * @return maximum y of data, negative infinity if there is no instance
 	 */
 	public double getMaxY() {
-		return sortedYValues[sortedYValues.length - 1].doubleValue();
+		return maxY;
+	}
+
+	/**
+	 * Estimates the x value below which the given fraction of the instances
+	 * lies, for example to leave outliers out of an axis range. The
+	 * instances added since the last query are streamed into a
+	 * {@link QuantileSketch}, nothing is sorted.
+	 *
+	 * @param fraction fraction of the instances, between 0 and 1
+	 * @return the estimated quantile of the x values
+	 */
+	public double getXQuantile(double fraction) {
+		catchUpSketches();
+		return xSketch.getQuantile(fraction);
 	}
 
-	public static DataSet fromTSDFile(Path tsdFilePath) throws IOException {
-		DataSet dataset = new DataSet();
-		Files.lines(tsdFilePath).forEach(line -> {
-			try {
-				dataset.addInstance(line);
-			} catch (InvalidDataNameException e) {
-				e.printStackTrace();
+	/**
+	 * Estimates the y value below which the given fraction of the instances
+	 * lies
+	 *
+	 * @param fraction fraction of the instances, between 0 and 1
+	 * @return the estimated quantile of the y values
+	 * @see #getXQuantile(double)
+	 */
+	public double getYQuantile(double fraction) {
+		catchUpSketches();
+		return ySketch.getQuantile(fraction);
+	}
+
+	/**
+	 * Returns the spatial index of the instance locations, for nearest
+	 * neighbor, radius and box queries. The index is built on the first call
+	 * and kept until an instance is added; labels do not affect it.
+	 *
+	 * @return the index over the current instances
+	 */
+	public SpatialIndex getSpatialIndex() {
+		SpatialIndex index = spatialIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = spatialIndex;
+				if (index == null) {
+					index = new SpatialIndex(xs, ys, size);
+					spatialIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private void catchUpSketches() {
+		if (xSketch == null) {
+			xSketch = new QuantileSketch();
+			ySketch = new QuantileSketch();
+		}
+		for (; sketchedCount < size; sketchedCount++) {
+			xSketch.add(xs[sketchedCount]);
+			ySketch.add(ys[sketchedCount]);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Returns the id of a label, adding it to the dictionary if needed
+	 */
+	private int labelId(String label) {
+		Integer id = labelIdsByName.get(label);
+		if (id == null) {
+			id = labelDictionary.size();
+			labelDictionary.add(label);
+			labelIdsByName.put(label, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the slot of the name table holding the name, or the empty
+	 * slot where it would be inserted
+	 */
+	private int slotOf(Object name) {
+		if (!(name instanceof String)) {
+			return emptySlot();
+		}
+		int mask = nameTable.length - 1;
+		int hash = name.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (nameTable[slot] != 0 && !names[nameTable[slot] - 1].equals(name)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int emptySlot() {
+		int slot = 0;
+		while (nameTable[slot] != 0) {
+			slot++;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the capacity of the columns and rebuilds the name table
+	 */
+	private void grow() {
+		int capacity = names.length * 2;
+		names = Arrays.copyOf(names, capacity);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		labelIds = Arrays.copyOf(labelIds, capacity);
+		originalLabelIds = Arrays.copyOf(originalLabelIds, capacity);
+
+		nameTable = new int[capacity * 2];
+		for (int i = 0; i < size; i++) {
+			nameTable[slotOf(names[i])] = i + 1;
+		}
+	}
+
+	/**
+	 * Base of the map views, iterating over the instances in index order
+	 */
+	private abstract class ColumnView<V> extends AbstractMap<String, V> {
+
+		private final Set<Entry<String, V>> entries = new AbstractSet<Entry<String, V>>() {
+			@Override
+			public Iterator<Entry<String, V>> iterator() {
+				return new Iterator<Entry<String, V>>() {
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return next < size;
+					}
+
+					@Override
+					public Entry<String, V> next() {
+						if (next >= size) {
+							throw new NoSuchElementException();
+						}
+						return new ColumnEntry(next++);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
 			}
-		});
-		return dataset;
-	}
-
-	public static DataSet fromText(String text) {
-		List lines = Arrays.asList(text.split("\n"));
-		DataSet dataset = new DataSet();
-		lines.forEach(line -> {
-			try {
-				dataset.addInstance(line.toString());
-			} catch (InvalidDataNameException e) {
-				e.printStackTrace();
+		};
+
+		abstract V valueAt(int index);
+
+		V setValueAt(int index, V value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			return entries;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return nameTable[slotOf(key)] != 0;
+		}
+
+		@Override
+		public V get(Object key) {
+			int index = nameTable[slotOf(key)] - 1;
+			return index < 0 ? null : valueAt(index);
+		}
+
+		@Override
+		public V put(String key, V value) {
+			int index = nameTable[slotOf(key)] - 1;
+			if (index < 0) {
+				throw new UnsupportedOperationException("Instances are added through addInstance");
+			}
+			return setValueAt(index, value);
+		}
+
+		private class ColumnEntry implements Entry<String, V> {
+
+			private final int index;
+
+			ColumnEntry(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public String getKey() {
+				return names[index];
+			}
+
+			@Override
+			public V getValue() {
+				return valueAt(index);
+			}
+
+			@Override
+			public V setValue(V value) {
+				return setValueAt(index, value);
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if (!(o instanceof Entry)) {
+					return false;
+				}
+				Entry<?, ?> entry = (Entry<?, ?>) o;
+				return getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+			}
+
+			@Override
+			public int hashCode() {
+				return getKey().hashCode() ^ getValue().hashCode();
+			}
+
+			@Override
+			public String toString() {
+				return getKey() + "=" + getValue();
+			}
+		}
+	}
+
+	private class LabelView extends ColumnView<String> {
+
+		private final boolean current;
+
+		LabelView(boolean current) {
+			this.current = current;
+		}
+
+		@Override
+		String valueAt(int index) {
+			return labelDictionary.get(current ? labelIds[index] : originalLabelIds[index]);
+		}
+
+		@Override
+		String setValueAt(int index, String label) {
+			if (!current) {
+				throw new UnsupportedOperationException();
 			}
-		});
-		return dataset;
+			String old = valueAt(index);
+			writeLabel(index, labelId(label));
+			return old;
+		}
+	}
+
+	private class LocationView extends ColumnView<Point2D> {
+
+		@Override
+		Point2D valueAt(int index) {
+			return new Point2D(xs[index], ys[index]);
+		}
 	}
 }
@@ -0,0 +1,117 @@
+package data;
+
+import java.util.List;
+
+/**
+ * A copy of the current labels of a data set, published by the thread
+ * writing the labels for another thread to read. Once handed to the reader,
+ * a snapshot does not change until the reader takes the next one, so it can
+ * be read without locking while the algorithm goes on writing labels.
+ * Snapshots are recycled by the data set and hold no reference to it.
+ *
+ * @author Neil Opena
+ * @see DataSet#publishLabels(int)
+ * @see DataSet#takeLabels()
+ */
+public final class LabelSnapshot {
+
+	private int[] labelIds = new int[0];
+	private String[] labels = new String[0];
+	private int size;
+
+	//set by the data set when publishing
+	int stamp;
+	long sequence; //order of publication
+	long labelVersion = -1; //label version of the data set the labels are a copy of
+	long baseVersion = -1;
+	int[] changes; //instances changed since baseVersion, null if unknown
+
+	LabelSnapshot() {
+	}
+
+	/**
+	 * Copies the labels into this snapshot, reusing its arrays when they are
+	 * long enough
+	 *
+	 * @param ids label id of every instance
+	 * @param dictionary label of every id
+	 * @param size number of instances
+	 * @param changed instances whose label changed since the labels of this
+	 * snapshot were copied, only they are copied again; null to copy all
+	 */
+	void copy(int[] ids, List<String> dictionary, int size, int[] changed) {
+		if (changed != null && size == this.size) {
+			for (int i : changed) {
+				labelIds[i] = ids[i];
+			}
+		} else {
+			if (labelIds.length < size) {
+				labelIds = new int[ids.length];
+			}
+			System.arraycopy(ids, 0, labelIds, 0, size);
+		}
+		labels = dictionary.toArray(labels);
+		this.size = size;
+	}
+
+	/**
+	 * Returns the number of instances
+	 *
+	 * @return number of instances when the labels were published
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the label an instance had when the labels were published
+	 *
+	 * @param index index of the instance
+	 * @return label of the instance
+	 * @throws IndexOutOfBoundsException if there is no such instance
+	 */
+	public String getLabel(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return labels[labelIds[index]];
+	}
+
+	/**
+	 * Returns the label version of the data set these labels are a copy of
+	 *
+	 * @return the label version
+	 * @see DataSet#getLabelVersion()
+	 */
+	public long getLabelVersion() {
+		return labelVersion;
+	}
+
+	/**
+	 * Returns the instances whose label may differ from the labels of the
+	 * data set at an earlier version, typically the version of the
+	 * snapshot taken before this one. Only the changes since the last
+	 * snapshot taken when this one was published are known, so a few
+	 * unchanged instances may be returned as well.
+	 *
+	 * @param version label version of the labels to compare with
+	 * @return indices of the instances in increasing order, not to be
+	 * modified, or null if any instance may differ
+	 */
+	public int[] getChangedSince(long version) {
+		if (version >= labelVersion) {
+			return new int[0];
+		}
+		return changes == null || version < baseVersion ? null : changes;
+	}
+
+	/**
+	 * Returns the number the labels were published with, such as the
+	 * iteration of the algorithm
+	 *
+	 * @return the stamp
+	 */
+	public int getStamp() {
+		return stamp;
+	}
+}
@@ -0,0 +1,180 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Streaming approximation of the quantiles of a sequence of values, using
+ * a stack of compactors. Values enter the first level; when a level is full
+ * it is sorted and every other value is promoted to the next level, where
+ * each value stands for twice as many inputs. The memory used is
+ * logarithmic in the number of values and no value is ever sorted with the
+ * whole sequence.
+ * <p>
+ * The smallest and largest values are kept exactly. NaN values are
+ * ignored.
+ *
+ * @author Neil Opena
+ */
+public class QuantileSketch {
+
+	/**
+	 * default number of values kept per level
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final int capacity;
+	private double[][] levels;
+	private int[] sizes;
+	private boolean[] offsets;
+	private long count;
+	private double min;
+	private double max;
+
+	//sorted values of every level and their cumulative weights, null when stale
+	private double[] sortedValues;
+	private long[] cumulativeWeights;
+
+	public QuantileSketch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty sketch
+	 *
+	 * @param capacity number of values kept per level, the error of a
+	 * quantile shrinks as the capacity grows
+	 */
+	public QuantileSketch(int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("capacity must be at least 2");
+		}
+		this.capacity = capacity & ~1;
+		levels = new double[1][this.capacity];
+		sizes = new int[1];
+		offsets = new boolean[1];
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Adds a value to the sketch
+	 *
+	 * @param value value to be added
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		if (sizes[0] == capacity) {
+			compact(0);
+		}
+		levels[0][sizes[0]++] = value;
+		count++;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+		sortedValues = null;
+	}
+
+	/**
+	 * Returns the number of values added to the sketch
+	 *
+	 * @return number of values, NaN values excluded
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Estimates the value below which the given fraction of the values lies
+	 *
+	 * @param fraction fraction of the values, between 0 and 1
+	 * @return the estimated quantile, the exact minimum for 0 and the exact
+	 * maximum for 1
+	 * @throws IllegalArgumentException if the fraction is not between 0 and 1
+	 * @throws IllegalStateException if the sketch is empty
+	 */
+	public double getQuantile(double fraction) {
+		if (!(fraction >= 0 && fraction <= 1)) {
+			throw new IllegalArgumentException("fraction must be between 0 and 1");
+		}
+		if (count == 0) {
+			throw new IllegalStateException("empty sketch");
+		}
+		if (fraction == 0) {
+			return min;
+		}
+		if (fraction == 1) {
+			return max;
+		}
+		if (sortedValues == null) {
+			sort();
+		}
+		double rank = fraction * count;
+		int index = 0;
+		while (index < cumulativeWeights.length - 1 && cumulativeWeights[index] < rank) {
+			index++;
+		}
+		return sortedValues[index];
+	}
+
+	/**
+	 * Sorts a full level and promotes every other value to the next level,
+	 * alternating which half is kept so that the error does not drift
+	 */
+	private void compact(int level) {
+		if (level + 1 == levels.length) {
+			levels = Arrays.copyOf(levels, level + 2);
+			levels[level + 1] = new double[capacity];
+			sizes = Arrays.copyOf(sizes, level + 2);
+			offsets = Arrays.copyOf(offsets, level + 2);
+		}
+		if (sizes[level + 1] + capacity / 2 > capacity) {
+			compact(level + 1);
+		}
+		double[] values = levels[level];
+		Arrays.sort(values, 0, sizes[level]);
+		double[] next = levels[level + 1];
+		for (int i = offsets[level] ? 1 : 0; i < sizes[level]; i += 2) {
+			next[sizes[level + 1]++] = values[i];
+		}
+		offsets[level] = !offsets[level];
+		sizes[level] = 0;
+	}
+
+	/**
+	 * Merges the sorted levels into one sorted array with cumulative
+	 * weights, a value of level l standing for 2^l values
+	 */
+	private void sort() {
+		double[] values = new double[0];
+		long[] weights = new long[0];
+		for (int level = 0; level < levels.length; level++) {
+			double[] levelValues = Arrays.copyOf(levels[level], sizes[level]);
+			Arrays.sort(levelValues);
+			double[] merged = new double[values.length + levelValues.length];
+			long[] mergedWeights = new long[merged.length];
+			int i = 0;
+			int j = 0;
+			for (int k = 0; k < merged.length; k++) {
+				if (j == levelValues.length || (i < values.length && values[i] <= levelValues[j])) {
+					merged[k] = values[i];
+					mergedWeights[k] = weights[i++];
+				} else {
+					merged[k] = levelValues[j++];
+					mergedWeights[k] = 1L << level;
+				}
+			}
+			values = merged;
+			weights = mergedWeights;
+		}
+		for (int k = 1; k < weights.length; k++) {
+			weights[k] += weights[k - 1];
+		}
+		sortedValues = values;
+		cumulativeWeights = weights;
+	}
+}
@@ -0,0 +1,397 @@
+package data;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A uniform grid over the locations of a set of instances, holding a few
+ * instances per cell. The instance indices are sorted by cell so that the
+ * instances of a cell are contiguous; a query only looks at the cells
+ * overlapping its search area, or at rings of cells around its location
+ * for the nearest neighbor queries. The coordinates are read from the
+ * given arrays, which must not change while the index is in use. Instances
+ * with a NaN coordinate are not indexed.
+ * <p>
+ * The bounds and the cell of every instance are computed in parallel over
+ * fixed chunks of instances; the instances are then sorted by cell in one
+ * counting pass. An index is immutable once built and can be queried from
+ * any thread.
+ *
+ * @author Neil Opena
+ * @see DataSet#getSpatialIndex()
+ */
+public final class SpatialIndex {
+
+	/**
+	 * average number of instances per cell
+	 */
+	public static final int INSTANCES_PER_CELL = 4;
+	/**
+	 * number of instances handled by a parallel task of the build
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final int size;
+
+	private final double minX;
+	private final double minY;
+	private final double cellWidth;
+	private final double cellHeight;
+	private final int columns;
+	private final int rows;
+	//instances of cell c are order[cellStarts[c]] to order[cellStarts[c + 1] - 1]
+	private final int[] cellStarts;
+	private final int[] order;
+
+	/**
+	 * Builds the index of the given instances
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 */
+	public SpatialIndex(double[] xs, double[] ys, int size) {
+		this(xs, ys, size, INSTANCES_PER_CELL);
+	}
+
+	/**
+	 * Builds the index of the given instances with a given average number
+	 * of instances per cell. Fewer instances per cell make the queries of a
+	 * small area cheaper, at the cost of more cells to look at for a large
+	 * area.
+	 *
+	 * @param xs x values of the instances
+	 * @param ys y values of the instances
+	 * @param size number of instances, the arrays may be longer
+	 * @param instancesPerCell average number of instances per cell
+	 */
+	public SpatialIndex(double[] xs, double[] ys, int size, double instancesPerCell) {
+		this.xs = xs;
+		this.ys = ys;
+		this.size = size;
+
+		int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		double[][] chunkBounds = new double[chunks][];
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			double lowX = Double.POSITIVE_INFINITY;
+			double highX = Double.NEGATIVE_INFINITY;
+			double lowY = Double.POSITIVE_INFINITY;
+			double highY = Double.NEGATIVE_INFINITY;
+			int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+			//comparisons rather than Math.min and Math.max, which would propagate NaN
+			for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+				double x = xs[i];
+				double y = ys[i];
+				lowX = x < lowX ? x : lowX;
+				highX = x > highX ? x : highX;
+				lowY = y < lowY ? y : lowY;
+				highY = y > highY ? y : highY;
+			}
+			chunkBounds[chunk] = new double[]{lowX, highX, lowY, highY};
+		});
+		double lowX = Double.POSITIVE_INFINITY;
+		double highX = Double.NEGATIVE_INFINITY;
+		double lowY = Double.POSITIVE_INFINITY;
+		double highY = Double.NEGATIVE_INFINITY;
+		for (double[] bounds : chunkBounds) {
+			lowX = Math.min(lowX, bounds[0]);
+			highX = Math.max(highX, bounds[1]);
+			lowY = Math.min(lowY, bounds[2]);
+			highY = Math.max(highY, bounds[3]);
+		}
+
+		int side = Math.max(1, (int) Math.ceil(Math.sqrt(size / instancesPerCell)));
+		columns = side;
+		rows = side;
+		minX = lowX > highX ? 0 : lowX;
+		minY = lowY > highY ? 0 : lowY;
+		cellWidth = highX > lowX ? (highX - lowX) / side * (1 + 1e-9) : 1;
+		cellHeight = highY > lowY ? (highY - lowY) / side * (1 + 1e-9) : 1;
+
+		int[] cells = new int[size];
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+			for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+				cells[i] = cellOf(xs[i], ys[i]);
+			}
+		});
+
+		//counting sort of the instances by cell
+		int cellCount = columns * rows;
+		cellStarts = new int[cellCount + 1];
+		for (int i = 0; i < size; i++) {
+			if (cells[i] >= 0) {
+				cellStarts[cells[i] + 1]++;
+			}
+		}
+		for (int c = 0; c < cellCount; c++) {
+			cellStarts[c + 1] += cellStarts[c];
+		}
+		order = new int[cellStarts[cellCount]];
+		int[] next = Arrays.copyOf(cellStarts, cellCount);
+		for (int i = 0; i < size; i++) {
+			if (cells[i] >= 0) {
+				order[next[cells[i]]++] = i;
+			}
+		}
+	}
+
+	private int cellOf(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return -1;
+		}
+		return row(y) * columns + column(x);
+	}
+
+	private int column(double x) {
+		return clamp((int) Math.floor((x - minX) / cellWidth), columns);
+	}
+
+	private int row(double y) {
+		return clamp((int) Math.floor((y - minY) / cellHeight), rows);
+	}
+
+	private static int clamp(int value, int count) {
+		return value < 0 ? 0 : value >= count ? count - 1 : value;
+	}
+
+	/**
+	 * Returns the number of instances the index was built over
+	 *
+	 * @return number of instances, including the ones not indexed
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the instance nearest to a location
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @return index of the nearest instance, -1 if no instance is indexed
+	 */
+	public int nearest(double x, double y) {
+		int[] nearest = nearest(x, y, 1);
+		return nearest.length == 0 ? -1 : nearest[0];
+	}
+
+	/**
+	 * Returns the k instances nearest to a location
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param k number of instances to return
+	 * @return indices of the nearest instances, nearest first, fewer than k
+	 * if fewer instances are indexed
+	 * @see #nearest(double, double, int, int[], double[])
+	 */
+	public int[] nearest(double x, double y, int k) {
+		k = Math.min(k, order.length);
+		int[] nearest = new int[k];
+		nearest(x, y, k, nearest, new double[k]);
+		return nearest;
+	}
+
+	/**
+	 * Finds the k instances nearest to a location into arrays of the
+	 * caller, so that repeated queries allocate nothing. The cells are
+	 * visited ring by ring around the cell of the location, until the
+	 * closest possible instance of the next ring is farther than the k-th
+	 * nearest instance found so far.
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param k number of instances to find, at most the length of the
+	 * arrays
+	 * @param nearest receives the indices of the nearest instances, nearest
+	 * first
+	 * @param distances receives their squared distances to the location
+	 * @return number of instances found, fewer than k if fewer instances
+	 * are indexed
+	 */
+	public int nearest(double x, double y, int k, int[] nearest, double[] distances) {
+		k = Math.min(k, order.length);
+		if (k <= 0) {
+			return 0;
+		}
+		int found = 0;
+		int centerColumn = column(x);
+		int centerRow = row(y);
+		//distance from the location to the edges of its cell, 0 outside of the grid
+		double inset = Math.max(0, Math.min(
+				Math.min(x - (minX + centerColumn * cellWidth), minX + (centerColumn + 1) * cellWidth - x),
+				Math.min(y - (minY + centerRow * cellHeight), minY + (centerRow + 1) * cellHeight - y)));
+		double step = Math.min(cellWidth, cellHeight);
+		int lastRing = Math.max(columns, rows);
+		for (int ring = 0; ring <= lastRing; ring++) {
+			double ringDistance = ring == 0 ? 0 : (ring - 1) * step + inset;
+			if (found == k && ringDistance * ringDistance > distances[k - 1]) {
+				break;
+			}
+			int firstRow = Math.max(centerRow - ring, 0);
+			int lastRow = Math.min(centerRow + ring, rows - 1);
+			for (int row = firstRow; row <= lastRow; row++) {
+				boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+				int columnStep = edgeRow ? 1 : 2 * ring;
+				for (int column = centerColumn - ring; column <= centerColumn + ring; column += columnStep) {
+					if (column < 0 || column >= columns) {
+						continue;
+					}
+					int cell = row * columns + column;
+					for (int c = cellStarts[cell]; c < cellStarts[cell + 1]; c++) {
+						int i = order[c];
+						double dx = xs[i] - x;
+						double dy = ys[i] - y;
+						double distance = dx * dx + dy * dy;
+						if (found < k || distance < distances[found - 1]) {
+							//insertion into the sorted nearest instances
+							int position = found < k ? found++ : k - 1;
+							while (position > 0 && distances[position - 1] > distance) {
+								distances[position] = distances[position - 1];
+								nearest[position] = nearest[position - 1];
+								position--;
+							}
+							distances[position] = distance;
+							nearest[position] = i;
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the instance nearest to a location within an ellipse around
+	 * it. The distance is measured with each axis divided by the radius
+	 * along it, which makes it a distance in pixels when the radii are the
+	 * same number of pixels converted to each axis.
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param xRadius half width of the ellipse
+	 * @param yRadius half height of the ellipse
+	 * @return index of the nearest instance in the ellipse, -1 if there is
+	 * none
+	 */
+	public int nearest(double x, double y, double xRadius, double yRadius) {
+		int[] nearest = {-1};
+		double[] nearestDistance = {1};
+		forEachInBox(x - xRadius, y - yRadius, x + xRadius, y + yRadius, i -> {
+			double dx = (xs[i] - x) / xRadius;
+			double dy = (ys[i] - y) / yRadius;
+			double distance = dx * dx + dy * dy;
+			if (distance <= nearestDistance[0]) {
+				nearestDistance[0] = distance;
+				nearest[0] = i;
+			}
+		});
+		return nearest[0];
+	}
+
+	/**
+	 * Visits the instances within a distance of a location, in no
+	 * particular order
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param radius the distance, inclusive
+	 * @param action called with the index of every instance found
+	 */
+	public void forEachWithinRadius(double x, double y, double radius, IntConsumer action) {
+		double squaredRadius = radius * radius;
+		forEachInBox(x - radius, y - radius, x + radius, y + radius, i -> {
+			double dx = xs[i] - x;
+			double dy = ys[i] - y;
+			if (dx * dx + dy * dy <= squaredRadius) {
+				action.accept(i);
+			}
+		});
+	}
+
+	/**
+	 * Returns the instances within a distance of a location. A radius of 0
+	 * finds the instances at the exact same location.
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param radius the distance, inclusive
+	 * @return indices of the instances, in no particular order
+	 */
+	public int[] withinRadius(double x, double y, double radius) {
+		IndexCollector collector = new IndexCollector();
+		forEachWithinRadius(x, y, radius, collector);
+		return collector.toArray();
+	}
+
+	/**
+	 * Visits the instances inside a box, bounds included, in no particular
+	 * order
+	 *
+	 * @param minX left edge of the box
+	 * @param minY bottom edge of the box
+	 * @param maxX right edge of the box
+	 * @param maxY top edge of the box
+	 * @param action called with the index of every instance found
+	 */
+	public void forEachInBox(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+		if (!(minX <= maxX && minY <= maxY)) {
+			return;
+		}
+		int firstColumn = column(minX);
+		int lastColumn = column(maxX);
+		int firstRow = row(minY);
+		int lastRow = row(maxY);
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int cell = row * columns + column;
+				for (int c = cellStarts[cell]; c < cellStarts[cell + 1]; c++) {
+					int i = order[c];
+					if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+						action.accept(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the instances inside a box, bounds included
+	 *
+	 * @param minX left edge of the box
+	 * @param minY bottom edge of the box
+	 * @param maxX right edge of the box
+	 * @param maxY top edge of the box
+	 * @return indices of the instances, in no particular order
+	 */
+	public int[] inBox(double minX, double minY, double maxX, double maxY) {
+		IndexCollector collector = new IndexCollector();
+		forEachInBox(minX, minY, maxX, maxY, collector);
+		return collector.toArray();
+	}
+
+	/**
+	 * Growing array of instance indices
+	 */
+	private static final class IndexCollector implements IntConsumer {
+
+		private int[] indices = new int[16];
+		private int count;
+
+		@Override
+		public void accept(int index) {
+			if (count == indices.length) {
+				indices = Arrays.copyOf(indices, count * 2);
+			}
+			indices[count++] = index;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(indices, count);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package data;
+
+/**
+ * Optional settings of an algorithm, in addition to the ones every
+ * algorithm has. An algorithm lists the tunables it reads through
+ * {@link algorithms.Algorithm#getTunables()}; the configuration window only
+ * shows those, and a {@link Config} returns the default value of any
+ * tunable that was not set.
+ *
+ * @author Neil Opena
+ */
+public enum Tunable {
+	/**
+	 * number of instances drawn for every mini-batch update
+	 */
+	BATCH_SIZE(1024, 1, 1000000, true),
+	/**
+	 * exponent d of the learning rate 1 / n^d of a centroid updated n
+	 * times, 1 averages every instance seen, smaller values favour recent
+	 * batches
+	 */
+	LEARNING_RATE_DECAY(1, 0.5, 1, false),
+	/**
+	 * step along the gradient of a classifier trained by gradient descent,
+	 * over coordinates scaled to a unit standard deviation
+	 */
+	LEARNING_RATE(0.5, 1e-6, 100, false),
+	/**
+	 * weight of the penalty on the squared length of the weights of a
+	 * support vector machine, over coordinates scaled to a unit standard
+	 * deviation; larger values favour a wider margin over fewer violations
+	 */
+	REGULARIZATION(1e-4, 1e-8, 100, false),
+	/**
+	 * number of nearest instances voting for the label of a location
+	 */
+	NEIGHBORS(5, 1, 1000, true),
+	/**
+	 * distance within which two instances are neighbors for density based
+	 * clustering, in the units of the data
+	 */
+	EPSILON(1, 1e-9, 1e9, false),
+	/**
+	 * number of instances within the neighbor distance, the instance itself
+	 * included, that makes an instance the core of a cluster
+	 */
+	MIN_POINTS(4, 1, 1000, true);
+
+	private final double defaultValue;
+	private final double min;
+	private final double max;
+	private final boolean integer;
+
+	Tunable(double defaultValue, double min, double max, boolean integer) {
+		this.defaultValue = defaultValue;
+		this.min = min;
+		this.max = max;
+		this.integer = integer;
+	}
+
+	public double getDefaultValue() {
+		return defaultValue;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Indicates whether only whole numbers are accepted
+	 *
+	 * @return true if the value must be an integer
+	 */
+	public boolean isInteger() {
+		return integer;
+	}
+
+	/**
+	 * Checks whether a value can be used for this tunable
+	 *
+	 * @param value value to be checked
+	 * @return true if the value is in range, and whole if required
+	 */
+	public boolean accepts(double value) {
+		return value >= min && value <= max && (!integer || value == Math.rint(value));
+	}
+
+	/**
+	 * Formats a value the way it is entered by the user
+	 *
+	 * @param value value of this tunable
+	 * @return the value without a fraction for integer tunables
+	 */
+	public String format(double value) {
+		return integer ? Long.toString((long) value) : Double.toString(value);
+	}
+}
@@ -2,29 +2,38 @@ package dataprocessors;
 
 import actions.AppActions;
 import algorithms.Algorithm;
+import algorithms.AlgorithmScheduler;
 import algorithms.AlgorithmTypes;
 import algorithms.Classifier;
 import algorithms.Clusterer;
+import algorithms.DecisionRegions;
+import algorithms.RunListener;
 import data.Config;
 import data.DataSet;
-import java.io.BufferedReader;
+import data.LabelSnapshot;
+import data.Tunable;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.geometry.Point2D;
 import javafx.scene.chart.NumberAxis;
+import javafx.scene.Node;
 import javafx.scene.chart.XYChart;
 
 import vilij.propertymanager.PropertyManager;
@@ -40,7 +49,19 @@ import static settings.AppPropertyTypes.*;
  * @author Ritwik Banerjee
  * @see DataComponent
  */
-public class AppData implements DataComponent {
+public class AppData implements DataComponent, RunListener {
+
+	/**
+	 * number of points drawing the output of a classifier when it is a
+	 * curve rather than a line
+	 */
+	private static final int CURVE_POINTS = 64;
+	/**
+	 * style classes the chart gives the symbol of a point for its series,
+	 * added again without removing the old ones when the point changes
+	 * series
+	 */
+	private static final Pattern SERIES_STYLE = Pattern.compile("chart-line-symbol|(series|data|default-color)\\d+");
 
 	private TSDProcessor processor;
 	private ApplicationTemplate applicationTemplate;
@@ -53,6 +74,20 @@ public class AppData implements DataComponent {
 	 */
 	private DataSet data;
 	private Set labels;
+
+	//points of the chart by instance index, with the label they are displayed under
+	private List<XYChart.Data<Number, Number>> points;
+	private String[] displayedLabels;
+	private Map<String, XYChart.Series<Number, Number>> displayedSeries;
+	//label version of the labels displayed, -1 if they are not the labels of a snapshot
+	private long displayedLabelVersion = -1;
+	//group by instance index when the points are drawn on the canvas, a group being a label and its series
+	private int[] pointGroups;
+	private Map<String, Integer> labelGroups;
+	private List<XYChart.Series<Number, Number>> groupSeries;
+	private int[] groupSizes;
+	private int canvasThreshold = Integer.MAX_VALUE;
+	private int densityThreshold = Integer.MAX_VALUE;
 	private double minX;
 	private double maxX;
 	private double minY;
@@ -61,8 +96,6 @@ public class AppData implements DataComponent {
 	//For classification algorithms
 	private ArrayList<Classifier> classificationAlgorithms;
 	private ArrayList<Config> classificationConfigurations;
-	private double lineMinY;
-	private double lineMaxY; //variables used to store temp y values 
 	private XYChart.Series<Number, Number> line;
 
 	//For clustering algorithms
@@ -72,11 +105,28 @@ public class AppData implements DataComponent {
 	private AlgorithmTypes algorithmType;
 	private int algorithmIndex;
 	private Algorithm algorithmToRun; //current algorithm queued up to run
+	private AlgorithmScheduler.Run currentRun;
+	private final AlgorithmScheduler scheduler = new AlgorithmScheduler();
+
+	//latest states posted by the running algorithm, displayed once per pulse
+	//while a run is active
+	private final FrameMailbox<Frame> chartFrames = new FrameMailbox<>();
+	private final FrameMailbox<Frame> progressFrames = new FrameMailbox<>();
+	private AnimationTimer frameTimer;
+	//output of the running classifier for the last iteration reported
+	private double[] coefficientBuffer = new double[3];
+	private int coefficientCount;
+	private int coefficientIteration;
 	private Config configuration;
 
 	private boolean isRunning; //test if algorithm is running
 	private boolean fromFile;
 
+	//data set built by the most recent file validation
+	private Path validatedPath;
+	private DataSet validatedData;
+	private String validatedPreview;
+
 	public AppData(ApplicationTemplate applicationTemplate) {
 		this.processor = new TSDProcessor();
 		this.applicationTemplate = applicationTemplate;
@@ -85,6 +135,8 @@ public class AppData implements DataComponent {
 		appUI = (AppUI) applicationTemplate.getUIComponent();
 		appActions = (AppActions) applicationTemplate.getActionComponent();
 		manager = applicationTemplate.manager;
+		canvasThreshold = Integer.parseInt(manager.getPropertyValue(CANVAS_THRESHOLD.name()));
+		densityThreshold = Integer.parseInt(manager.getPropertyValue(DENSITY_THRESHOLD.name()));
 
 		loadAlgorithms();
 	}
@@ -95,37 +147,39 @@ public class AppData implements DataComponent {
 
 	@Override
 	public void loadData(Path dataFilePath) {
+		String preview = validatedPreview;
+		DataSet loaded = takeValidated(dataFilePath);
 		clear();
 
 		try {
-			String fileData = getFileText(dataFilePath.toFile());
-			try {
-				processor.processString(fileData);
-				data = DataSet.fromTSDFile(dataFilePath);
-
-				labels = new LinkedHashSet(data.getLabels().values());
-				int numInstances = data.getLocations().size();
-
-				if (numInstances > 10) {
-					appUI.setTextAreaText(getTopTen(fileData));
-				} else {
-					appUI.setTextAreaText(fileData);
-				}
-
-				checkLabels();
-				String path = dataFilePath.toString();
-				appUI.displayInfo(numInstances, path);
-				appUI.setUpAlgorithmTypes(labels.size());
-				fromFile = true;
-				displayOriginalData();
-				appUI.enableScreenShotButton();
-			} catch (Exception e) {
-				//FILE NOT VALID
+			if (loaded == null) {
+				loaded = processor.processFile(dataFilePath);
+				preview = processor.getPreview();
 			}
-
-		} catch (FileNotFoundException e) {
+		} catch (NoSuchFileException e) {
 			appActions.showErrorDialog(manager.getPropertyValue(FILE_NOT_FOUND_TITLE.name()), manager.getPropertyValue(FILE_NOT_FOUND_MESSAGE.name()));
+			return;
+		} catch (IOException e) {
+			appActions.showErrorDialog(manager.getPropertyValue(IO_ERROR_TITLE.name()), manager.getPropertyValue(IO_LOAD_ERROR_MESSAGE.name()));
+			return;
+		} catch (Exception e) {
+			//FILE NOT VALID
+			return;
 		}
+
+		data = loaded;
+		labels = new LinkedHashSet(data.getLabels().values());
+		int numInstances = data.getLocations().size();
+
+		appUI.setTextAreaText(preview);
+
+		checkLabels();
+		String path = dataFilePath.toString();
+		appUI.displayInfo(numInstances, path);
+		appUI.setUpAlgorithmTypes(labels.size());
+		fromFile = true;
+		displayOriginalData();
+		appUI.enableScreenShotButton();
 	}
 
 	/**
@@ -135,7 +189,14 @@ public class AppData implements DataComponent {
 	 */
 	public void loadData(String dataString) {
 		fromFile = false;
-		data = DataSet.fromText(dataString);
+		processor.clear();
+		try {
+			processor.processString(dataString.trim());
+		} catch (Exception e) {
+			//text is validated before it is loaded
+			return;
+		}
+		data = processor.getDataSet();
 		labels = new LinkedHashSet(data.getLabels().values());
 		checkLabels();
 		appUI.displayInfo(data.getLocations().size(), null);
@@ -183,29 +244,21 @@ public class AppData implements DataComponent {
 		algorithmToRun = null;
 		configuration = null;
 		data = null;
+		points = null;
+		pointGroups = null;
+		appUI.getChart().clearPoints();
+		appUI.getChart().clearRegions();
 		fromFile = false;
 	}
 
 	private void displayOriginalData() {
-		data.sortValues();
-
 		NumberAxis xAxis = (NumberAxis) appUI.getChart().getXAxis();
 		NumberAxis yAxis = (NumberAxis) appUI.getChart().getYAxis();
-		appUI.getChart().getData().clear();
 		xAxis.setAutoRanging(false);
 		yAxis.setAutoRanging(false);
 
-		Set<String> labels = new LinkedHashSet<>(data.getOriginalLabels().values());
-		for (String label : labels) {
-			XYChart.Series<Number, Number> series = new XYChart.Series<>();
-			series.setName(label);
-			data.getOriginalLabels().entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-				Point2D point = data.getLocations().get(entry.getKey());
-				String name = entry.getKey();
-				series.getData().add(new XYChart.Data<>(point.getX(), point.getY(), name));
-			});
-			appUI.getChart().getData().add(series);
-		}
+		appUI.getChart().clearRegions();
+		buildSeries(data::getOriginalLabel);
 
 		minX = data.getMinX();
 		maxX = data.getMaxX();
@@ -222,26 +275,210 @@ public class AppData implements DataComponent {
 
 		xAxis.setTickUnit(xTicks);
 		yAxis.setTickUnit(yTicks);
+	}
+
+	/**
+	 * Displays the labels published by the algorithm in the chart. Only the
+	 * instances whose label changed since the last update are looked at and
+	 * moved to the series of their new label, the points and their nodes
+	 * are kept with the style of their previous series removed.
+	 *
+	 * @param published the labels to display, read instead of the data set
+	 * that the algorithm is writing into
+	 */
+	private void displayData(LabelSnapshot published) {
+		if (usesCanvas()) {
+			if (pointGroups == null || pointGroups.length != published.size()) {
+				buildSeries(published::getLabel);
+			} else {
+				drawCanvasPoints(published::getLabel, changedSinceDisplayed(published));
+			}
+			displayedLabelVersion = published.getLabelVersion();
+			return;
+		}
+		if (points == null || points.size() != published.size()) {
+			buildSeries(published::getLabel);
+			displayedLabelVersion = published.getLabelVersion();
+			return;
+		}
+		int[] changed = changedSinceDisplayed(published);
+		int count = changed == null ? displayedLabels.length : changed.length;
+		Map<String, Set<XYChart.Data<Number, Number>>> removed = new HashMap<>();
+		Map<String, List<XYChart.Data<Number, Number>>> added = new LinkedHashMap<>();
+		for (int k = 0; k < count; k++) {
+			int i = changed == null ? k : changed[k];
+			String label = published.getLabel(i);
+			if (!Objects.equals(label, displayedLabels[i])) {
+				removed.computeIfAbsent(displayedLabels[i], key -> new HashSet<>()).add(points.get(i));
+				added.computeIfAbsent(label, key -> new ArrayList<>()).add(points.get(i));
+				displayedLabels[i] = label;
+			}
+		}
+		displayedLabelVersion = published.getLabelVersion();
+
+		List<XYChart.Series<Number, Number>> chartSeries = appUI.getChart().getData();
+		removed.forEach((label, moved) -> {
+			XYChart.Series<Number, Number> labelSeries = displayedSeries.get(label);
+			labelSeries.getData().removeAll(moved);
+			if (labelSeries.getData().isEmpty()) {
+				chartSeries.remove(labelSeries);
+				displayedSeries.remove(label);
+			}
+		});
+		added.forEach((label, moved) -> {
+			moved.forEach(AppData::clearSeriesStyle);
+			XYChart.Series<Number, Number> labelSeries = displayedSeries.get(label);
+			if (labelSeries == null) {
+				labelSeries = newSeries(label);
+				labelSeries.getData().addAll(moved);
+				displayedSeries.put(label, labelSeries);
+				chartSeries.add(labelSeries);
+			} else {
+				labelSeries.getData().addAll(moved);
+			}
+		});
+	}
+
+	/**
+	 * Removes the style classes of the series of a point from its symbol
+	 * before it joins another series. The chart adds the classes of the
+	 * new series to the symbol it reuses, and the color of a previous
+	 * series could otherwise win.
+	 *
+	 * @param point point leaving its series
+	 */
+	static void clearSeriesStyle(XYChart.Data<?, ?> point) {
+		Node symbol = point.getNode();
+		if (symbol != null) {
+			symbol.getStyleClass().removeIf(styleClass -> SERIES_STYLE.matcher(styleClass).matches());
+		}
+	}
 
-		appUI.displayInstanceNames();
+	/**
+	 * Returns the instances whose label may differ between the chart and
+	 * the given labels
+	 *
+	 * @param published labels about to be displayed
+	 * @return indices of the instances, or null if any may differ
+	 */
+	private int[] changedSinceDisplayed(LabelSnapshot published) {
+		return displayedLabelVersion < 0 ? null : published.getChangedSince(displayedLabelVersion);
 	}
 
 	/**
-	 * Displays the updated data in the chart
+	 * Replaces the series of the chart with a point for every instance,
+	 * grouped by label. Above the canvas threshold the points are drawn on
+	 * the canvas of the chart instead.
+	 *
+	 * @param labelOf label to display by instance index
 	 */
-	private void displayData() {
+	private void buildSeries(IntFunction<String> labelOf) {
 		appUI.getChart().getData().clear();
-		Set<String> labels = new LinkedHashSet<>(data.getLabels().values());
-		for (String label : labels) {
-			XYChart.Series<Number, Number> series = new XYChart.Series<>();
-			series.setName(label);
-			data.getLabels().entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-				Point2D point = data.getLocations().get(entry.getKey());
-				String name = entry.getKey();
-				series.getData().add(new XYChart.Data<>(point.getX(), point.getY(), name));
-			});
-			appUI.getChart().getData().add(series);
+		displayedSeries = new LinkedHashMap<>();
+		displayedLabelVersion = -1;
+		if (usesCanvas()) {
+			points = null;
+			displayedLabels = null;
+			pointGroups = new int[data.size()];
+			labelGroups = new HashMap<>();
+			groupSeries = new ArrayList<>();
+			groupSizes = new int[0];
+			drawCanvasPoints(labelOf, null);
+			return;
+		}
+		pointGroups = null;
+		appUI.getChart().clearPoints();
+		points = new ArrayList<>(data.size());
+		displayedLabels = new String[data.size()];
+		for (int i = 0; i < data.size(); i++) {
+			String label = labelOf.apply(i);
+			XYChart.Data<Number, Number> point = new XYChart.Data<>(data.getX(i), data.getY(i), data.getName(i));
+			points.add(point);
+			displayedLabels[i] = label;
+			XYChart.Series<Number, Number> labelSeries = displayedSeries.get(label);
+			if (labelSeries == null) {
+				labelSeries = newSeries(label);
+				displayedSeries.put(label, labelSeries);
+			}
+			labelSeries.getData().add(point);
 		}
+		appUI.getChart().getData().addAll(displayedSeries.values());
+	}
+
+	/**
+	 * Draws every instance on the canvas of the chart, with the color of
+	 * the series of its label. The series hold no points and only the ones
+	 * of the labels in use are in the chart. A label keeps its series and
+	 * its group index from one update to the next, so that the legend, the
+	 * colors and the unchanged points stay as they are.
+	 *
+	 * @param labelOf label to display by instance index
+	 * @param changed instances whose label may have changed since the last
+	 * call, null to look at every instance
+	 */
+	private void drawCanvasPoints(IntFunction<String> labelOf, int[] changed) {
+		if (changed == null) {
+			Arrays.fill(groupSizes, 0);
+		}
+		int count = changed == null ? pointGroups.length : changed.length;
+		for (int k = 0; k < count; k++) {
+			int i = changed == null ? k : changed[k];
+			String label = labelOf.apply(i);
+			Integer group = labelGroups.get(label);
+			if (group == null) {
+				group = groupSeries.size();
+				labelGroups.put(label, group);
+				groupSeries.add(newSeries(label));
+				groupSizes = Arrays.copyOf(groupSizes, groupSeries.size());
+			}
+			if (changed != null) {
+				groupSizes[pointGroups[i]]--;
+			}
+			pointGroups[i] = group;
+			groupSizes[group]++;
+		}
+
+		Map<String, XYChart.Series<Number, Number>> previous = displayedSeries;
+		displayedSeries = new LinkedHashMap<>();
+		for (int group = 0; group < groupSizes.length; group++) {
+			if (groupSizes[group] > 0) {
+				displayedSeries.put(groupSeries.get(group).getName(), groupSeries.get(group));
+			}
+		}
+		List<XYChart.Series<Number, Number>> chartSeries = appUI.getChart().getData();
+		previous.forEach((label, labelSeries) -> {
+			if (displayedSeries.get(label) != labelSeries) {
+				chartSeries.remove(labelSeries);
+			}
+		});
+		displayedSeries.forEach((label, labelSeries) -> {
+			if (previous.get(label) != labelSeries) {
+				chartSeries.add(labelSeries);
+			}
+		});
+		appUI.getChart().setDensityShown(data.size() > densityThreshold);
+		appUI.getChart().showPoints(data.getXs(), data.getYs(), pointGroups, groupSeries, pointGroups.length);
+	}
+
+	/**
+	 * Indicates whether the instances are too many to have a node each
+	 *
+	 * @return true if the points are drawn on the canvas of the chart
+	 */
+	private boolean usesCanvas() {
+		return data.size() > canvasThreshold;
+	}
+
+	/**
+	 * Creates the series of a label, the series is not added to the chart
+	 *
+	 * @param label name of the series
+	 * @return the empty series
+	 */
+	private XYChart.Series<Number, Number> newSeries(String label) {
+		XYChart.Series<Number, Number> labelSeries = new XYChart.Series<>();
+		labelSeries.setName(label);
+		return labelSeries;
 	}
 
 	/**
@@ -292,31 +529,72 @@ public class AppData implements DataComponent {
 			processor.processString(toCheck);
 			return null;
 		} catch (Exception e) {
-			String message = e.getMessage();
-			if (message.length() < 9) {
-				message = message + applicationTemplate.manager.getPropertyValue(INVALID_DATA_MESSAGE.name());
-			}
-			return message;
+			return getErrorMessage(e);
 		}
 	}
 
 	/**
 	 * Check whether the text within a file is valid based on the tsd
-	 * requirements
+	 * requirements. The data set built while validating is kept so that
+	 * a following {@link #loadData(Path)} of the same file does not read
+	 * it again.
 	 *
 	 * @param file the File to be checked
 	 * @return null if data is valid, else return a message of the error
 	 */
 	public String validateText(File file) {
+		Path path = file.toPath();
+		validatedPath = null;
+		validatedData = null;
+		validatedPreview = null;
 		try {
-			String fileData = getFileText(file);
-
-			return validateText(fileData);
-		} catch (FileNotFoundException e) {
+			processor.clear();
+			validatedData = processor.processFile(path);
+			validatedPreview = processor.getPreview();
+			validatedPath = path;
+			return null;
+		} catch (NoSuchFileException e) {
 			appActions.showErrorDialog(manager.getPropertyValue(FILE_NOT_FOUND_TITLE.name()), manager.getPropertyValue(FILE_NOT_FOUND_MESSAGE.name()));
 			return e.getMessage();
+		} catch (IOException e) {
+			appActions.showErrorDialog(manager.getPropertyValue(IO_ERROR_TITLE.name()), manager.getPropertyValue(IO_LOAD_ERROR_MESSAGE.name()));
+			return e.getMessage();
+		} catch (Exception e) {
+			return getErrorMessage(e);
+		}
+	}
+
+	/**
+	 * Returns the data set built by the last successful file validation if
+	 * it belongs to the given path. The cached data set is released either
+	 * way.
+	 *
+	 * @param dataFilePath path of the file to be loaded
+	 * @return the validated data set, or null if the file must be processed
+	 */
+	private DataSet takeValidated(Path dataFilePath) {
+		DataSet validated = null;
+		if (validatedPath != null && validatedPath.equals(dataFilePath)) {
+			validated = validatedData;
 		}
+		validatedPath = null;
+		validatedData = null;
+		validatedPreview = null;
+		return validated;
+	}
 
+	/**
+	 * Builds the message shown to the user for invalid tsd data
+	 *
+	 * @param e exception thrown while processing the data
+	 * @return message of the error
+	 */
+	private String getErrorMessage(Exception e) {
+		String message = e.getMessage();
+		if (message.length() < 9) {
+			message = message + applicationTemplate.manager.getPropertyValue(INVALID_DATA_MESSAGE.name());
+		}
+		return message;
 	}
 
 	/**
@@ -364,10 +642,8 @@ public class AppData implements DataComponent {
 		Arrays.asList(classificationDirectory.list()).forEach(algorithm -> {
 			String className = "classification." + algorithm.split("\\.")[0];
 			try {
-				Class algorithmClass = Class.forName(className);
-				Constructor constructor = algorithmClass.getConstructors()[0];
-
-				Classifier algorithmInstance = (Classifier) constructor.newInstance(null, -1, -1, false, this);
+				Class<?> algorithmClass = Class.forName(className);
+				Classifier algorithmInstance = (Classifier) algorithmClass.getConstructor().newInstance();
 				classificationAlgorithms.add(algorithmInstance);
 
 				//Add temporary configurations
@@ -383,10 +659,8 @@ public class AppData implements DataComponent {
 		Arrays.asList(clusteringDirectory.list()).forEach(algorithm -> {
 			String className = "clustering." + algorithm.split("\\.")[0];
 			try {
-				Class algorithmClass = Class.forName(className);
-				Constructor constructor = algorithmClass.getConstructors()[0];
-
-				Clusterer algorithmInstance = (Clusterer) constructor.newInstance(null, -1, -1, -1, false, this);
+				Class<?> algorithmClass = Class.forName(className);
+				Clusterer algorithmInstance = (Clusterer) algorithmClass.getConstructor().newInstance();
 				clusteringAlgorithms.add(algorithmInstance);
 
 				//Add temporary configurations
@@ -399,30 +673,17 @@ public class AppData implements DataComponent {
 	}
 
 	/**
-	 * FIXME
+	 * Creates a new instance of the selected algorithm, the loaded
+	 * instances are kept for their names and settings only
 	 */
 	private void setUpAlgorithm() {
-		if (algorithmType.equals(AlgorithmTypes.CLASSIFICATION)) {
-			//go to list, get algorithm based on index && replace
-			Classifier toReplace = classificationAlgorithms.get(algorithmIndex);
-			Constructor constructor = toReplace.getClass().getConstructors()[0];
-			try {
-				algorithmToRun = (Algorithm) constructor.newInstance(data, configuration.getMaxIterations(), configuration.getUpdateInterval(), configuration.getToContinue(), this);
-			} catch (Exception ex) { 
-				appActions.showErrorDialog("Algorithm Loading Error", "Something went wrong with loading the algorithm");
-			} 
-
-			classificationAlgorithms.set(algorithmIndex, (Classifier) algorithmToRun);
-		} else {
-			//go to list, get algorithm based on index && replace
-			Clusterer toReplace = clusteringAlgorithms.get(algorithmIndex);
-			Constructor constructor = toReplace.getClass().getConstructors()[0];
-
-			try {
-				algorithmToRun = (Algorithm) constructor.newInstance(data, configuration.getMaxIterations(), configuration.getUpdateInterval(), configuration.getNumLabels(), configuration.getToContinue(), this);
-			} catch (Exception ex) { 
-				appActions.showErrorDialog("Algorithm Loading Error", "Something went wrong with loading the algorithm");
-			} 
+		Algorithm selected = algorithmType.equals(AlgorithmTypes.CLASSIFICATION)
+				? classificationAlgorithms.get(algorithmIndex)
+				: clusteringAlgorithms.get(algorithmIndex);
+		try {
+			algorithmToRun = selected.getClass().getConstructor().newInstance();
+		} catch (Exception ex) {
+			appActions.showErrorDialog("Algorithm Loading Error", "Something went wrong with loading the algorithm");
 		}
 	}
 
@@ -437,7 +698,22 @@ public class AppData implements DataComponent {
 			initLine();
 		}
 
-		algorithmToRun.startAlgorithm();
+		chartFrames.clear();
+		progressFrames.clear();
+		//iterations start over with the new run
+		coefficientIteration = -1;
+		if (frameTimer == null) {
+			frameTimer = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					drainFrames();
+				}
+			};
+		}
+		frameTimer.start();
+		//the last slice of the previous run may still be reporting its end,
+		//the new run waits for it off the JavaFX thread
+		currentRun = scheduler.submit(algorithmToRun, data, configuration, this, currentRun);
 
 		appUI.disableRun();
 		appUI.disableBackButton();
@@ -453,32 +729,72 @@ public class AppData implements DataComponent {
 	}
 
 	/**
-	 * Updates the current display of the line with the current output
-	 * values
+	 * Posts the current output of the algorithm to be displayed at the next
+	 * pulse, replacing any update that has not been displayed yet. The
+	 * labels of a clusterer are published as a snapshot, the chart never
+	 * reads the data set while the algorithm writes into it.
 	 */
+	@Override
 	public void updateChart(int iteration) {
-		Platform.runLater(() -> {
-			if (algorithmType.equals(AlgorithmTypes.CLASSIFICATION)) {
-				XYChart.Series line = (appUI.getChart().getData().get(appUI.getChart().getData().size() - 1));
-				XYChart.Data min = (XYChart.Data) line.getData().get(0);
-				XYChart.Data max = (XYChart.Data) line.getData().get(1);
-				min.setYValue(lineMinY);
-				max.setYValue(lineMaxY);
-				showDisplayedIteration(iteration, produceLineEquation());
-				checkDisplayedLine((double) min.getYValue(), (double) max.getYValue());
+		int count = readCoefficients(iteration);
+		//the frame keeps its own copy, read on the JavaFX thread
+		double[] coefficients = count < 0 ? null : Arrays.copyOf(coefficientBuffer, count);
+		if (coefficients == null) {
+			data.publishLabels(iteration);
+		}
+		DecisionRegions regions = algorithmToRun instanceof Classifier ? ((Classifier) algorithmToRun).getDecisionRegions() : null;
+		chartFrames.post(new Frame(iteration, "", coefficients, regions));
+	}
+
+	/**
+	 * Displays the latest posted states, called once per pulse on the
+	 * JavaFX thread
+	 */
+	private void drainFrames() {
+		Frame chartFrame = chartFrames.poll();
+		if (chartFrame != null) {
+			if (chartFrame.regions != null) {
+				showRegions(chartFrame.regions);
+				showDisplayedIteration(chartFrame.iteration);
+			} else if (chartFrame.coefficients != null) {
+				//empty until the classifier publishes its first output
+				if (chartFrame.coefficients.length > 0) {
+					showCurve(chartFrame.coefficients);
+					showDisplayedIteration(chartFrame.iteration, produceLineEquation(chartFrame.coefficients, chartFrame.coefficients.length));
+					List<XYChart.Data<Number, Number>> curve = line.getData();
+					checkDisplayedLine(curve.get(0).getYValue().doubleValue(), curve.get(curve.size() - 1).getYValue().doubleValue());
+				}
 			} else {
-				displayData();
-				showDisplayedIteration(iteration);
+				//null when the labels of this frame were taken with the previous one
+				LabelSnapshot published = data.takeLabels();
+				if (published != null) {
+					displayData(published);
+					showDisplayedIteration(published.getStamp());
+				}
 			}
-		});
+		}
+		Frame progressFrame = progressFrames.poll();
+		if (progressFrame != null) {
+			updateIteration(progressFrame.iteration, progressFrame.info);
+		}
+	}
+
+	/**
+	 * Returns the number of chart and iteration updates of the current run
+	 * that were replaced by a later one before being displayed
+	 *
+	 * @return number of dropped frames
+	 */
+	public long getDroppedFrames() {
+		return chartFrames.getDroppedCount() + progressFrames.getDroppedCount();
 	}
 
 	private void showDisplayedIteration(int iteration){
-		Platform.runLater(() -> appUI.appendAlgorithmRunWindow("Displayed iteration " + iteration));
+		appUI.appendAlgorithmRunWindow("Displayed iteration " + iteration);
 	}
 
 	private void showDisplayedIteration(int iteration, String equation){
-		Platform.runLater(() -> appUI.appendAlgorithmRunWindow("Displayed iteration " + iteration + equation));
+		appUI.appendAlgorithmRunWindow("Displayed iteration " + iteration + equation);
 	}
 
 	/**
@@ -493,9 +809,9 @@ public class AppData implements DataComponent {
 		double yUpper = ((NumberAxis) appUI.getChart().getYAxis()).getUpperBound();
 
 		if (minY < yLower && maxY < yLower) {
-			Platform.runLater(() -> appUI.appendAlgorithmRunWindow("Line not in chart bounds - direction: South"));
+			appUI.appendAlgorithmRunWindow("Line not in chart bounds - direction: South");
 		} else if (minY > yUpper && maxY > yUpper) {
-			Platform.runLater(() -> appUI.appendAlgorithmRunWindow("Line not in chart bounds - direction: North"));
+			appUI.appendAlgorithmRunWindow("Line not in chart bounds - direction: North");
 		}
 
 		/*
@@ -512,34 +828,132 @@ public class AppData implements DataComponent {
 	 * @param iteration current iteration
 	 */
 	public void showCurrentIteration(int iteration) {
+		showCurrentIteration(iteration, "");
+	}
+
+	/**
+	 * Shows the current iteration number to the user along with
+	 * information provided by the algorithm, at the next pulse
+	 *
+	 * @param iteration current iteration
+	 * @param info information about the iteration, may be empty
+	 */
+	@Override
+	public void showCurrentIteration(int iteration, String info) {
+		int count = readCoefficients(iteration);
 		StringBuilder infoBuilder = new StringBuilder();
 		infoBuilder.append(String.format("Iteration number %d", iteration));
-		if (algorithmToRun instanceof Classifier) {
-			infoBuilder.append(produceLineEquation());
+		infoBuilder.append(info);
+		if (count > 0) {
+			infoBuilder.append(produceLineEquation(coefficientBuffer, count));
 		}
 
-		Platform.runLater(() -> updateIteration(iteration, infoBuilder.toString()));
+		progressFrames.post(new Frame(iteration, infoBuilder.toString(), null, null));
 	}
 
-	private String produceLineEquation() {
-		List<Integer> output = ((Classifier) algorithmToRun).getOutput();
-		int a = output.get(0);
-		int b = output.get(1);
-		int c = output.get(2);
+	/**
+	 * Reads the output of the running classifier into the coefficient
+	 * buffer, once per iteration however many updates the iteration has.
+	 * Only called by the thread of the run.
+	 *
+	 * @param iteration iteration being reported
+	 * @return number of coefficients in the buffer, 0 before the first
+	 * output, -1 for a clusterer
+	 */
+	private int readCoefficients(int iteration) {
+		if (!(algorithmToRun instanceof Classifier)) {
+			return -1;
+		}
+		if (iteration != coefficientIteration) {
+			Classifier classifier = (Classifier) algorithmToRun;
+			int count;
+			while ((count = classifier.readCoefficients(coefficientBuffer)) > coefficientBuffer.length) {
+				coefficientBuffer = new double[count];
+			}
+			coefficientCount = count;
+			coefficientIteration = iteration;
+		}
+		return coefficientCount;
+	}
 
-		Platform.runLater(() -> {
-			XYChart.Series line = (appUI.getChart().getData().get(appUI.getChart().getData().size() - 1));
-			XYChart.Data min = (XYChart.Data) line.getData().get(0);
-			XYChart.Data max = (XYChart.Data) line.getData().get(1);
-			//ax + by + c = 0
-			// y = (-c -ax) / b
-			double minX = (double) min.getXValue();
-			lineMinY = (-c - (a * minX)) / b;
-
-			double maxX = (double) max.getXValue();
-			lineMaxY = (-c - (a * maxX)) / b;
-		});
-		return ": " + output.get(0) + "x + " + output.get(1) + "y + " + output.get(2) + " = 0 ";
+	/**
+	 * Writes the equation of a curve, such as ": 2.5x + 1y + -3 = 0 "
+	 *
+	 * @param coefficients a<sub>1</sub>, ..., a<sub>d</sub>, b, c
+	 * @param count number of coefficients, the array may be longer
+	 * @return the equation
+	 */
+	private String produceLineEquation(double[] coefficients, int count) {
+		int degree = count - 2;
+		StringBuilder equation = new StringBuilder(": ");
+		for (int k = 1; k <= degree; k++) {
+			equation.append(formatCoefficient(coefficients[k - 1])).append(k == 1 ? "x" : "x^" + k).append(" + ");
+		}
+		equation.append(formatCoefficient(coefficients[degree])).append("y + ");
+		equation.append(formatCoefficient(coefficients[degree + 1])).append(" = 0 ");
+		return equation.toString();
+	}
+
+	/**
+	 * Writes whole coefficients as integers and the others with four
+	 * significant digits
+	 */
+	private static String formatCoefficient(double coefficient) {
+		return coefficient == Math.rint(coefficient) && Math.abs(coefficient) < 1e15
+				? Long.toString((long) coefficient)
+				: String.format("%.4g", coefficient);
+	}
+
+	/**
+	 * Moves the points of the classification series onto a curve, a line
+	 * having two points and a curve of a higher degree
+	 * {@link #CURVE_POINTS} points evenly spaced between the smallest and
+	 * the largest x value
+	 *
+	 * @param coefficients a<sub>1</sub>, ..., a<sub>d</sub>, b, c
+	 */
+	private void showCurve(double[] coefficients) {
+		List<XYChart.Data<Number, Number>> curve = line.getData();
+		int count = coefficients.length == 3 ? 2 : CURVE_POINTS;
+		if (curve.size() != count) {
+			List<XYChart.Data<Number, Number>> points = new ArrayList<>(count);
+			for (int p = 0; p < count; p++) {
+				points.add(new XYChart.Data<>(minX + (maxX - minX) * p / (count - 1), 0));
+			}
+			line.getData().setAll(points);
+			hideCurveSymbols();
+		}
+		for (XYChart.Data<Number, Number> point : curve) {
+			point.setYValue(Classifier.evaluate(coefficients, coefficients.length, point.getXValue().doubleValue()));
+		}
+	}
+
+	/**
+	 * Shows the regions of a classifier in place of its line, every region
+	 * taking the color of the series of its label
+	 *
+	 * @param regions the regions
+	 */
+	private void showRegions(DecisionRegions regions) {
+		List<XYChart.Series<Number, Number>> regionSeries = new ArrayList<>(regions.getRegionCount());
+		for (int region = 0; region < regions.getRegionCount(); region++) {
+			regionSeries.add(displayedSeries.get(regions.getLabel(region)));
+		}
+		//after the line is added to the chart by initLine
+		Platform.runLater(() -> appUI.getChart().getData().remove(line));
+		appUI.getChart().showRegions(regions, regionSeries);
+	}
+
+	/**
+	 * Hides the symbols of the points of the classification series, once
+	 * the series is in the chart
+	 */
+	private void hideCurveSymbols() {
+		for (XYChart.Data<Number, Number> point : line.getData()) {
+			if (point.getNode() != null && !point.getNode().getStyleClass().contains("hide-symbol")) {
+				point.getNode().getStyleClass().add("hide-symbol");
+			}
+		}
 	}
 
 	/**
@@ -565,8 +979,7 @@ public class AppData implements DataComponent {
 		Platform.runLater(() -> {
 			appUI.getChart().getData().add(line);
 			line.getNode().getStyleClass().add("line");
-			((XYChart.Data) line.getData().get(0)).getNode().getStyleClass().add("hide-symbol");
-			((XYChart.Data) line.getData().get(1)).getNode().getStyleClass().add("hide-symbol");
+			hideCurveSymbols();
 		});
 	}
 
@@ -588,7 +1001,9 @@ public class AppData implements DataComponent {
 	 */
 	public void stopAlgorithm() {
 		algorithmStopped();
-		algorithmToRun.stopAlgorithm();
+		currentRun.cancel();
+		chartFrames.clear();
+		progressFrames.clear();
 	}
 
 	/*So your code is ready to handle the two situations (i) the maximum number of iterations are exhausted, and the algorithm is terminated, or (ii) the algorithm terminates by itself even though the maximum number of iterations has not been reached.
@@ -607,6 +1022,17 @@ public class AppData implements DataComponent {
 		Platform.runLater(() -> appActions.showErrorDialog("Completed", "Algorithm has successfully exhausted the maximum number of iterations"));
 	}
 
+	/**
+	 * Method used to indicate that the algorithm failed before finishing
+	 *
+	 * @param cause what the algorithm threw
+	 */
+	@Override
+	public void abortAlgorithm(Throwable cause) {
+		algorithmStopped();
+		Platform.runLater(() -> appActions.showErrorDialog("Algorithm Error", "Algorithm has stopped: " + cause));
+	}
+
 	/**
 	 * Method used to reset the user interface that no algorithm is running
 	 */
@@ -618,17 +1044,47 @@ public class AppData implements DataComponent {
 		appUI.enableAlgorithmChanges();
 		//should reset progress indicator
 		Platform.runLater(() -> {
+			stopFrames();
 			appUI.closeAlgorithmRunWindow();
 		});
 	}
 
 	/**
-	 * Enables the run button in the user interface Also displays the
-	 * instances names to the user
+	 * Displays the last states posted by the run and stops draining the
+	 * frames at every pulse, so that nothing runs on the JavaFX thread
+	 * while no algorithm is running
+	 */
+	private void stopFrames() {
+		//a run started since then needs the timer
+		if (frameTimer != null && !isRunning) {
+			drainFrames();
+			frameTimer.stop();
+		}
+	}
+
+	/**
+	 * Returns the name of the instance nearest to a location, within an
+	 * ellipse around it, through the spatial index of the data.
+	 *
+	 * @param x x value of the location
+	 * @param y y value of the location
+	 * @param xRadius half width of the ellipse
+	 * @param yRadius half height of the ellipse
+	 * @return name of the instance, null if there is none
+	 */
+	public String getInstanceNear(double x, double y, double xRadius, double yRadius) {
+		if (data == null) {
+			return null;
+		}
+		int index = data.getSpatialIndex().nearest(x, y, xRadius, yRadius);
+		return index < 0 ? null : data.getName(index);
+	}
+
+	/**
+	 * Enables the run button in the user interface
 	 */
 	public void enableRun() {
 		appUI.enableRun();
-		appUI.displayInstanceNames();
 	}
 
 	/**
@@ -651,7 +1107,7 @@ public class AppData implements DataComponent {
 	 * Continue the algorithm
 	 */
 	public void continueAlgorithm() {
-		algorithmToRun.continueAlgorithm();
+		currentRun.resume();
 	}
 
 	/**
@@ -692,6 +1148,32 @@ public class AppData implements DataComponent {
 		return algorithm.getName();
 	}
 
+	/**
+	 * Returns the optional settings read by an algorithm
+	 *
+	 * @param type type of the algorithm
+	 * @param index index of the algorithm within its type
+	 * @return settings to show in the configuration window
+	 */
+	public Set<Tunable> getTunables(AlgorithmTypes type, int index){
+		if(type.equals(AlgorithmTypes.CLASSIFICATION)){
+			return classificationAlgorithms.get(index).getTunables();
+		}
+		return clusteringAlgorithms.get(index).getTunables();
+	}
+
+	/**
+	 * Indicates whether an algorithm reads the number of labels of its
+	 * configuration
+	 *
+	 * @param type of the algorithm
+	 * @param index index of the algorithm among the ones of its type
+	 * @return true for a clusterer told how many clusters to find
+	 */
+	public boolean usesNumLabels(AlgorithmTypes type, int index) {
+		return type.equals(AlgorithmTypes.CLUSTERING) && clusteringAlgorithms.get(index).usesNumberOfClusters();
+	}
+
 	/**
 	 * Set the type of algorithm to be run
 	 *
@@ -722,51 +1204,29 @@ public class AppData implements DataComponent {
 		}
 	}
 
-	/*
-	when user clicks algorithm --> it sets the algorithm to run
-	if there's no configuration --> can't actually run
-	 */
 	/**
-	 * Returns the text within a given file
-	 *
-	 * @param file file to extract the text
-	 * @return string representation of the text inside the file
-	 * @throws FileNotFoundException file is not found
+	 * Removes the null label from the labels set
 	 */
-	private String getFileText(File file) throws FileNotFoundException {
-		BufferedReader reader = new BufferedReader(new FileReader(file));
-		Stream<String> dataLines = reader.lines();
-
-		StringBuilder builder = new StringBuilder();
-
-		dataLines.forEach(line -> {
-			builder.append(line + "\n");
-		});
-
-		return builder.toString();
+	private void checkLabels() {
+		labels.remove(manager.getPropertyValue(NULL.name()));
 	}
 
 	/**
-	 * Returns the string representation of the first ten lines
-	 *
-	 * @param data full text of a tsd file
-	 * @return te top ten lines of the text
+	 * State of a run posted to be displayed
 	 */
-	private String getTopTen(String data) {
-		List temp = Arrays.asList(data.split("\n"));
-
-		StringBuilder builder = new StringBuilder();
-		for (int i = 0; i < 10; i++) {
-			builder.append(temp.get(i) + "\n");
+	private static final class Frame {
+
+		private final int iteration;
+		private final String info;
+		private final double[] coefficients; //curve of a classifier, null for a clusterer and for progress
+		private final DecisionRegions regions; //regions of a classifier, null for a curve
+
+		private Frame(int iteration, String info, double[] coefficients, DecisionRegions regions) {
+			this.iteration = iteration;
+			this.info = info;
+			this.coefficients = coefficients;
+			this.regions = regions;
 		}
-		return builder.toString();
-	}
-
-	/**
-	 * Removes the null label from the labels set
-	 */
-	private void checkLabels() {
-		labels.remove(manager.getPropertyValue(NULL.name()));
 	}
 
 }
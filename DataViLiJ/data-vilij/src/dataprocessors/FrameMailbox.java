@@ -0,0 +1,59 @@
+package dataprocessors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A single slot holding the latest state to display. Algorithm threads
+ * post states as fast as they produce them and the JavaFX thread takes the
+ * latest one once per pulse, so the event queue never grows with the speed
+ * of the algorithm. A state replaced before being taken is dropped and
+ * counted.
+ *
+ * @author Neil Opena
+ * @param <T> type of the states
+ */
+public class FrameMailbox<T> {
+
+	private final AtomicReference<T> latest = new AtomicReference<>();
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * Replaces the state in the slot
+	 *
+	 * @param state the latest state
+	 */
+	public void post(T state) {
+		if (latest.getAndSet(state) != null) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Takes the state out of the slot
+	 *
+	 * @return the latest state, or null if none was posted since the last
+	 * call
+	 */
+	public T poll() {
+		return latest.getAndSet(null);
+	}
+
+	/**
+	 * Empties the slot and resets the number of dropped states
+	 */
+	public void clear() {
+		latest.set(null);
+		dropped.set(0);
+	}
+
+	/**
+	 * Returns the number of states replaced before being taken since the
+	 * last {@link #clear()}
+	 *
+	 * @return number of dropped states
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+}
@@ -0,0 +1,439 @@
+package dataprocessors;
+
+import data.DataSet;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Byte level parser for the tab-separated data format. Lines are scanned
+ * directly from a {@link ByteBuffer} (usually a
+ * {@link java.nio.MappedByteBuffer} over the file) for the tab, comma and
+ * newline characters. Coordinates are parsed straight from the bytes, so the
+ * only objects created per line are the instance name and, when it has not
+ * been seen recently, the label.
+ * <p>
+ * Large inputs are split into line-aligned chunks of about
+ * {@link #CHUNK_SIZE} bytes that are parsed on the common
+ * {@link java.util.concurrent.ForkJoinPool} into per-chunk buffers. The
+ * chunks are then merged into the {@link DataSet} in file order, which is
+ * where duplicate names are detected, so the first reported error is the one
+ * a sequential parse would report.
+ * <p>
+ * The validation rules are the ones of {@link TSDProcessor}: every name must
+ * start with <code>@</code>, names must be unique, and each line needs a
+ * label and a comma-separated pair of numbers.
+ *
+ * @author Neil Opena
+ */
+public final class TSDParser {
+
+	/**
+	 * approximate number of bytes parsed by one fork-join task
+	 */
+	public static final int CHUNK_SIZE = 1 << 23;
+
+	private static final byte NEWLINE = '\n';
+	private static final byte RETURN = '\r';
+	private static final byte TAB = '\t';
+	private static final byte COMMA = ',';
+	private static final byte NAME_PREFIX = '@';
+
+	private static final int MAX_CACHED_LABELS = 32;
+	private static final int MAX_FAST_DIGITS = 15;
+	private static final int MAX_EXPONENT = 1000;
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final DataSet dataset;
+
+	private int errorLine;
+	private String errorMessage;
+
+	/**
+	 * Creates a parser that adds every valid line to the given data set
+	 *
+	 * @param dataset data set receiving the parsed instances
+	 */
+	public TSDParser(DataSet dataset) {
+		this.dataset = dataset;
+	}
+
+	/**
+	 * Parses every line between the two positions of the buffer. Only
+	 * absolute reads are used, so the position of the buffer is not
+	 * changed and the chunks can read it concurrently.
+	 *
+	 * @param buffer bytes of the data
+	 * @param from position of the first byte of the first line
+	 * @param to position after the last byte to be parsed
+	 * @param firstLine line number of the first line
+	 * @return line number of the line following the parsed ones, or -1 if
+	 * a line is invalid (see {@link #getErrorLine()})
+	 */
+	public int parse(ByteBuffer buffer, int from, int to, int firstLine) {
+		Chunk[] chunks = split(buffer, from, to);
+		if (chunks.length == 1) {
+			chunks[0].compute();
+		} else {
+			ForkJoinTask.invokeAll(chunks);
+		}
+
+		int line = firstLine;
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.count; i++) {
+				if (!dataset.addInstance(chunk.names[i], chunk.labels[i], chunk.xs[i], chunk.ys[i])) {
+					return fail(line + i, new TSDProcessor.DuplicateNameException(chunk.names[i]).getMessage());
+				}
+			}
+			if (chunk.errorLine > 0) {
+				return fail(line + chunk.errorLine - 1, chunk.errorMessage);
+			}
+			line += chunk.count;
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the end of the data without the empty lines at its end, which
+	 * are left out of the data the way a text split into lines drops them
+	 *
+	 * @param buffer bytes of the data
+	 * @param from position of the first byte of the first line
+	 * @param to position after the last byte of the data
+	 * @return position after the last byte of the last non-empty line, from
+	 * if every line is empty
+	 */
+	public static int trimEmptyLines(ByteBuffer buffer, int from, int to) {
+		while (to > from && (buffer.get(to - 1) == NEWLINE || buffer.get(to - 1) == RETURN)) {
+			to--;
+		}
+		return to;
+	}
+
+	/**
+	 * Returns the number of the first invalid line
+	 *
+	 * @return line number, or 0 if every line was valid
+	 */
+	public int getErrorLine() {
+		return errorLine;
+	}
+
+	/**
+	 * Returns the reason why the invalid line was rejected
+	 *
+	 * @return message of the name errors, empty for format errors
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	private int fail(int line, String message) {
+		errorLine = line;
+		errorMessage = message;
+		return -1;
+	}
+
+	/**
+	 * Splits the bytes into chunks of about {@link #CHUNK_SIZE} bytes, each
+	 * ending right after a newline or at the end of the data
+	 */
+	private static Chunk[] split(ByteBuffer buffer, int from, int to) {
+		Chunk[] chunks = new Chunk[Math.max(1, (to - from) / CHUNK_SIZE)];
+		int numChunks = 0;
+		int start = from;
+		while (start < to || numChunks == 0) {
+			int end = to;
+			if (numChunks < chunks.length - 1) {
+				end = Math.min(to, start + CHUNK_SIZE);
+				while (end < to && buffer.get(end - 1) != NEWLINE) {
+					end++;
+				}
+			}
+			chunks[numChunks] = new Chunk(chunks, numChunks, buffer, start, end);
+			numChunks++;
+			start = end;
+		}
+		return Arrays.copyOf(chunks, numChunks);
+	}
+
+	/**
+	 * Instances parsed from consecutive lines, in line order. Parsing stops
+	 * at the first invalid line of the chunk, or as soon as an earlier chunk
+	 * has failed since nothing after that line is reported.
+	 */
+	private static final class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Chunk[] chunks;
+		private final int index;
+		private final ByteBuffer buffer;
+		private final int from;
+		private final int to;
+		private volatile boolean cancelled;
+
+		private String[] names;
+		private String[] labels;
+		private double[] xs;
+		private double[] ys;
+		private int count;
+
+		private int errorLine; // line number within the chunk
+		private String errorMessage;
+
+		private byte[] scratch; // bytes of the name or label being decoded
+		private final byte[][] labelBytes; // recently seen labels
+		private final String[] labelStrings;
+		private int numLabels;
+
+		private double parsedValue; // result of the last parseDouble call
+
+		Chunk(Chunk[] chunks, int index, ByteBuffer buffer, int from, int to) {
+			this.chunks = chunks;
+			this.index = index;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.scratch = new byte[64];
+			this.labelBytes = new byte[MAX_CACHED_LABELS][];
+			this.labelStrings = new String[MAX_CACHED_LABELS];
+		}
+
+		@Override
+		protected void compute() {
+			int capacity = (to - from) / 16 + 16;
+			names = new String[capacity];
+			labels = new String[capacity];
+			xs = new double[capacity];
+			ys = new double[capacity];
+
+			int lineStart = from;
+			while (lineStart < to && !cancelled) {
+				int lineEnd = indexOf(buffer, NEWLINE, lineStart, to);
+				if (!parseLine(buffer, lineStart, lineEnd, count + 1)) {
+					for (int i = index + 1; i < chunks.length && chunks[i] != null; i++) {
+						chunks[i].cancelled = true;
+					}
+					return;
+				}
+				lineStart = lineEnd + 1;
+			}
+		}
+
+		private void add(String name, String label, double x, double y) {
+			if (count == names.length) {
+				int capacity = count + (count >> 1) + 1;
+				names = Arrays.copyOf(names, capacity);
+				labels = Arrays.copyOf(labels, capacity);
+				xs = Arrays.copyOf(xs, capacity);
+				ys = Arrays.copyOf(ys, capacity);
+			}
+			// String caches its hash code, computing it here keeps the
+			// hashing out of the sequential merge
+			name.hashCode();
+			names[count] = name;
+			labels[count] = label;
+			xs[count] = x;
+			ys[count] = y;
+			count++;
+		}
+
+		private boolean parseLine(ByteBuffer buffer, int start, int end, int line) {
+			if (end > start && buffer.get(end - 1) == RETURN) {
+				end--;
+			}
+
+			int nameEnd = indexOf(buffer, TAB, start, end);
+			if (nameEnd == start || buffer.get(start) != NAME_PREFIX) {
+				return fail(line, new TSDProcessor.InvalidDataNameException(decode(buffer, start, nameEnd)).getMessage());
+			}
+			if (nameEnd == end) {
+				return fail(line, "");
+			}
+
+			int labelStart = nameEnd + 1;
+			int labelEnd = indexOf(buffer, TAB, labelStart, end);
+			if (labelEnd == end) {
+				return fail(line, "");
+			}
+
+			int locationStart = labelEnd + 1;
+			int locationEnd = indexOf(buffer, TAB, locationStart, end);
+			int comma = indexOf(buffer, COMMA, locationStart, locationEnd);
+			if (comma == locationEnd || !parseDouble(buffer, locationStart, comma)) {
+				return fail(line, "");
+			}
+			double x = parsedValue;
+			if (!parseDouble(buffer, comma + 1, indexOf(buffer, COMMA, comma + 1, locationEnd))) {
+				return fail(line, "");
+			}
+			double y = parsedValue;
+
+			add(decode(buffer, start, nameEnd), label(buffer, labelStart, labelEnd), x, y);
+			return true;
+		}
+
+		private boolean fail(int line, String message) {
+			errorLine = line;
+			errorMessage = message;
+			return false;
+		}
+
+		private static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+			int i = from;
+			while (i < to && buffer.get(i) != b) {
+				i++;
+			}
+			return i;
+		}
+
+		/**
+		 * Returns the label between the two positions, reusing the String of a
+		 * recently seen label with the same bytes
+		 */
+		private String label(ByteBuffer buffer, int start, int end) {
+			int length = end - start;
+			for (int i = 0; i < numLabels; i++) {
+				byte[] bytes = labelBytes[i];
+				if (bytes.length == length && matches(buffer, start, bytes)) {
+					return labelStrings[i];
+				}
+			}
+			String label = decode(buffer, start, end);
+			if (numLabels < MAX_CACHED_LABELS) {
+				byte[] bytes = new byte[length];
+				System.arraycopy(scratch, 0, bytes, 0, length);
+				labelBytes[numLabels] = bytes;
+				labelStrings[numLabels] = label;
+				numLabels++;
+			}
+			return label;
+		}
+
+		private static boolean matches(ByteBuffer buffer, int start, byte[] bytes) {
+			for (int i = 0; i < bytes.length; i++) {
+				if (buffer.get(start + i) != bytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Decodes the UTF-8 bytes between the two positions. The bytes are left
+		 * in the scratch array.
+		 */
+		private String decode(ByteBuffer buffer, int start, int end) {
+			int length = end - start;
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			for (int i = 0; i < length; i++) {
+				scratch[i] = buffer.get(start + i);
+			}
+			return new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Parses the number between the two positions into
+		 * {@link #parsedValue}. Plain decimal numbers with at most
+		 * {@value #MAX_FAST_DIGITS} significant digits and a small exponent are
+		 * converted exactly from the bytes; every other form is handed to
+		 * {@link Double#parseDouble(String)} so that the accepted syntax stays
+		 * the same.
+		 *
+		 * @return false if the bytes are not a number
+		 */
+		private boolean parseDouble(ByteBuffer buffer, int start, int end) {
+			while (start < end && (buffer.get(start) & 0xff) <= ' ') {
+				start++;
+			}
+			while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+				end--;
+			}
+
+			int i = start;
+			boolean negative = false;
+			if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = buffer.get(i) == '-';
+				i++;
+			}
+
+			long mantissa = 0;
+			int digits = 0;
+			int significantDigits = 0;
+			int exponent = 0;
+			boolean fraction = false;
+			for (; i < end; i++) {
+				byte b = buffer.get(i);
+				if (b >= '0' && b <= '9') {
+					digits++;
+					if (mantissa != 0 || b != '0') {
+						significantDigits++;
+					}
+					mantissa = mantissa * 10 + (b - '0');
+					if (fraction) {
+						exponent--;
+					}
+					if (significantDigits > MAX_FAST_DIGITS) {
+						return parseSlow(buffer, start, end);
+					}
+				} else if (b == '.' && !fraction) {
+					fraction = true;
+				} else {
+					break;
+				}
+			}
+			if (digits == 0) {
+				return parseSlow(buffer, start, end);
+			}
+
+			if (i < end) {
+				byte b = buffer.get(i);
+				if (b != 'e' && b != 'E') {
+					return parseSlow(buffer, start, end);
+				}
+				i++;
+				boolean negativeExponent = false;
+				if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+					negativeExponent = buffer.get(i) == '-';
+					i++;
+				}
+				if (i == end) {
+					return false;
+				}
+				int value = 0;
+				for (; i < end; i++) {
+					b = buffer.get(i);
+					if (b < '0' || b > '9' || value > MAX_EXPONENT) {
+						return parseSlow(buffer, start, end);
+					}
+					value = value * 10 + (b - '0');
+				}
+				exponent += negativeExponent ? -value : value;
+			}
+
+			if (exponent < -POWERS_OF_TEN.length + 1 || exponent > POWERS_OF_TEN.length - 1) {
+				return parseSlow(buffer, start, end);
+			}
+			double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			parsedValue = negative ? -value : value;
+			return true;
+		}
+
+		private boolean parseSlow(ByteBuffer buffer, int start, int end) {
+			try {
+				parsedValue = Double.parseDouble(decode(buffer, start, end));
+				return true;
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+	}
+}
@@ -1,15 +1,18 @@
 package dataprocessors;
 
+import data.DataSet;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Stream;
 import javafx.scene.chart.XYChart;
-import javafx.geometry.Point2D;
 
 import static settings.AppPropertyTypes.*;
 import vilij.propertymanager.PropertyManager;
@@ -29,7 +32,17 @@ import vilij.propertymanager.PropertyManager;
  */
 public final class TSDProcessor {
 
+	/**
+	 * number of lines kept for the text area when a file is processed
+	 */
+	public static final int PREVIEW_LINES = 10;
+	/**
+	 * largest part of a file that is mapped at once
+	 */
+	public static final int MAX_WINDOW = 1 << 30;
+
 	private PropertyManager manager;
+	private String preview;
 
 	public static class InvalidDataNameException extends Exception {
 
@@ -49,51 +62,150 @@ public final class TSDProcessor {
 		}
 	}
 
-	private Map<String, String> dataLabels;
-	private Map<String, Point2D> dataPoints;
+	private DataSet data;
 
 	public TSDProcessor() {
-		dataLabels = new LinkedHashMap<>();
-		dataPoints = new LinkedHashMap<>();
+		data = new DataSet();
 		manager = PropertyManager.getManager();
 	}
 
 	/**
-	 * Processes the data and populated two {@link Map} objects with the
-	 * data.
+	 * Processes the data and adds every instance to the {@link DataSet}
+	 * returned by {@link #getDataSet()}.
 	 *
 	 * @param tsdString the input data provided as a single {@link String}
 	 * @throws Exception if the input string does not follow the
 	 * <code>.tsd</code> data format
 	 */
 	public void processString(String tsdString) throws Exception {
-		AtomicBoolean hadAnError = new AtomicBoolean(false);
-		StringBuilder errorMessage = new StringBuilder();
-		Stream.of(tsdString.split("\n"))
-			.map(line -> Arrays.asList(line.split("\t")))
-			.forEach(list -> {
-				try {
-					String name = checkedname(list.get(0));
-					String label = list.get(1);
-					String[] pair = list.get(2).split(",");
-					Point2D point = new Point2D(Double.parseDouble(pair[0]), Double.parseDouble(pair[1]));
-					if (dataPoints.containsKey(name)) {
-						throw new DuplicateNameException(name);
-					}
-					dataLabels.put(name, label);
-					dataPoints.put(name, point);
-				} catch (Exception e) {
-					errorMessage.setLength(0);
-					errorMessage.append(manager.getPropertyValue(LINE.name()) + (dataPoints.size() + 1) + ": ");
-					if (e instanceof InvalidDataNameException || e instanceof DuplicateNameException) {
-						errorMessage.append(e.getMessage());
-					}
-					hadAnError.set(true);
+		ByteBuffer bytes = ByteBuffer.wrap(tsdString.getBytes(StandardCharsets.UTF_8));
+		TSDParser parser = new TSDParser(data);
+		int end = TSDParser.trimEmptyLines(bytes, 0, bytes.limit());
+		if (end == 0 || parser.parse(bytes, 0, end, 1) < 0) {
+			throw invalidLine(parser);
+		}
+	}
+
+	/**
+	 * Validates a <code>.tsd</code> file and builds its {@link DataSet} in
+	 * a single pass. The file is memory-mapped and parsed byte by byte by a
+	 * {@link TSDParser}, in windows of at most {@link #MAX_WINDOW} bytes
+	 * that end on a line boundary. The first {@link #PREVIEW_LINES} lines
+	 * are kept so that the text area can be filled without reading the file
+	 * again.
+	 *
+	 * @param tsdFilePath path of the file to be processed
+	 * @return the data set described by the file
+	 * @throws IOException if the file cannot be read
+	 * @throws Exception if a line does not follow the <code>.tsd</code>
+	 * data format, the message states the line number of the first
+	 * invalid line
+	 */
+	public DataSet processFile(Path tsdFilePath) throws Exception {
+		DataSet dataset = new DataSet();
+		TSDParser parser = new TSDParser(dataset);
+		preview = null;
+
+		try (FileChannel channel = FileChannel.open(tsdFilePath, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0) {
+				throw invalidLine(parser);
+			}
+			String firstLines = null;
+			long position = 0;
+			int line = 1;
+			while (position < size) {
+				long length = Math.min(size - position, MAX_WINDOW);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int end = (int) length;
+				if (position + length < size) {
+					end = lastLineEnd(buffer, end);
+				} else {
+					//the empty lines ending the file are dropped, as in the text area
+					end = TSDParser.trimEmptyLines(buffer, 0, end);
 				}
-			});
-		if (errorMessage.length() > 0) {
-			throw new Exception(errorMessage.toString());
+				if (firstLines == null) {
+					firstLines = readPreview(buffer, end);
+				}
+				line = parser.parse(buffer, 0, end, line);
+				if (line < 0) {
+					throw invalidLine(parser);
+				}
+				position += position + length < size ? end : length;
+			}
+			if (dataset.size() == 0) {
+				throw invalidLine(parser);
+			}
+			preview = firstLines;
+		}
+		return dataset;
+	}
+
+	/**
+	 * Builds the exception thrown for the first invalid line found by the
+	 * parser. An empty input is reported as an invalid first line.
+	 */
+	private Exception invalidLine(TSDParser parser) {
+		if (parser.getErrorLine() == 0) {
+			return new Exception(manager.getPropertyValue(LINE.name()) + 1 + ": " + new InvalidDataNameException("").getMessage());
 		}
+		return new Exception(manager.getPropertyValue(LINE.name()) + parser.getErrorLine() + ": " + parser.getErrorMessage());
+	}
+
+	/**
+	 * Returns the position after the last newline of the window
+	 *
+	 * @throws IOException if the window does not contain a whole line
+	 */
+	private static int lastLineEnd(ByteBuffer buffer, int end) throws IOException {
+		for (int i = end - 1; i >= 0; i--) {
+			if (buffer.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+		throw new IOException("Line longer than " + MAX_WINDOW + " bytes");
+	}
+
+	/**
+	 * Decodes the first {@link #PREVIEW_LINES} lines of the window, each
+	 * followed by a newline
+	 */
+	private static String readPreview(ByteBuffer buffer, int end) {
+		StringBuilder builder = new StringBuilder();
+		int start = 0;
+		for (int line = 0; line < PREVIEW_LINES && start < end; line++) {
+			int lineEnd = start;
+			while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int textEnd = lineEnd > start && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+			byte[] bytes = new byte[textEnd - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = buffer.get(start + i);
+			}
+			builder.append(new String(bytes, StandardCharsets.UTF_8)).append("\n");
+			start = lineEnd + 1;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the data set built by {@link #processString(String)}
+	 *
+	 * @return instances processed since the last {@link #clear()}
+	 */
+	public DataSet getDataSet() {
+		return data;
+	}
+
+	/**
+	 * Returns the first lines of the most recently processed file
+	 *
+	 * @return text of the first {@link #PREVIEW_LINES} lines, or null if
+	 * the last file was not valid
+	 */
+	public String getPreview() {
+		return preview;
 	}
 
 	/**
@@ -105,17 +217,18 @@ public final class TSDProcessor {
 		chart.getData().clear();
 		chart.getXAxis().setAutoRanging(true);
 		chart.getYAxis().setAutoRanging(true);
-		Set<String> labels = new LinkedHashSet<>(dataLabels.values());
-		for (String label : labels) {
-			XYChart.Series<Number, Number> series = new XYChart.Series<>();
-			series.setName(label);
-			dataLabels.entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-				Point2D point = dataPoints.get(entry.getKey());
-				String name = entry.getKey();
-				series.getData().add(new XYChart.Data<>(point.getX(), point.getY(), name));
-			});
-			chart.getData().add(series);
+		Map<String, XYChart.Series<Number, Number>> series = new LinkedHashMap<>();
+		for (int i = 0; i < data.size(); i++) {
+			String label = data.getLabel(i);
+			XYChart.Series<Number, Number> labelSeries = series.get(label);
+			if (labelSeries == null) {
+				labelSeries = new XYChart.Series<>();
+				labelSeries.setName(label);
+				series.put(label, labelSeries);
+			}
+			labelSeries.getData().add(new XYChart.Data<>(data.getX(i), data.getY(i), data.getName(i)));
 		}
+		chart.getData().addAll(series.values());
 	}
 
 	/**
@@ -123,15 +236,15 @@ public final class TSDProcessor {
 	 * @return
 	 */
 	public List getDataPoints() {
-		return Arrays.asList(dataPoints.values().toArray());
+		return Arrays.asList(data.getLocations().values().toArray());
 	}
 
 	/**
 	 *
 	 */
 	void clear() {
-		dataPoints.clear();
-		dataLabels.clear();
+		data = new DataSet();
+		preview = null;
 	}
 
 	/**
@@ -139,19 +252,6 @@ public final class TSDProcessor {
 	 * @return
 	 */
 	public List getLabelList() {
-		return Arrays.asList(dataLabels.values().toArray());
-	}
-
-	/**
-	 *
-	 * @param name
-	 * @return
-	 * @throws dataprocessors.TSDProcessor.InvalidDataNameException
-	 */
-	private String checkedname(String name) throws InvalidDataNameException {
-		if (!name.startsWith("@")) {
-			throw new InvalidDataNameException(name);
-		}
-		return name;
+		return Arrays.asList(data.getLabels().values().toArray());
 	}
 }
@@ -72,6 +72,8 @@ public enum AppPropertyTypes {
     AVERAGE_Y,
     AVERAGE_Y_TOOLTIP,
     DECIMAL_FORMAT,
+    CANVAS_THRESHOLD,
+    DENSITY_THRESHOLD,
 
     /* layout user interface*/
     TITLE_STYLE,
@@ -85,6 +87,15 @@ public enum AppPropertyTypes {
     INTERVAL_LABEL,
     NUMLABELS_LABEL,
     CHECKBOX_LABEL,
+    THROUGHPUT_LABEL,
+    FRAME_RATE_LABEL,
+    BATCH_SIZE_LABEL,
+    LEARNING_RATE_DECAY_LABEL,
+    LEARNING_RATE_LABEL,
+    REGULARIZATION_LABEL,
+    NEIGHBORS_LABEL,
+    EPSILON_LABEL,
+    MIN_POINTS_LABEL,
     NULL,
 
     /* css */
@@ -4,7 +4,6 @@ package ui;
 import java.io.IOException;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
@@ -20,27 +19,29 @@ import vilij.templates.UITemplate;
 import static vilij.settings.PropertyTypes.CSS_RESOURCE_PATH;
 import static vilij.settings.PropertyTypes.GUI_RESOURCE_PATH;
 import static vilij.settings.PropertyTypes.ICONS_RESOURCE_PATH;
+import settings.AppPropertyTypes;
 import static settings.AppPropertyTypes.*;
 import actions.AppActions;
 import algorithms.AlgorithmTypes;
 import data.Config;
+import data.Tunable;
 import dataprocessors.AppData;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javafx.animation.Animation;
 import javafx.animation.RotateTransition;
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Toggle;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
@@ -59,6 +60,8 @@ public final class AppUI extends UITemplate {
 	 */
 	ApplicationTemplate applicationTemplate;
 	private PropertyManager manager;
+	//distance in pixels from the mouse within which an instance is named
+	private static final int HOVER_RADIUS = 6;
 
 	@SuppressWarnings("FieldCanBeLocal")
 	private VBox inputRegion; // container for input region
@@ -68,7 +71,8 @@ public final class AppUI extends UITemplate {
 	private VBox clusteringContainer;
 
 	private TextArea textArea;       // text area for new data input
-	private LineChart<Number, Number> chart;          // the chart where data will be displayed
+	private CanvasScatterChart chart;          // the chart where data will be displayed
+	private final Tooltip hoverTooltip = new Tooltip(); // name of the instance under the mouse
 	private Button scrnshotButton; // toolbar button to take a screenshot of the data
 	private Button editToggleButton; // button that toggles between edit and done
 	private Button runButton; // button for running alogrithm
@@ -229,7 +233,7 @@ public final class AppUI extends UITemplate {
 	 *
 	 * @return chart
 	 */
-	public LineChart<Number, Number> getChart() {
+	public CanvasScatterChart getChart() {
 		return chart;
 	}
 
@@ -275,26 +279,41 @@ public final class AppUI extends UITemplate {
 	}
 
 	/**
-	 * Adds tooltips to all of the data points which correspond to the instance names
+	 * Shows the name of the instance under the mouse in the shared tooltip.
+	 * The instance is looked up in the spatial index of the data, within
+	 * {@link #HOVER_RADIUS} pixels of the mouse.
+	 *
+	 * @param event the mouse movement over the chart
 	 */
-	public void displayInstanceNames() {
-		Platform.runLater(() -> {
-			for (XYChart.Series series : chart.getData()) {
-				if(series.getName().equals(AlgorithmTypes.CLASSIFICATION.toString())){
-					continue;
-				}
-				for (XYChart.Data point : (ObservableList<XYChart.Data>) series.getData()) {
-					Tooltip.install(point.getNode(), new Tooltip(point.getExtraValue().toString()));
-
-					point.getNode().setOnMouseEntered(e -> {
-						getPrimaryScene().setCursor(Cursor.CROSSHAIR);
-					});
-					point.getNode().setOnMouseExited(e -> {
-						getPrimaryScene().setCursor(Cursor.DEFAULT);
-					});
-				}
-			}
-		});
+	private void showHoveredInstance(MouseEvent event) {
+		NumberAxis xAxis = (NumberAxis) chart.getXAxis();
+		NumberAxis yAxis = (NumberAxis) chart.getYAxis();
+		if (xAxis.getWidth() <= 0 || yAxis.getHeight() <= 0) {
+			return;
+		}
+		double x = xAxis.getValueForDisplay(xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX()).doubleValue();
+		double y = yAxis.getValueForDisplay(yAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getY()).doubleValue();
+		double xRadius = HOVER_RADIUS * (xAxis.getUpperBound() - xAxis.getLowerBound()) / xAxis.getWidth();
+		double yRadius = HOVER_RADIUS * (yAxis.getUpperBound() - yAxis.getLowerBound()) / yAxis.getHeight();
+
+		String name = ((AppData) applicationTemplate.getDataComponent()).getInstanceNear(x, y, xRadius, yRadius);
+		if (name == null) {
+			hideHoveredInstance();
+			return;
+		}
+		hoverTooltip.setText(name);
+		if (hoverTooltip.isShowing()) {
+			hoverTooltip.setAnchorX(event.getScreenX() + HOVER_RADIUS * 2);
+			hoverTooltip.setAnchorY(event.getScreenY() + HOVER_RADIUS * 2);
+		} else {
+			hoverTooltip.show(chart, event.getScreenX() + HOVER_RADIUS * 2, event.getScreenY() + HOVER_RADIUS * 2);
+		}
+		getPrimaryScene().setCursor(Cursor.CROSSHAIR);
+	}
+
+	private void hideHoveredInstance() {
+		hoverTooltip.hide();
+		getPrimaryScene().setCursor(Cursor.DEFAULT);
 	}
 
 	/**
@@ -726,7 +745,7 @@ public final class AppUI extends UITemplate {
 		editToggleButton.getStyleClass().addAll(manager.getPropertyValue(TOGGLE_BUTTON.name()), manager.getPropertyValue(TYPES_BUTTON.name()));
 		editToggleButton.setPrefWidth(100);
 
-		chart = new LineChart<>(new NumberAxis(), new NumberAxis());
+		chart = new CanvasScatterChart(new NumberAxis(), new NumberAxis());
 		chart.setTitle(manager.getPropertyValue(CHART_TITLE.name()));
 		chart.setPrefSize(700, 700);
 		chart.setAnimated(false); //prevent line from shifting axis
@@ -740,6 +759,9 @@ public final class AppUI extends UITemplate {
 	 */
 	private void setWorkspaceActions() {
 
+		chart.setOnMouseMoved(this::showHoveredInstance);
+		chart.setOnMouseExited(event -> hideHoveredInstance());
+
 		backButton.setOnAction(event -> {
 			hideBackButton();
 			//reset app data algorithm type
@@ -899,7 +921,7 @@ public final class AppUI extends UITemplate {
 			configButton.getStyleClass().add(manager.getPropertyValue(CONFIG_BUTTON.name()));
 			chooseAlgorithm = new RadioButton();
 			chooseAlgorithm.setUserData(false);
-			window = new ConfigWindow(algorithmString);
+			window = new ConfigWindow(algorithmString, appData.getTunables(type, index), appData.usesNumLabels(type, index));
 
 			if (algorithmType.equals(AlgorithmTypes.CLASSIFICATION.toString())) {
 				chooseAlgorithm.setToggleGroup(classificationRadios);
@@ -931,10 +953,10 @@ public final class AppUI extends UITemplate {
 		private void setUpActions() {
 			AppData appData = (AppData) applicationTemplate.getDataComponent();
 			configButton.setOnAction(event -> {
-				if (appData.getAlgorithmType().equals(AlgorithmTypes.CLASSIFICATION)) {
-					window.hideLabelField();
-				} else {
+				if (window.numLabelsUsed) {
 					window.showLabelField();
+				} else {
+					window.hideLabelField();
 				}
 				window.showAndWait();
 				chooseAlgorithm.setUserData(true);
@@ -996,6 +1018,19 @@ public final class AppUI extends UITemplate {
 		private Label checkBoxLabel;
 		private BorderPane checkBoxContainer;
 
+		private CheckBox throughputCheck; // CheckBox whether the algorithm iterates without waiting
+		private Label throughputLabel;
+		private BorderPane throughputContainer;
+
+		private TextField frameRateField; // TextField for the frames per second of a max throughput run
+		private Label frameRateLabel;
+		private BorderPane frameRateContainer;
+
+		private Set<Tunable> tunables; // optional settings read by the algorithm
+		private boolean numLabelsUsed; // false if the algorithm finds the number of labels itself
+		private Map<Tunable, TextField> tunableFields;
+		private List<BorderPane> tunableContainers;
+
 		private Scene currentScene;
 		private VBox container;
 
@@ -1004,10 +1039,12 @@ public final class AppUI extends UITemplate {
 
 		private Config config;
 
-		public ConfigWindow(String algorithmString) {
+		public ConfigWindow(String algorithmString, Set<Tunable> tunables, boolean numLabelsUsed) {
 			initModality(Modality.WINDOW_MODAL); // modal => messages are blocked from reaching other windows
 			initOwner(getPrimaryWindow());
 			this.algorithmString = algorithmString;
+			this.tunables = tunables;
+			this.numLabelsUsed = numLabelsUsed;
 			layout();
 			setUpActions();
 			this.setTitle(manager.getPropertyValue(CONFIG_TITLE.name()));
@@ -1061,19 +1098,61 @@ public final class AppUI extends UITemplate {
 			checkBoxContainer.setLeft(checkBoxLabel);
 			checkBoxContainer.setRight(continuousCheck);
 
+			throughputCheck = new CheckBox();
+			throughputLabel = new Label(manager.getPropertyValue(THROUGHPUT_LABEL.name()));
+			throughputContainer = new BorderPane();
+			throughputContainer.setPadding(insets);
+			throughputContainer.setLeft(throughputLabel);
+			throughputContainer.setRight(throughputCheck);
+
+			frameRateField = new TextField();
+			frameRateField.setPrefWidth(50);
+			frameRateField.setPromptText("" + Config.DEFAULT_FRAME_RATE);
+			frameRateField.disableProperty().bind(throughputCheck.selectedProperty().not());
+			frameRateLabel = new Label(manager.getPropertyValue(FRAME_RATE_LABEL.name()));
+			frameRateContainer = new BorderPane();
+			frameRateContainer.setPadding(insets);
+			frameRateContainer.setLeft(frameRateLabel);
+			frameRateContainer.setRight(frameRateField);
+
+			tunableFields = new EnumMap<>(Tunable.class);
+			tunableContainers = new ArrayList<>();
+			for (Tunable tunable : tunables) {
+				TextField tunableField = new TextField();
+				tunableField.setPrefWidth(50);
+				tunableField.setPromptText(tunable.format(tunable.getDefaultValue()));
+				BorderPane tunableContainer = new BorderPane();
+				tunableContainer.setPadding(insets);
+				tunableContainer.setLeft(new Label(getTunableLabel(tunable)));
+				tunableContainer.setRight(tunableField);
+				tunableFields.put(tunable, tunableField);
+				tunableContainers.add(tunableContainer);
+			}
+
 			algorithmName = new Label(algorithmString);
 			algorithmName.getStyleClass().add("config-window-algorithm-name");
 
-			container.getChildren().addAll(algorithmName, sceneHeader, iterationContainer, intervalContainer, numLabelsContainer, checkBoxContainer);
+			container.getChildren().addAll(algorithmName, sceneHeader, iterationContainer, intervalContainer, numLabelsContainer, checkBoxContainer, throughputContainer, frameRateContainer);
+			container.getChildren().addAll(tunableContainers);
+		}
+
+		/**
+		 * Returns the label shown next to the field of an optional
+		 * setting
+		 *
+		 * @param tunable the setting
+		 * @return text of the label
+		 */
+		private String getTunableLabel(Tunable tunable) {
+			return manager.getPropertyValue(AppPropertyTypes.valueOf(tunable.name() + "_LABEL").name());
 		}
 
 		/**
 		 * Sets up the event handlers corresponding to the window
 		 */
 		private void setUpActions() {
-			AppData appData = (AppData) applicationTemplate.getDataComponent();
 			this.setOnCloseRequest(event -> {
-				createConfig(appData.getAlgorithmType());
+				createConfig();
 			});
 		}
 
@@ -1095,7 +1174,8 @@ public final class AppUI extends UITemplate {
 		private void showLabelField() {
 			if (!container.getChildren().contains(numLabelsContainer)) {
 				container.getChildren().clear();
-				container.getChildren().addAll(sceneHeader, iterationContainer, intervalContainer, numLabelsContainer, checkBoxContainer);
+				container.getChildren().addAll(sceneHeader, iterationContainer, intervalContainer, numLabelsContainer, checkBoxContainer, throughputContainer, frameRateContainer);
+				container.getChildren().addAll(tunableContainers);
 			}
 		}
 
@@ -1105,7 +1185,7 @@ public final class AppUI extends UITemplate {
 		 *
 		 * @return if input is valid
 		 */
-		private String checkInput(AlgorithmTypes type) {
+		private String checkInput() {
 			// no negative values or letters
 			String message = "";
 			try {
@@ -1117,7 +1197,7 @@ public final class AppUI extends UITemplate {
 					message = "Update interval cannot be negative";
 				}else if(updateInterval > maxIterations){
 					message = "Update interval cannot be greater than the number of max iterations";
-				}else if (type.equals(AlgorithmTypes.CLUSTERING)) {
+				}else if (numLabelsUsed) {
 					int numLabels = Integer.parseInt(numLabelsField.getText());
 					if (numLabels < 1) {
 						message = "The number of labels cannot be negative";
@@ -1125,23 +1205,38 @@ public final class AppUI extends UITemplate {
 						message = "The number of labels cannot exceed the number of data points";
 					}
 				}
+				if (!frameRateField.getText().trim().isEmpty() && Integer.parseInt(frameRateField.getText().trim()) < 0) {
+					message = "Frame rate cannot be negative";
+				}
 			} catch (NumberFormatException e) {
 				message = "One or more inputs have invalid data.\nPlease input integers";
 			}
+			for (Tunable tunable : tunables) {
+				if (!message.isEmpty()) {
+					break;
+				}
+				String text = tunableFields.get(tunable).getText().trim();
+				try {
+					if (!text.isEmpty() && !tunable.accepts(Double.parseDouble(text))) {
+						message = getTunableLabel(tunable) + " must be " + (tunable.isInteger() ? "an integer " : "")
+							+ "between " + tunable.format(tunable.getMin()) + " and " + tunable.format(tunable.getMax());
+					}
+				} catch (NumberFormatException e) {
+					message = getTunableLabel(tunable) + " must be a number";
+				}
+			}
 			return message;
 		}
 
 		/**
-		 * Creates a configuration object based on the given type
-		 *
-		 * @param type of the algorithm
+		 * Creates a configuration object from the fields of the window
 		 */
-		private void createConfig(AlgorithmTypes type) {
+		private void createConfig() {
 			AppActions appActions = (AppActions) applicationTemplate.getActionComponent();
-			String result = checkInput(type);
+			String result = checkInput();
 			if(!result.isEmpty()){ //configuration contains invalid input (negative, non numbers)
 				appActions.showErrorDialog(manager.getPropertyValue(INVALID_CONFIG_TITLE.name()), result +  ". " + manager.getPropertyValue(INVALID_CONFIG_MESSAGE.name()));
-				handleInvalidConfig(type);
+				handleInvalidConfig();
 				return;
 			}
 
@@ -1151,7 +1246,7 @@ public final class AppUI extends UITemplate {
 
 			String message = "";
 
-			if (type.equals(AlgorithmTypes.CLUSTERING)) {
+			if (numLabelsUsed) {
 				int numLabels = Integer.parseInt(numLabelsField.getText());
 				if (numLabels < 2) {
 					numLabelsField.setText("" + 2);
@@ -1166,6 +1261,20 @@ public final class AppUI extends UITemplate {
 			} else {
 				config = new Config(maxIterations, updateInterval, toContinue);
 			}
+			config.setMaxThroughput(throughputCheck.isSelected());
+			if (!frameRateField.getText().trim().isEmpty()) {
+				config.setFrameRate(Integer.parseInt(frameRateField.getText().trim()));
+				frameRateField.setText("" + config.getFrameRate());
+			}
+			for (Tunable tunable : tunables) {
+				TextField tunableField = tunableFields.get(tunable);
+				String text = tunableField.getText().trim();
+				if (!text.isEmpty()) {
+					double value = Double.parseDouble(text);
+					config.setTunable(tunable, value);
+					tunableField.setText(tunable.format(value));
+				}
+			}
 			iterationField.setText("" + maxIterations);
 			intervalField.setText("" + updateInterval);
 			continuousCheck.setSelected(toContinue);
@@ -1183,18 +1292,20 @@ public final class AppUI extends UITemplate {
 			intervalField.setText("");
 			continuousCheck.setSelected(false);
 			numLabelsField.setText("");
+			throughputCheck.setSelected(false);
+			frameRateField.setText("");
+			tunableFields.values().forEach(TextField::clear);
 		}
 
 		/**
 		 * Uses default values
-		 * @param type of the algorithm
 		 */
-		private void handleInvalidConfig(AlgorithmTypes type) {
+		private void handleInvalidConfig() {
 			int tempIteration = 15;
 			int tempInterval = 1;
 			boolean tempContinuous = true;
 			int tempLabels = 2;
-			if (type.equals(AlgorithmTypes.CLUSTERING)) {
+			if (numLabelsUsed) {
 				config = new Config(tempIteration, tempInterval, tempContinuous, tempLabels);
 				numLabelsField.setText("" + tempLabels);
 			} else {
@@ -1203,6 +1314,9 @@ public final class AppUI extends UITemplate {
 			iterationField.setText("" + tempIteration);
 			intervalField.setText("" + tempInterval);
 			continuousCheck.setSelected(tempContinuous);
+			throughputCheck.setSelected(false);
+			frameRateField.setText("");
+			tunableFields.values().forEach(TextField::clear); // default values
 		}
 	}
 
@@ -0,0 +1,237 @@
+package ui;
+
+import algorithms.DecisionRegions;
+import java.util.Arrays;
+import java.util.List;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * A line chart that can also draw points straight onto a canvas beneath its
+ * series, for data sets too large to have one node per point. The canvas
+ * points are drawn with the default color of a series of the chart, which
+ * is usually empty and only shown in the legend. The axes and the other
+ * series, such as the line of a classifier, are unchanged. For even larger
+ * data sets, the canvas can show the density of the points instead, see
+ * {@link DensityGrid}. Beneath the points, the canvas can also show the
+ * regions of a classifier, tinted with the colors of the series of their
+ * labels, see {@link RegionRaster}.
+ *
+ * @author Neil Opena
+ */
+public class CanvasScatterChart extends LineChart<Number, Number> {
+
+	/**
+	 * default chart colors of the modena style sheet, by default color
+	 * index of a series
+	 */
+	private static final int[] DEFAULT_COLORS = {
+		0xfff3622d, 0xfffba71b, 0xff57b757, 0xff41a9c9,
+		0xff4258c9, 0xff9a42c8, 0xffc84164, 0xff888888
+	};
+	private static final String DEFAULT_COLOR = "default-color";
+	/**
+	 * opacity of the color of a region, out of 255
+	 */
+	private static final int REGION_ALPHA = 0x48;
+
+	private final Canvas canvas = new Canvas();
+	private final PointRaster raster = new PointRaster();
+	private final DensityGrid density = new DensityGrid();
+	private boolean densityShown;
+	private WritableImage image;
+	private final RegionRaster regionRaster = new RegionRaster();
+	private WritableImage regionImage;
+
+	private double[] xs;
+	private double[] ys;
+	private int[] groups;
+	private List<Series<Number, Number>> groupSeries;
+	private int size;
+
+	private DecisionRegions regions;
+	private List<Series<Number, Number>> regionSeries;
+	//layout the region image was drawn for
+	private boolean regionsDrawn;
+	private double[] regionLayout = new double[6];
+
+	public CanvasScatterChart(NumberAxis xAxis, NumberAxis yAxis) {
+		super(xAxis, yAxis);
+		canvas.setMouseTransparent(true);
+		getPlotChildren().add(0, canvas);
+	}
+
+	/**
+	 * Draws the given points on the canvas, replacing the previous ones. The
+	 * arrays are read again whenever the chart is laid out, until
+	 * {@link #clearPoints()} is called.
+	 *
+	 * @param xs x values of the points
+	 * @param ys y values of the points
+	 * @param groups index in groupSeries of the series of every point
+	 * @param groupSeries series whose color the points take, in the chart
+	 * @param size number of points, the arrays may be longer
+	 */
+	public void showPoints(double[] xs, double[] ys, int[] groups, List<Series<Number, Number>> groupSeries, int size) {
+		this.xs = xs;
+		this.ys = ys;
+		this.groups = groups;
+		this.groupSeries = groupSeries;
+		this.size = size;
+		requestChartLayout();
+	}
+
+	/**
+	 * Chooses how the canvas points are drawn, either as points or as the
+	 * density of every series in small bins
+	 *
+	 * @param densityShown true to draw the density
+	 */
+	public void setDensityShown(boolean densityShown) {
+		if (this.densityShown != densityShown) {
+			this.densityShown = densityShown;
+			requestChartLayout();
+		}
+	}
+
+	/**
+	 * Removes the canvas points
+	 */
+	public void clearPoints() {
+		xs = null;
+		ys = null;
+		groups = null;
+		groupSeries = null;
+		size = 0;
+		requestChartLayout();
+	}
+
+	/**
+	 * Draws the regions of a classifier beneath the points, replacing the
+	 * previous ones. The regions are classified again whenever the size or
+	 * the bounds of the plot change.
+	 *
+	 * @param regions regions to draw
+	 * @param regionSeries series whose color every region takes, null for
+	 * a region without one
+	 */
+	public void showRegions(DecisionRegions regions, List<Series<Number, Number>> regionSeries) {
+		regionsDrawn &= regions == this.regions && regionSeries.equals(this.regionSeries);
+		this.regions = regions;
+		this.regionSeries = regionSeries;
+		requestChartLayout();
+	}
+
+	/**
+	 * Removes the regions
+	 */
+	public void clearRegions() {
+		regions = null;
+		regionSeries = null;
+		regionsDrawn = false;
+		requestChartLayout();
+	}
+
+	/**
+	 * Indicates whether points are drawn on the canvas
+	 *
+	 * @return true if the canvas holds points
+	 */
+	public boolean showsPoints() {
+		return xs != null;
+	}
+
+	@Override
+	protected void layoutPlotChildren() {
+		super.layoutPlotChildren();
+		NumberAxis xAxis = (NumberAxis) getXAxis();
+		NumberAxis yAxis = (NumberAxis) getYAxis();
+		int width = (int) Math.ceil(xAxis.getWidth());
+		int height = (int) Math.ceil(yAxis.getHeight());
+		canvas.setWidth(width);
+		canvas.setHeight(height);
+		GraphicsContext context = canvas.getGraphicsContext2D();
+		context.clearRect(0, 0, width, height);
+		if (width == 0 || height == 0) {
+			return;
+		}
+		if (regions != null) {
+			drawRegions(context, width, height);
+		}
+		if (xs != null) {
+			drawPoints(context, width, height);
+		}
+	}
+
+	/**
+	 * Draws the regions, classifying the pixels again only if the layout
+	 * changed since the last time
+	 */
+	private void drawRegions(GraphicsContext context, int width, int height) {
+		NumberAxis xAxis = (NumberAxis) getXAxis();
+		NumberAxis yAxis = (NumberAxis) getYAxis();
+		double[] layout = {width, height, xAxis.getLowerBound(), xAxis.getUpperBound(), yAxis.getLowerBound(), yAxis.getUpperBound()};
+		if (!regionsDrawn || !Arrays.equals(layout, regionLayout)) {
+			int[] colors = new int[regions.getRegionCount()];
+			for (int r = 0; r < colors.length; r++) {
+				Series<Number, Number> series = r < regionSeries.size() ? regionSeries.get(r) : null;
+				colors[r] = (series == null ? DEFAULT_COLORS[DEFAULT_COLORS.length - 1] : colorOf(series)) & 0x00ffffff | REGION_ALPHA << 24;
+			}
+			regionRaster.draw(regions, colors, width, height, layout[2], layout[3], layout[4], layout[5]);
+			if (regionImage == null || regionImage.getWidth() != width || regionImage.getHeight() != height) {
+				regionImage = new WritableImage(width, height);
+			}
+			regionImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), regionRaster.getPixels(), 0, width);
+			regionLayout = layout;
+			regionsDrawn = true;
+		}
+		context.drawImage(regionImage, 0, 0);
+	}
+
+	private void drawPoints(GraphicsContext context, int width, int height) {
+		NumberAxis xAxis = (NumberAxis) getXAxis();
+		NumberAxis yAxis = (NumberAxis) getYAxis();
+
+		int[] colors = new int[groupSeries.size()];
+		for (int g = 0; g < colors.length; g++) {
+			colors[g] = colorOf(groupSeries.get(g));
+		}
+		int[] pixels;
+		if (densityShown) {
+			density.update(xs, ys, groups, colors, size, width, height, xAxis.getLowerBound(), xAxis.getUpperBound(), yAxis.getLowerBound(), yAxis.getUpperBound());
+			pixels = density.getPixels();
+		} else {
+			raster.reset(width, height);
+			raster.draw(xs, ys, groups, colors, size, xAxis.getLowerBound(), xAxis.getUpperBound(), yAxis.getLowerBound(), yAxis.getUpperBound());
+			pixels = raster.getPixels();
+		}
+
+		if (image == null || image.getWidth() != width || image.getHeight() != height) {
+			image = new WritableImage(width, height);
+		}
+		image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		context.drawImage(image, 0, 0);
+	}
+
+	/**
+	 * Returns the color the chart gave to a series, read from the default
+	 * color style class of its node
+	 *
+	 * @param series a series of the chart
+	 * @return ARGB color
+	 */
+	private static int colorOf(Series<Number, Number> series) {
+		if (series.getNode() != null) {
+			for (String styleClass : series.getNode().getStyleClass()) {
+				if (styleClass.startsWith(DEFAULT_COLOR)) {
+					return DEFAULT_COLORS[Integer.parseInt(styleClass.substring(DEFAULT_COLOR.length())) % DEFAULT_COLORS.length];
+				}
+			}
+		}
+		return DEFAULT_COLORS[DEFAULT_COLORS.length - 1];
+	}
+}
@@ -0,0 +1,237 @@
+package ui;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Counts points per group in a grid of bins the size of a few pixels and
+ * draws every bin with the colors of its groups mixed by count, more opaque
+ * where there are more points. The bin of every point is computed in
+ * parallel when the layout changes. Between layouts, only the points whose
+ * group changed are looked at and only their bins are drawn again; the
+ * number of points of a bin, hence its opacity, does not change.
+ *
+ * @author Neil Opena
+ */
+public final class DensityGrid {
+
+	/**
+	 * side of a bin, in pixels
+	 */
+	public static final int BIN_SIZE = 2;
+	/**
+	 * number of points binned by a parallel task
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/**
+	 * opacity every bin holding points starts from, out of 255
+	 */
+	private static final int MIN_ALPHA = 48;
+
+	//layout of the last full binning
+	private double[] xs;
+	private double[] ys;
+	private int size = -1;
+	private int width;
+	private int height;
+	private double xLower;
+	private double xUpper;
+	private double yLower;
+	private double yUpper;
+
+	private int columns;
+	private int rows;
+	private int[] binOf = new int[0]; //bin of every point, -1 if outside of the grid
+	private int[] displayedGroups = new int[0];
+	private int[][] counts = new int[0][]; //count by group, by bin
+	private int[] totals = new int[0];
+	private double logMaxTotal;
+	private int[] colors = new int[0];
+
+	private final BitSet dirty = new BitSet();
+	private int lastDrawnBins;
+	private int[] pixels = new int[0];
+
+	/**
+	 * Brings the pixels up to date with the given points. The points are
+	 * binned again if any argument other than the groups and colors changed
+	 * since the last call, otherwise only the bins of the points whose group
+	 * changed are drawn again.
+	 *
+	 * @param xs x values of the points
+	 * @param ys y values of the points
+	 * @param groups group of every point
+	 * @param colors ARGB color of every group
+	 * @param size number of points, the arrays may be longer
+	 * @param width width of the picture in pixels
+	 * @param height height of the picture in pixels
+	 * @param xLower x value at the left edge
+	 * @param xUpper x value at the right edge
+	 * @param yLower y value at the bottom edge
+	 * @param yUpper y value at the top edge
+	 */
+	public void update(double[] xs, double[] ys, int[] groups, int[] colors, int size, int width, int height,
+			double xLower, double xUpper, double yLower, double yUpper) {
+		if (xs != this.xs || ys != this.ys || size != this.size || width != this.width || height != this.height
+				|| xLower != this.xLower || xUpper != this.xUpper || yLower != this.yLower || yUpper != this.yUpper
+				|| colors.length != this.colors.length) {
+			this.xs = xs;
+			this.ys = ys;
+			this.size = size;
+			this.width = width;
+			this.height = height;
+			this.xLower = xLower;
+			this.xUpper = xUpper;
+			this.yLower = yLower;
+			this.yUpper = yUpper;
+			this.colors = colors.clone();
+			bin(groups);
+		} else {
+			if (!Arrays.equals(colors, this.colors)) {
+				this.colors = colors.clone();
+				dirty.set(0, totals.length);
+			}
+			regroup(groups);
+		}
+		draw();
+	}
+
+	/**
+	 * Computes the bin of every point and counts the points of every bin
+	 *
+	 * @param groups group of every point
+	 */
+	private void bin(int[] groups) {
+		columns = (width + BIN_SIZE - 1) / BIN_SIZE;
+		rows = (height + BIN_SIZE - 1) / BIN_SIZE;
+		int bins = columns * rows;
+		if (binOf.length < size) {
+			binOf = new int[size];
+			displayedGroups = new int[size];
+		}
+		double xScale = width / (xUpper - xLower) / BIN_SIZE;
+		double yScale = height / (yUpper - yLower) / BIN_SIZE;
+		int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+			for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+				double column = (xs[i] - xLower) * xScale;
+				double row = (yUpper - ys[i]) * yScale;
+				binOf[i] = column >= 0 && column < columns && row >= 0 && row < rows
+						? (int) row * columns + (int) column
+						: -1; //also NaN
+			}
+		});
+
+		counts = new int[colors.length][bins];
+		totals = new int[bins];
+		int maxTotal = 0;
+		for (int i = 0; i < size; i++) {
+			int group = groups[i];
+			displayedGroups[i] = group;
+			int bin = binOf[i];
+			if (bin >= 0) {
+				counts[group][bin]++;
+				maxTotal = Math.max(maxTotal, ++totals[bin]);
+			}
+		}
+		logMaxTotal = Math.log1p(maxTotal);
+
+		int length = width * height;
+		if (pixels.length < length) {
+			pixels = new int[length];
+		}
+		dirty.set(0, bins);
+	}
+
+	/**
+	 * Moves the points whose group changed to the counts of their new group
+	 *
+	 * @param groups group of every point
+	 */
+	private void regroup(int[] groups) {
+		for (int i = 0; i < size; i++) {
+			int group = groups[i];
+			int previous = displayedGroups[i];
+			if (group != previous) {
+				displayedGroups[i] = group;
+				int bin = binOf[i];
+				if (bin >= 0) {
+					counts[previous][bin]--;
+					counts[group][bin]++;
+					dirty.set(bin);
+				}
+			}
+		}
+	}
+
+	private void draw() {
+		lastDrawnBins = dirty.cardinality();
+		for (int bin = dirty.nextSetBit(0); bin >= 0; bin = dirty.nextSetBit(bin + 1)) {
+			int color = mix(bin);
+			int left = (bin % columns) * BIN_SIZE;
+			int right = Math.min(left + BIN_SIZE, width);
+			int top = (bin / columns) * BIN_SIZE;
+			int bottom = Math.min(top + BIN_SIZE, height);
+			for (int y = top; y < bottom; y++) {
+				Arrays.fill(pixels, y * width + left, y * width + right, color);
+			}
+		}
+		dirty.clear();
+	}
+
+	/**
+	 * Returns the color of a bin: the colors of its groups weighted by
+	 * count, with an opacity growing with the logarithm of its count
+	 *
+	 * @param bin the bin
+	 * @return ARGB color, transparent for an empty bin
+	 */
+	private int mix(int bin) {
+		int total = totals[bin];
+		if (total == 0) {
+			return 0;
+		}
+		long red = 0;
+		long green = 0;
+		long blue = 0;
+		for (int group = 0; group < colors.length; group++) {
+			int count = counts[group][bin];
+			if (count > 0) {
+				red += (long) count * ((colors[group] >> 16) & 0xff);
+				green += (long) count * ((colors[group] >> 8) & 0xff);
+				blue += (long) count * (colors[group] & 0xff);
+			}
+		}
+		int alpha = MIN_ALPHA + (int) Math.round((255 - MIN_ALPHA) * Math.log1p(total) / logMaxTotal);
+		return alpha << 24 | (int) (red / total) << 16 | (int) (green / total) << 8 | (int) (blue / total);
+	}
+
+	/**
+	 * Returns the number of bins drawn by the last update
+	 *
+	 * @return number of bins drawn, all of them after a new binning
+	 */
+	public int getLastDrawnBins() {
+		return lastDrawnBins;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the picture, one ARGB value per pixel row by row. The buffer
+	 * may be longer than width times height.
+	 *
+	 * @return the pixels
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+}
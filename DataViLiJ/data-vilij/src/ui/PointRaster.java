@@ -0,0 +1,98 @@
+package ui;
+
+import java.util.Arrays;
+
+/**
+ * Draws points as small squares into an ARGB pixel buffer, without any
+ * scene graph node. The buffer is reused as long as it is large enough.
+ *
+ * @author Neil Opena
+ */
+public final class PointRaster {
+
+	/**
+	 * half the side of the square drawn for a point, in pixels
+	 */
+	public static final int POINT_RADIUS = 2;
+
+	private int width;
+	private int height;
+	private int[] pixels = new int[0];
+
+	/**
+	 * Clears the buffer and resizes it to the given dimensions
+	 *
+	 * @param width width in pixels
+	 * @param height height in pixels
+	 */
+	public void reset(int width, int height) {
+		this.width = width;
+		this.height = height;
+		int length = width * height;
+		if (pixels.length < length) {
+			pixels = new int[length];
+		} else {
+			Arrays.fill(pixels, 0, length, 0);
+		}
+	}
+
+	/**
+	 * Draws the points into the buffer. A point is mapped linearly from the
+	 * given bounds to the buffer, the y axis pointing up. Points outside of
+	 * the bounds are clipped.
+	 *
+	 * @param xs x values of the points
+	 * @param ys y values of the points
+	 * @param groups group of every point
+	 * @param colors ARGB color of every group
+	 * @param size number of points, the arrays may be longer
+	 * @param xLower x value at the left edge
+	 * @param xUpper x value at the right edge
+	 * @param yLower y value at the bottom edge
+	 * @param yUpper y value at the top edge
+	 */
+	public void draw(double[] xs, double[] ys, int[] groups, int[] colors, int size, double xLower, double xUpper, double yLower, double yUpper) {
+		if (width == 0 || height == 0) {
+			return;
+		}
+		double xScale = width / (xUpper - xLower);
+		double yScale = height / (yUpper - yLower);
+		for (int i = 0; i < size; i++) {
+			double px = (xs[i] - xLower) * xScale;
+			double py = (yUpper - ys[i]) * yScale;
+			if (!(px >= -POINT_RADIUS && px < width + POINT_RADIUS && py >= -POINT_RADIUS && py < height + POINT_RADIUS)) {
+				continue; //also skips NaN
+			}
+			fillSquare((int) Math.floor(px), (int) Math.floor(py), colors[groups[i]]);
+		}
+	}
+
+	private void fillSquare(int cx, int cy, int color) {
+		int left = Math.max(cx - POINT_RADIUS, 0);
+		int right = Math.min(cx + POINT_RADIUS, width - 1);
+		int top = Math.max(cy - POINT_RADIUS, 0);
+		int bottom = Math.min(cy + POINT_RADIUS, height - 1);
+		for (int y = top; y <= bottom; y++) {
+			int row = y * width;
+			Arrays.fill(pixels, row + left, row + right + 1, color);
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the buffer, one ARGB value per pixel row by row. The buffer
+	 * may be longer than width times height.
+	 *
+	 * @return the pixels
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+}
@@ -0,0 +1,89 @@
+package ui;
+
+import algorithms.DecisionRegions;
+import java.util.stream.IntStream;
+
+/**
+ * Draws the regions of a classifier into an ARGB pixel buffer, every pixel
+ * taking the color of the region of its center. The buffer is cut into
+ * square tiles classified in parallel on the common fork-join pool, every
+ * tile writing its own part of the buffer. The buffer is reused as long as
+ * it is large enough.
+ *
+ * @author Neil Opena
+ * @see DecisionRegions
+ */
+public final class RegionRaster {
+
+	/**
+	 * side of a tile, in pixels
+	 */
+	public static final int TILE_SIZE = 64;
+
+	private int width;
+	private int height;
+	private int[] pixels = new int[0];
+
+	/**
+	 * Classifies every pixel of a plot area and colors it. A pixel is
+	 * mapped linearly from the buffer to the given bounds, the y axis
+	 * pointing up.
+	 *
+	 * @param regions regions to draw
+	 * @param colors ARGB color of every region
+	 * @param width width in pixels
+	 * @param height height in pixels
+	 * @param xLower x value at the left edge
+	 * @param xUpper x value at the right edge
+	 * @param yLower y value at the bottom edge
+	 * @param yUpper y value at the top edge
+	 */
+	public void draw(DecisionRegions regions, int[] colors, int width, int height, double xLower, double xUpper, double yLower, double yUpper) {
+		this.width = width;
+		this.height = height;
+		if (pixels.length < width * height) {
+			pixels = new int[width * height];
+		}
+		if (width == 0 || height == 0) {
+			return;
+		}
+		double xStep = (xUpper - xLower) / width;
+		double yStep = (yUpper - yLower) / height;
+		int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+		int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+		int[] buffer = pixels;
+		IntStream.range(0, columns * rows).parallel().forEach(tile -> {
+			int left = tile % columns * TILE_SIZE;
+			int top = tile / columns * TILE_SIZE;
+			int tileWidth = Math.min(TILE_SIZE, width - left);
+			int tileHeight = Math.min(TILE_SIZE, height - top);
+			int offset = top * width + left;
+			regions.classify(xLower + (left + 0.5) * xStep, yUpper - (top + 0.5) * yStep, xStep, -yStep,
+					tileWidth, tileHeight, buffer, offset, width);
+			for (int y = 0; y < tileHeight; y++) {
+				for (int p = offset + y * width, end = p + tileWidth; p < end; p++) {
+					int region = buffer[p];
+					buffer[p] = region < 0 ? 0 : colors[region];
+				}
+			}
+		});
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the buffer, one ARGB value per pixel row by row. The buffer
+	 * may be longer than width times height.
+	 *
+	 * @return the pixels
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+}
@@ -0,0 +1,275 @@
+package algorithms;
+
+import data.Config;
+import data.DataSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Runs of a counting algorithm driven by the scheduler in max throughput
+ * mode, so that no delay slows the tests down.
+ *
+ * @author Neil Opena
+ */
+public class AlgorithmSchedulerTest {
+
+	private final AlgorithmScheduler scheduler = new AlgorithmScheduler(1);
+
+	public AlgorithmSchedulerTest() {
+	}
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	/**
+	 * Test of submit, of class AlgorithmScheduler.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. algorithm never converging (completed after the maximum number of
+	 * iterations, the final chart update reported before the completion)
+	 * 2. algorithm converging at iteration 4 (autocompleted, no iteration after it)
+	 */
+	@Test
+	public void testCompletion() throws InterruptedException {
+		System.out.println("completion");
+		Recorder exhausted = new Recorder();
+		CountingAlgorithm endless = new CountingAlgorithm(Integer.MAX_VALUE);
+		scheduler.submit(endless, new DataSet(), config(20, 5, true), exhausted);
+		assertTrue(exhausted.finished.await(5, TimeUnit.SECONDS));
+		assertEquals("chart 20", exhausted.events.get(exhausted.events.size() - 2));
+		assertEquals("complete", exhausted.events.get(exhausted.events.size() - 1));
+		assertEquals(20, endless.steps);
+
+		Recorder converged = new Recorder();
+		CountingAlgorithm converging = new CountingAlgorithm(4);
+		scheduler.submit(converging, new DataSet(), config(20, 5, true), converged);
+		assertTrue(converged.finished.await(5, TimeUnit.SECONDS));
+		assertTrue(converged.events.contains("autocomplete"));
+		assertEquals(4, converging.steps);
+		assertTrue(converging.initialized);
+	}
+
+	/**
+	 * Test of resume and cancel, of class AlgorithmScheduler.Run.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. non continuous run (pauses after the update interval, chart updated before)
+	 * 2. resumed run (pauses again one interval later)
+	 * 3. cancelled run (not resumed, nothing more reported)
+	 */
+	@Test
+	public void testPause() throws InterruptedException {
+		System.out.println("pause");
+		Recorder recorder = new Recorder();
+		CountingAlgorithm algorithm = new CountingAlgorithm(Integer.MAX_VALUE);
+		AlgorithmScheduler.Run run = scheduler.submit(algorithm, new DataSet(), config(20, 5, false), recorder);
+		assertTrue(recorder.paused.await(5, TimeUnit.SECONDS));
+		assertTrue(run.isPaused());
+		assertEquals(5, algorithm.steps);
+		assertTrue(recorder.events.contains("chart 5"));
+
+		recorder.paused = new CountDownLatch(1);
+		run.resume();
+		assertTrue(recorder.paused.await(5, TimeUnit.SECONDS));
+		assertEquals(10, algorithm.steps);
+
+		run.cancel();
+		run.resume();
+		assertTrue(run.isDone());
+		Thread.sleep(50);
+		assertEquals(10, algorithm.steps);
+		assertFalse(recorder.events.contains("complete"));
+	}
+
+	/**
+	 * Test of cancel and of submit in place of a run, of class
+	 * AlgorithmScheduler.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. run cancelled in the middle of a step (cancel returns without
+	 * waiting for the step, the iteration is neither shown nor drawn)
+	 * 2. run submitted in place of it on another thread (not initialized
+	 * before the step of the cancelled run ends)
+	 */
+	@Test
+	public void testCancelDuringStep() throws InterruptedException {
+		System.out.println("cancel during step");
+		AlgorithmScheduler threads = new AlgorithmScheduler(2);
+		try {
+			Recorder recorder = new Recorder();
+			CountDownLatch stepping = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CountingAlgorithm algorithm = new CountingAlgorithm(Integer.MAX_VALUE) {
+				@Override
+				public void step() {
+					stepping.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					super.step();
+				}
+			};
+			AlgorithmScheduler.Run run = threads.submit(algorithm, new DataSet(), config(20, 1, true), recorder);
+			assertTrue(stepping.await(5, TimeUnit.SECONDS));
+			run.cancel();
+			assertTrue(run.isDone());
+
+			Recorder replacing = new Recorder();
+			CountingAlgorithm next = new CountingAlgorithm(2);
+			threads.submit(next, new DataSet(), config(20, 1, true), replacing, run);
+			Thread.sleep(100);
+			assertFalse(next.initialized);
+
+			release.countDown();
+			assertTrue(replacing.finished.await(5, TimeUnit.SECONDS));
+			assertTrue(next.initialized);
+			assertEquals(1, algorithm.steps);
+			assertTrue(recorder.events.isEmpty());
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	/**
+	 * Test of submit on a failing algorithm, of class AlgorithmScheduler.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. error thrown by init (run aborted and done, rather than left
+	 * running with the error kept by the executor)
+	 * 2. exception thrown by step (run aborted after the iterations before)
+	 */
+	@Test
+	public void testAbort() throws InterruptedException {
+		System.out.println("abort");
+		Recorder failedInit = new Recorder();
+		CountingAlgorithm outOfMemory = new CountingAlgorithm(Integer.MAX_VALUE) {
+			@Override
+			public void init(DataSet dataset, Config config) {
+				throw new OutOfMemoryError();
+			}
+		};
+		AlgorithmScheduler.Run run = scheduler.submit(outOfMemory, new DataSet(), config(20, 5, true), failedInit);
+		assertTrue(failedInit.finished.await(5, TimeUnit.SECONDS));
+		assertEquals("abort OutOfMemoryError", failedInit.events.get(failedInit.events.size() - 1));
+		assertTrue(run.isDone());
+		assertEquals(0, outOfMemory.steps);
+
+		Recorder failedStep = new Recorder();
+		CountingAlgorithm failing = new CountingAlgorithm(Integer.MAX_VALUE) {
+			@Override
+			public void step() {
+				super.step();
+				if (steps == 3) {
+					throw new IllegalStateException();
+				}
+			}
+		};
+		scheduler.submit(failing, new DataSet(), config(20, 5, true), failedStep);
+		assertTrue(failedStep.finished.await(5, TimeUnit.SECONDS));
+		assertEquals("abort IllegalStateException", failedStep.events.get(failedStep.events.size() - 1));
+		assertEquals(3, failing.steps);
+	}
+
+	private static Config config(int maxIterations, int updateInterval, boolean toContinue) {
+		Config config = new Config(maxIterations, updateInterval, toContinue);
+		config.setMaxThroughput(true);
+		config.setFrameRate(0);
+		return config;
+	}
+
+	private static class CountingAlgorithm implements Algorithm {
+
+		private final int convergence;
+		volatile int steps;
+		private volatile boolean initialized;
+
+		CountingAlgorithm(int convergence) {
+			this.convergence = convergence;
+		}
+
+		@Override
+		public void init(DataSet dataset, Config config) {
+			initialized = true;
+		}
+
+		@Override
+		public void step() {
+			steps++;
+		}
+
+		@Override
+		public boolean isConverged() {
+			return steps >= convergence;
+		}
+
+		@Override
+		public void snapshot() {
+		}
+
+		@Override
+		public String getName() {
+			return "Counting";
+		}
+	}
+
+	private static class Recorder implements RunListener {
+
+		private final List<String> events = new CopyOnWriteArrayList<>();
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private volatile CountDownLatch paused = new CountDownLatch(1);
+
+		@Override
+		public void showCurrentIteration(int iteration, String info) {
+			events.add("iteration " + iteration);
+		}
+
+		@Override
+		public void updateChart(int iteration) {
+			events.add("chart " + iteration);
+		}
+
+		@Override
+		public void enableRun() {
+			events.add("pause");
+			paused.countDown();
+		}
+
+		@Override
+		public void disableRun() {
+			events.add("resume");
+		}
+
+		@Override
+		public void completeAlgorithm() {
+			events.add("complete");
+			finished.countDown();
+		}
+
+		@Override
+		public void autocompleteAlgorithm() {
+			events.add("autocomplete");
+			finished.countDown();
+		}
+
+		@Override
+		public void abortAlgorithm(Throwable cause) {
+			events.add("abort " + cause.getClass().getSimpleName());
+			finished.countDown();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package algorithms;
+
+import data.DataSet;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Classes of the instances for the classifiers drawing a line.
+ *
+ * @author Neil Opena
+ */
+public class BinaryClassesTest {
+
+	public BinaryClassesTest() {
+	}
+
+	/**
+	 * Test of encode and hasBothClasses, of class BinaryClasses.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. unlabelled instance first (left out, the first label after it is
+	 * the positive class)
+	 * 2. several other labels (all in the negative class)
+	 * 3. a single label and unlabelled instances (no negative class)
+	 * 4. no instances (no negative class)
+	 */
+	@Test
+	public void testEncode() {
+		System.out.println("encode");
+		DataSet dataset = new DataSet();
+		dataset.addInstance("@a", "null", 0, 0);
+		dataset.addInstance("@b", "first", 1, 0);
+		dataset.addInstance("@c", "second", 2, 0);
+		dataset.addInstance("@d", "first", 3, 0);
+		dataset.addInstance("@e", "third", 4, 0);
+		byte[] classes = BinaryClasses.encode(dataset, "null");
+		assertArrayEquals(new byte[]{BinaryClasses.UNLABELED, BinaryClasses.POSITIVE, BinaryClasses.NEGATIVE,
+			BinaryClasses.POSITIVE, BinaryClasses.NEGATIVE}, classes);
+		assertTrue(BinaryClasses.hasBothClasses(classes));
+
+		DataSet single = new DataSet();
+		single.addInstance("@a", "first", 0, 0);
+		single.addInstance("@b", "null", 1, 0);
+		assertFalse(BinaryClasses.hasBothClasses(BinaryClasses.encode(single, "null")));
+
+		assertFalse(BinaryClasses.hasBothClasses(BinaryClasses.encode(new DataSet(), "null")));
+	}
+}
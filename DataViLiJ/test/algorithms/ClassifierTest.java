@@ -0,0 +1,212 @@
+package algorithms;
+
+import data.Config;
+import data.DataSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import static settings.AppPropertyTypes.NULL;
+import vilij.propertymanager.PropertyManager;
+
+/**
+ * Publication and reading of the output of a classifier.
+ *
+ * @author Neil Opena
+ */
+public class ClassifierTest {
+
+	public ClassifierTest() {
+	}
+
+	/**
+	 * Classifier publishing whatever it is given
+	 */
+	private static final class FixedClassifier extends Classifier {
+
+		private void publish(double... values) {
+			publishCoefficients(values);
+		}
+
+		private void setOutput(List<Integer> legacy) {
+			output = legacy;
+		}
+
+		@Override
+		public void init(DataSet dataset, Config config) {
+		}
+
+		@Override
+		public void step() {
+		}
+
+		@Override
+		public boolean isConverged() {
+			return true;
+		}
+
+		@Override
+		public void snapshot() {
+		}
+
+		@Override
+		public String getName() {
+			return "Fixed Classifier";
+		}
+	}
+
+	/**
+	 * Test of publishCoefficients and readCoefficients, of class Classifier.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. no output yet (0 coefficients, empty array)
+	 * 2. line published (read back as given)
+	 * 3. array too short for a curve (count returned, nothing copied)
+	 * 4. line published after the curve (count of the line only)
+	 * 5. fewer than 3 coefficients (rejected)
+	 */
+	@Test
+	public void testReadCoefficients() {
+		System.out.println("readCoefficients");
+		FixedClassifier classifier = new FixedClassifier();
+		double[] target = new double[3];
+		assertEquals(0, classifier.readCoefficients(target));
+		assertEquals(0, classifier.getCoefficients().length);
+
+		classifier.publish(1.5, -2, 0.25);
+		assertEquals(3, classifier.readCoefficients(target));
+		assertArrayEquals(new double[]{1.5, -2, 0.25}, target, 0);
+
+		classifier.publish(1, 2, 3, 4, 5);
+		double[] shortTarget = {9, 9, 9};
+		assertEquals(5, classifier.readCoefficients(shortTarget));
+		assertArrayEquals(new double[]{9, 9, 9}, shortTarget, 0);
+		assertArrayEquals(new double[]{1, 2, 3, 4, 5}, classifier.getCoefficients(), 0);
+
+		classifier.publish(3, 2, 1);
+		assertArrayEquals(new double[]{3, 2, 1}, classifier.getCoefficients(), 0);
+
+		try {
+			classifier.publish(1, 2);
+			throw new AssertionError("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertArrayEquals(new double[]{3, 2, 1}, classifier.getCoefficients(), 0);
+		}
+	}
+
+	/**
+	 * Test of evaluate, of class Classifier.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. line 2x + 4y - 8 = 0 (y = 2 - x / 2)
+	 * 2. parabola x + x^2 - y + 1 = 0 (y = x^2 + x + 1)
+	 * 3. array longer than the count (extra values ignored)
+	 */
+	@Test
+	public void testEvaluate() {
+		System.out.println("evaluate");
+		assertEquals(2, Classifier.evaluate(new double[]{2, 4, -8}, 3, 0), 1e-12);
+		assertEquals(-1, Classifier.evaluate(new double[]{2, 4, -8}, 3, 6), 1e-12);
+		double[] parabola = {1, 1, -1, 1};
+		assertEquals(1, Classifier.evaluate(parabola, 4, 0), 1e-12);
+		assertEquals(7, Classifier.evaluate(parabola, 4, 2), 1e-12);
+		assertEquals(3, Classifier.evaluate(parabola, 4, -2), 1e-12);
+		assertEquals(-1, Classifier.evaluate(new double[]{2, 4, -8, 100, 100}, 3, 6), 1e-12);
+	}
+
+	/**
+	 * Test of getOutput, of class Classifier.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. nothing published (legacy output returned as is, read as the coefficients)
+	 * 2. small coefficients (scaled so the largest of x and y is OUTPUT_SCALE)
+	 * 3. line from the integer output (same line as the coefficients)
+	 */
+	@Test
+	public void testGetOutput() {
+		System.out.println("getOutput");
+		FixedClassifier classifier = new FixedClassifier();
+		assertNull(classifier.getOutput());
+		List<Integer> legacy = Arrays.asList(3, -4, 5);
+		classifier.setOutput(legacy);
+		assertSame(legacy, classifier.getOutput());
+		assertArrayEquals(new double[]{3, -4, 5}, classifier.getCoefficients(), 0);
+
+		classifier.publish(0.002, -0.001, 0.0005);
+		List<Integer> output = classifier.getOutput();
+		assertEquals(Arrays.asList(Classifier.OUTPUT_SCALE, -Classifier.OUTPUT_SCALE / 2, Classifier.OUTPUT_SCALE / 4), output);
+		double[] scaled = {output.get(0), output.get(1), output.get(2)};
+		assertEquals(Classifier.evaluate(classifier.getCoefficients(), 3, 7), Classifier.evaluate(scaled, 3, 7), 1e-9);
+	}
+
+	/**
+	 * Test of getUnlabeledLabel, of class Classifier.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. label of the unlabelled instances set in the application
+	 * properties (the property is read, not a copy of its usual value)
+	 */
+	@Test
+	public void testGetUnlabeledLabel() {
+		System.out.println("getUnlabeledLabel");
+		PropertyManager manager = PropertyManager.getManager();
+		String previous = manager.getPropertyValue(NULL.name());
+		try {
+			manager.addProperty(NULL.name(), "unlabelled");
+			assertEquals("unlabelled", Classifier.getUnlabeledLabel());
+		} finally {
+			manager.addProperty(NULL.name(), previous);
+		}
+	}
+
+	/**
+	 * Test of readCoefficients while publishing, of class Classifier.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. arrays of one value and varying length published by another thread
+	 * (every read sees a single publication, never a mix of two)
+	 */
+	@Test
+	public void testReadWhilePublishing() throws InterruptedException {
+		System.out.println("readCoefficients while publishing");
+		FixedClassifier classifier = new FixedClassifier();
+		classifier.publish(0, 0, 0);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			double[][] values = new double[4][];
+			for (int i = 0; running.get(); i++) {
+				int length = 3 + i % values.length;
+				if (values[i % values.length] == null) {
+					values[i % values.length] = new double[length];
+				}
+				Arrays.fill(values[i % values.length], i);
+				classifier.publish(values[i % values.length]);
+			}
+		});
+		writer.start();
+		try {
+			double[] target = new double[6];
+			for (int read = 0; read < 200000; read++) {
+				int count = classifier.readCoefficients(target);
+				assertTrue(count >= 3 && count <= 6);
+				for (int i = 1; i < count; i++) {
+					assertEquals(target[0], target[i], 0);
+				}
+				assertEquals(count, 3 + (int) target[0] % 4);
+			}
+		} finally {
+			running.set(false);
+			writer.join();
+		}
+	}
+}
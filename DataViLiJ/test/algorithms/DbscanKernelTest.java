@@ -0,0 +1,160 @@
+package algorithms;
+
+import data.SpatialIndex;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Density based clustering by the DBSCAN kernel.
+ *
+ * @author Neil Opena
+ */
+public class DbscanKernelTest {
+
+	public DbscanKernelTest() {
+	}
+
+	private static int find(int[] parents, int i) {
+		while (parents[i] != i) {
+			parents[i] = parents[parents[i]];
+			i = parents[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Test of iterate, of class DbscanKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. dense groups, touching groups and sparse instances, compared with
+	 * every pair of instances (core instances within epsilon of each other
+	 * in the same cluster, one cluster per connected group of core
+	 * instances, border instances in the cluster of a core neighbor, noise
+	 * within epsilon of no core instance)
+	 * 2. the same run a few searches at a time (same clusters, every
+	 * instance searched once, more work reported until the last search)
+	 * 3. the kernel building its own index, with cells sized by epsilon
+	 * (same number of clusters and noise instances)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		Random random = new Random(17);
+		int size = 2000;
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			int group = i % 4;
+			double spread = i % 10 == 0 ? 30 : 1;
+			xs[i] = (group == 3 ? 3 : group * 8) + random.nextGaussian() * spread;
+			ys[i] = (group == 1 ? 8 : 0) + random.nextGaussian() * spread;
+		}
+		double epsilon = 0.4;
+		int minPoints = 5;
+		SpatialIndex index = new SpatialIndex(xs, ys, size);
+		DbscanKernel kernel = new DbscanKernel(index, xs, ys, size, epsilon, minPoints);
+		assertFalse(kernel.iterate(Integer.MAX_VALUE));
+		int[] assignments = kernel.getAssignments();
+		assertEquals(size, kernel.getSearched());
+
+		boolean[] core = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			int count = 0;
+			for (int j = 0; j < size; j++) {
+				if (Math.hypot(xs[i] - xs[j], ys[i] - ys[j]) <= epsilon) {
+					count++;
+				}
+			}
+			core[i] = count >= minPoints;
+		}
+		int[] parents = new int[size];
+		for (int i = 0; i < size; i++) {
+			parents[i] = i;
+		}
+		int noise = 0;
+		for (int i = 0; i < size; i++) {
+			boolean coreNeighbor = false;
+			boolean sameCluster = false;
+			for (int j = 0; j < size; j++) {
+				if (core[j] && Math.hypot(xs[i] - xs[j], ys[i] - ys[j]) <= epsilon) {
+					coreNeighbor = true;
+					sameCluster |= assignments[i] == assignments[j];
+					if (core[i]) {
+						assertEquals(assignments[i], assignments[j]);
+						parents[find(parents, i)] = find(parents, j);
+					}
+				}
+			}
+			if (coreNeighbor) {
+				assertTrue(assignments[i] >= 0 && sameCluster);
+			} else {
+				assertEquals(DbscanKernel.NOISE, assignments[i]);
+				noise++;
+			}
+		}
+		int components = 0;
+		for (int i = 0; i < size; i++) {
+			if (core[i] && find(parents, i) == i) {
+				components++;
+			}
+		}
+		assertTrue(components > 1);
+		assertEquals(components, kernel.getClusterCount());
+		assertEquals(noise, kernel.getNoiseCount());
+
+		DbscanKernel progressive = new DbscanKernel(index, xs, ys, size, epsilon, minPoints);
+		int iterations = 0;
+		while (progressive.iterate(7)) {
+			iterations++;
+			assertEquals(iterations * 7, progressive.getSearched());
+		}
+		assertEquals(size, progressive.getSearched());
+		assertEquals((size + 6) / 7 - 1, iterations);
+		assertArrayEquals(assignments, progressive.getAssignments());
+
+		DbscanKernel indexing = new DbscanKernel(xs, ys, size, epsilon, minPoints);
+		assertFalse(indexing.iterate(size));
+		assertEquals(components, indexing.getClusterCount());
+		assertEquals(noise, indexing.getNoiseCount());
+	}
+
+	/**
+	 * Test of iterate on small cases, of class DbscanKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. instance at a NaN location (noise, never a neighbor)
+	 * 2. one core instance per cluster at a time (instance reached later
+	 * counted as noise first, then as a border instance)
+	 * 3. a single neighbor needed (every instance in a cluster)
+	 * 4. no instances (nothing to search)
+	 */
+	@Test
+	public void testSmallCases() {
+		System.out.println("small cases");
+		double[] xs = {0, 1, 2, Double.NaN, 10};
+		double[] ys = {0, 0, 0, 0, 0};
+		SpatialIndex index = new SpatialIndex(xs, ys, 5);
+		DbscanKernel kernel = new DbscanKernel(index, xs, ys, 5, 1, 3);
+		assertTrue(kernel.iterate(1));
+		assertEquals(1, kernel.getNoiseCount());
+		assertEquals(DbscanKernel.UNVISITED, kernel.getAssignments()[1]);
+		assertFalse(kernel.iterate(10));
+		assertArrayEquals(new int[]{0, 0, 0, DbscanKernel.NOISE, DbscanKernel.NOISE}, kernel.getAssignments());
+		assertEquals(2, kernel.getNoiseCount());
+		assertEquals(1, kernel.getClusterCount());
+
+		DbscanKernel single = new DbscanKernel(index, xs, ys, 5, 1, 1);
+		assertFalse(single.iterate(5));
+		assertArrayEquals(new int[]{0, 0, 0, DbscanKernel.NOISE, 1}, single.getAssignments());
+
+		DbscanKernel empty = new DbscanKernel(new SpatialIndex(new double[0], new double[0], 0), new double[0], new double[0], 0, 1, 1);
+		assertFalse(empty.iterate(1));
+		assertEquals(0, empty.getSearched());
+	}
+}
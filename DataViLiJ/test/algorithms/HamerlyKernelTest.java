@@ -0,0 +1,63 @@
+package algorithms;
+
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Iterations of the bounded k-means kernel compared with the plain kernel.
+ *
+ * @author Neil Opena
+ */
+public class HamerlyKernelTest {
+
+	public HamerlyKernelTest() {
+	}
+
+	/**
+	 * Test of iterate, of class HamerlyKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. first iteration (no bounds yet, nothing skipped)
+	 * 2. four noisy groups over several blocks (same assignments and centroids as the plain kernel)
+	 * 3. last iterations (most evaluations skipped)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		int size = 3 * KMeansKernel.BLOCK_SIZE + 17;
+		Random random = new Random(3);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = random.nextGaussian() * 20 + (i % 2) * 100;
+			ys[i] = random.nextGaussian() * 20 + (i % 4 / 2) * 100;
+		}
+		KMeansKernel plain = new KMeansKernel(xs, ys, size, 4);
+		HamerlyKernel bounded = new HamerlyKernel(xs, ys, size, 4);
+		for (int c = 0; c < 4; c++) {
+			plain.setCentroid(c, xs[c * 7], ys[c * 7]);
+			bounded.setCentroid(c, xs[c * 7], ys[c * 7]);
+		}
+
+		boolean moved = true;
+		for (int iteration = 0; moved; iteration++) {
+			assertTrue(iteration < 100);
+			moved = plain.iterate();
+			assertEquals(moved, bounded.iterate());
+			if (iteration == 0) {
+				assertEquals(0, bounded.getSkippedEvaluations());
+			}
+			assertArrayEquals(plain.getAssignments(), bounded.getAssignments());
+			for (int c = 0; c < 4; c++) {
+				assertEquals(plain.getCentroidX(c), bounded.getCentroidX(c), 0);
+				assertEquals(plain.getCentroidY(c), bounded.getCentroidY(c), 0);
+			}
+		}
+		assertTrue(bounded.getSkippedEvaluations() > bounded.getTotalEvaluations() / 2);
+	}
+
+}
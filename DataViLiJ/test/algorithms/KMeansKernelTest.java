@@ -0,0 +1,90 @@
+package algorithms;
+
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Iterations of the k-means kernel over coordinate arrays.
+ *
+ * @author Neil Opena
+ */
+public class KMeansKernelTest {
+
+	public KMeansKernelTest() {
+	}
+
+	/**
+	 * Test of iterate, of class KMeansKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. two separated groups, centroids starting in the same group (converges to the group means)
+	 * 2. arrays longer than the size (extra values ignored)
+	 * 3. a centroid without instances (stays where it is)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		double[] xs = {0, 1, 0, 10, 11, 10, 1000};
+		double[] ys = {0, 0, 1, 10, 10, 11, 1000};
+		KMeansKernel kernel = new KMeansKernel(xs, ys, 6, 3);
+		kernel.setCentroid(0, 0, 0);
+		kernel.setCentroid(1, 1, 0);
+		kernel.setCentroid(2, -100, -100);
+
+		int iterations = 0;
+		while (kernel.iterate()) {
+			iterations++;
+			assertTrue(iterations < 10);
+		}
+		assertArrayEquals(new int[]{0, 0, 0, 1, 1, 1}, kernel.getAssignments());
+		assertEquals(1 / 3.0, kernel.getCentroidX(0), 1e-12);
+		assertEquals(31 / 3.0, kernel.getCentroidX(1), 1e-12);
+		assertEquals(31 / 3.0, kernel.getCentroidY(1), 1e-12);
+		assertEquals(-100, kernel.getCentroidX(2), 0);
+		assertFalse(kernel.iterate());
+	}
+
+	/**
+	 * Test of the parallel mode, of class KMeansKernel. Every iteration must
+	 * give the same assignments and the same centroid bits as the
+	 * sequential mode.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. random instances over several blocks, last block partial (same results in both modes)
+	 */
+	@Test
+	public void testParallel() {
+		System.out.println("parallel");
+		int size = 5 * KMeansKernel.BLOCK_SIZE + 123;
+		Random random = new Random(11);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = random.nextGaussian() * 100 + (i % 4) * 50;
+			ys[i] = random.nextDouble() * 1e6;
+		}
+		KMeansKernel sequential = new KMeansKernel(xs, ys, size, 4);
+		KMeansKernel parallel = new KMeansKernel(xs, ys, size, 4);
+		parallel.setParallel(true);
+		for (int c = 0; c < 4; c++) {
+			sequential.setCentroid(c, xs[c * 1000], ys[c * 1000]);
+			parallel.setCentroid(c, xs[c * 1000], ys[c * 1000]);
+		}
+
+		for (int iteration = 0; iteration < 20; iteration++) {
+			assertEquals(sequential.iterate(), parallel.iterate());
+			assertArrayEquals(sequential.getAssignments(), parallel.getAssignments());
+			for (int c = 0; c < 4; c++) {
+				assertEquals(Double.doubleToRawLongBits(sequential.getCentroidX(c)), Double.doubleToRawLongBits(parallel.getCentroidX(c)));
+				assertEquals(Double.doubleToRawLongBits(sequential.getCentroidY(c)), Double.doubleToRawLongBits(parallel.getCentroidY(c)));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package algorithms;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Training of the logistic regression kernel.
+ *
+ * @author Neil Opena
+ */
+public class LogisticRegressionKernelTest {
+
+	public LogisticRegressionKernelTest() {
+	}
+
+	/**
+	 * Two groups on either side of the line x = 1000, far from the origin
+	 * and stretched along y, with every tenth instance unlabelled
+	 */
+	private static double[][] groups(int size, long seed, byte[] classes) {
+		Random random = new Random(seed);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			boolean positive = i % 2 == 0;
+			xs[i] = 1000 + (positive ? 3 : -3) + random.nextGaussian();
+			ys[i] = 5000 + 100 * random.nextGaussian();
+			classes[i] = i % 10 == 9 ? BinaryClasses.UNLABELED
+					: positive ? BinaryClasses.POSITIVE : BinaryClasses.NEGATIVE;
+		}
+		return new double[][]{xs, ys};
+	}
+
+	private static double side(LogisticRegressionKernel kernel, double x, double y) {
+		return kernel.getA() * x + kernel.getB() * y + kernel.getC();
+	}
+
+	/**
+	 * Test of iterate over random batches, of class LogisticRegressionKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. separable groups far from the origin (converges, every batch instance on its side)
+	 * 2. line in the original coordinates (crosses x near 1000, positive side to the right)
+	 * 3. loss (decreasing from the first iteration)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		int size = 200000;
+		byte[] classes = new byte[size];
+		double[][] coordinates = groups(size, 3, classes);
+		LogisticRegressionKernel kernel = new LogisticRegressionKernel(coordinates[0], coordinates[1], classes, size, 256, 0.5, new Random(4));
+		assertFalse(kernel.isFullBatch());
+		int iterations = 0;
+		double firstLoss = 0;
+		while (kernel.iterate()) {
+			if (iterations++ == 0) {
+				firstLoss = kernel.getLoss();
+			}
+			assertTrue("no convergence", iterations < 100000);
+		}
+		assertTrue(kernel.getLoss() < firstLoss);
+		assertTrue(kernel.getAccuracy() > 0.99);
+		assertTrue(side(kernel, 1010, 5000) > 0);
+		assertTrue(side(kernel, 990, 5000) < 0);
+		//the line crosses y = 5000 close to x = 1000
+		assertEquals(1000, -(kernel.getB() * 5000 + kernel.getC()) / kernel.getA(), 0.5);
+	}
+
+	/**
+	 * Test of iterate over every labelled instance, of class
+	 * LogisticRegressionKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. batch larger than the labelled instances (full batch)
+	 * 2. parallel and sequential kernels (bit for bit identical lines)
+	 * 3. no labelled instance (nothing to train, converged at once)
+	 */
+	@Test
+	public void testIterateFullBatch() {
+		System.out.println("iterate full batch");
+		int size = 5 * LogisticRegressionKernel.BLOCK_SIZE + 7;
+		byte[] classes = new byte[size];
+		double[][] coordinates = groups(size, 5, classes);
+		LogisticRegressionKernel sequential = new LogisticRegressionKernel(coordinates[0], coordinates[1], classes, size, Integer.MAX_VALUE, 0.5, new Random(6));
+		LogisticRegressionKernel parallel = new LogisticRegressionKernel(coordinates[0], coordinates[1], classes, size, Integer.MAX_VALUE, 0.5, new Random(6));
+		parallel.setParallel(true);
+		assertTrue(sequential.isFullBatch());
+		for (int iteration = 0; iteration < 50; iteration++) {
+			assertEquals(sequential.iterate(), parallel.iterate());
+			assertEquals(sequential.getA(), parallel.getA(), 0);
+			assertEquals(sequential.getB(), parallel.getB(), 0);
+			assertEquals(sequential.getC(), parallel.getC(), 0);
+			assertEquals(sequential.getLoss(), parallel.getLoss(), 0);
+		}
+		assertTrue(sequential.getAccuracy() > 0.99);
+
+		byte[] unlabelled = {BinaryClasses.UNLABELED, BinaryClasses.UNLABELED};
+		LogisticRegressionKernel empty = new LogisticRegressionKernel(new double[2], new double[2], unlabelled, 2, 10, 0.5, new Random(8));
+		assertFalse(empty.iterate());
+	}
+
+}
@@ -0,0 +1,74 @@
+package algorithms;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Iterations of the mini-batch k-means kernel.
+ *
+ * @author Neil Opena
+ */
+public class MiniBatchKMeansKernelTest {
+
+	public MiniBatchKMeansKernelTest() {
+	}
+
+	/**
+	 * Test of iterate and getAssignments, of class MiniBatchKMeansKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. two separated groups, batches much smaller than the data (centroids near the group means)
+	 * 2. assignments after the batches (every instance in the cluster of its group)
+	 * 3. a batch larger than the batch size (rejected)
+	 * 4. a batch size beyond the number of instances (batches capped to the
+	 * number of instances rather than allocated at the requested size)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		int size = 100000;
+		Random random = new Random(5);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = random.nextDouble() + (i % 2) * 10;
+			ys[i] = random.nextDouble();
+		}
+		MiniBatchKMeansKernel kernel = new MiniBatchKMeansKernel(xs, ys, size, 2, 100, 1, new Random(9));
+		kernel.setCentroid(0, xs[0], ys[0]);
+		kernel.setCentroid(1, xs[1], ys[1]);
+		for (int iteration = 0; iteration < 50; iteration++) {
+			assertTrue(kernel.iterate());
+		}
+		assertEquals(0.5, kernel.getCentroidX(0), 0.1);
+		assertEquals(10.5, kernel.getCentroidX(1), 0.1);
+		assertEquals(0.5, kernel.getCentroidY(1), 0.1);
+
+		int[] assignments = kernel.getAssignments();
+		for (int i = 0; i < size; i++) {
+			assertEquals(i % 2, assignments[i]);
+		}
+
+		try {
+			kernel.update(new double[101], new double[101], 101);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		MiniBatchKMeansKernel capped = new MiniBatchKMeansKernel(xs, ys, 10, 2, Integer.MAX_VALUE, 1, new Random(9));
+		capped.setCentroid(0, xs[0], ys[0]);
+		capped.setCentroid(1, xs[1], ys[1]);
+		assertTrue(capped.iterate());
+		capped.update(xs, ys, 10);
+		try {
+			capped.update(xs, ys, 11);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+}
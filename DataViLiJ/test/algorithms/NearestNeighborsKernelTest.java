@@ -0,0 +1,123 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Classification of locations by the k-nearest neighbors kernel.
+ *
+ * @author Neil Opena
+ */
+public class NearestNeighborsKernelTest {
+
+	private static final int[] NO_REGION = {};
+
+	public NearestNeighborsKernelTest() {
+	}
+
+	/**
+	 * Region of a location by sorting every instance by distance, ties
+	 * between labels going to the nearest instance
+	 */
+	private static int bruteForce(double[] xs, double[] ys, int[] regions, int regionCount, int k, double x, double y) {
+		Integer[] order = new Integer[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Double.compare(
+				(xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y),
+				(xs[j] - x) * (xs[j] - x) + (ys[j] - y) * (ys[j] - y)));
+		int count = Math.min(k, xs.length);
+		int[] votes = new int[regionCount];
+		for (int n = 0; n < count; n++) {
+			votes[regions[order[n]]]++;
+		}
+		int best = -1;
+		for (int n = 0; n < count; n++) {
+			if (best < 0 || votes[regions[order[n]]] > votes[best]) {
+				best = regions[order[n]];
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Test of classify over a grid, of class NearestNeighborsKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. dense overlapping groups and sparse outliers, for several k
+	 * (same region as sorting every instance, wherever blocks are split or not)
+	 * 2. grid written at an offset with a stride, rows going down
+	 * (only the grid is written, at the right place)
+	 */
+	@Test
+	public void testClassifyGrid() {
+		System.out.println("classify grid");
+		Random random = new Random(21);
+		int size = 3000;
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		int[] regions = new int[size];
+		for (int i = 0; i < size; i++) {
+			regions[i] = i % 3;
+			double spread = i % 50 == 0 ? 20 : 1;
+			xs[i] = regions[i] * 1.5 + random.nextGaussian() * spread;
+			ys[i] = (regions[i] == 1 ? 2 : 0) + random.nextGaussian() * spread;
+		}
+		int columns = 70;
+		int rows = 45;
+		int stride = columns + 5;
+		int offset = 2 * stride + 3;
+		for (int k : new int[]{1, 4, 7}) {
+			NearestNeighborsKernel kernel = new NearestNeighborsKernel(xs, ys, regions, size, Arrays.asList("a", "b", "c"), k);
+			int[] target = new int[offset + rows * stride];
+			Arrays.fill(target, -7);
+			kernel.classify(-4, 6, 0.12, -0.2, columns, rows, target, offset, stride);
+			for (int p = 0; p < target.length; p++) {
+				int row = (p - offset) / stride;
+				int column = (p - offset) % stride;
+				if (p < offset || column >= columns) {
+					assertEquals(-7, target[p]);
+				} else {
+					double x = -4 + column * 0.12;
+					double y = 6 - row * 0.2;
+					assertEquals("k " + k + " at " + x + ", " + y, bruteForce(xs, ys, regions, 3, k, x, y), target[p]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test of classify of a single location, of class NearestNeighborsKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. majority of the k nearest (label of the majority, not of the nearest)
+	 * 2. tie between labels (label of the nearest of the tied instances)
+	 * 3. k larger than the number of instances (every instance votes)
+	 * 4. unlabelled instances left out (-1 without instances)
+	 */
+	@Test
+	public void testClassify() {
+		System.out.println("classify");
+		double[] xs = {0, 1, 1.2, 10};
+		double[] ys = {0, 0, 0, 0};
+		int[] regions = {0, 1, 1, 0};
+		NearestNeighborsKernel three = new NearestNeighborsKernel(xs, ys, regions, 4, Arrays.asList("a", "b"), 3);
+		assertEquals(1, three.classify(-0.5, 0));
+		assertEquals("b", three.getLabel(three.classify(-0.5, 0)));
+		NearestNeighborsKernel two = new NearestNeighborsKernel(xs, ys, regions, 4, Arrays.asList("a", "b"), 2);
+		assertEquals(0, two.classify(0.4, 0));
+		assertEquals(1, two.classify(0.6, 0));
+		NearestNeighborsKernel all = new NearestNeighborsKernel(xs, ys, new int[]{0, 0, 1, 1}, 4, Arrays.asList("a", "b"), 10);
+		assertEquals(1, all.classify(100, 0));
+		assertEquals(0, all.classify(-100, 0));
+
+		NearestNeighborsKernel empty = new NearestNeighborsKernel(new double[0], new double[0], NO_REGION, 0, Arrays.asList(), 3);
+		assertEquals(0, empty.getRegionCount());
+		assertEquals(-1, empty.classify(0, 0));
+	}
+}
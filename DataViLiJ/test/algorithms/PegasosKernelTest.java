@@ -0,0 +1,94 @@
+package algorithms;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Training of the Pegasos kernel.
+ *
+ * @author Neil Opena
+ */
+public class PegasosKernelTest {
+
+	public PegasosKernelTest() {
+	}
+
+	/**
+	 * Two groups on either side of the line x = 1000, 6 apart, far from the
+	 * origin and stretched along y, with every tenth instance unlabelled and
+	 * put on the wrong side
+	 */
+	private static double[][] groups(int size, long seed, byte[] classes) {
+		Random random = new Random(seed);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			boolean positive = i % 2 == 0;
+			boolean unlabelled = i % 10 == 9;
+			xs[i] = 1000 + (positive != unlabelled ? 1 : -1) * (3 + random.nextDouble());
+			ys[i] = 5000 + 100 * random.nextGaussian();
+			classes[i] = unlabelled ? BinaryClasses.UNLABELED
+					: positive ? BinaryClasses.POSITIVE : BinaryClasses.NEGATIVE;
+		}
+		return new double[][]{xs, ys};
+	}
+
+	/**
+	 * Test of iterate, of class PegasosKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. separable groups far from the origin (every labelled instance on its side)
+	 * 2. line in the original coordinates (crosses x near 1000, positive side to the right)
+	 * 3. margin (close to the half gap of 3 between the groups)
+	 * 4. hinge loss (falls from the first iteration)
+	 * 5. unlabelled instances on the wrong side (not trained on)
+	 */
+	@Test
+	public void testIterate() {
+		System.out.println("iterate");
+		int size = 100000;
+		byte[] classes = new byte[size];
+		double[][] coordinates = groups(size, 3, classes);
+		PegasosKernel kernel = new PegasosKernel(coordinates[0], coordinates[1], classes, size, 256, 1e-4, new Random(4));
+		assertEquals(size - size / 10, kernel.getCount());
+		assertTrue(kernel.iterate());
+		double firstLoss = kernel.getHingeLoss();
+		for (int iteration = 1; iteration < 20000; iteration++) {
+			assertTrue(kernel.iterate());
+		}
+		assertTrue(kernel.getHingeLoss() < firstLoss);
+
+		double a = kernel.getA();
+		double b = kernel.getB();
+		double c = kernel.getC();
+		for (int i = 0; i < size; i++) {
+			if (classes[i] != BinaryClasses.UNLABELED) {
+				double side = a * coordinates[0][i] + b * coordinates[1][i] + c;
+				assertEquals(classes[i] == BinaryClasses.POSITIVE, side > 0);
+			}
+		}
+		assertTrue(a > 0);
+		assertEquals(1000, -(b * 5000 + c) / a, 0.5);
+		assertEquals(3, kernel.getMargin(), 0.5);
+	}
+
+	/**
+	 * Test of iterate without labelled instances, of class PegasosKernel.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. only unlabelled instances (nothing to train on, no step)
+	 */
+	@Test
+	public void testIterateUnlabelled() {
+		System.out.println("iterate unlabelled");
+		byte[] classes = {BinaryClasses.UNLABELED, BinaryClasses.UNLABELED};
+		PegasosKernel kernel = new PegasosKernel(new double[]{1, 2}, new double[]{3, 4}, classes, 2, 16, 1e-4, new Random(1));
+		assertEquals(0, kernel.getCount());
+		assertFalse(kernel.iterate());
+	}
+}
@@ -0,0 +1,56 @@
+package algorithms;
+
+import data.Config;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Iterations shown to the user in the default and max throughput modes.
+ *
+ * @author Neil Opena
+ */
+public class RunPacerTest {
+
+	public RunPacerTest() {
+	}
+
+	/**
+	 * Test of showsIteration, updatesChart and pausesAfter, of class
+	 * RunPacer.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. default mode (every iteration shown, chart every interval)
+	 * 2. max throughput with a frame rate of 0 (iteration and chart every interval)
+	 * 3. max throughput at 1 frame per second, non continuous (chart updated before a pause, no frame right after it)
+	 */
+	@Test
+	public void testFrames() {
+		System.out.println("frames");
+		RunPacer paced = new RunPacer(new Config(10, 3, true));
+		assertTrue(paced.showsIteration(1));
+		assertFalse(paced.updatesChart(1));
+		assertTrue(paced.updatesChart(3));
+		assertFalse(paced.pausesAfter(3));
+
+		Config intervalConfig = new Config(10, 3, true);
+		intervalConfig.setMaxThroughput(true);
+		intervalConfig.setFrameRate(0);
+		RunPacer interval = new RunPacer(intervalConfig);
+		assertFalse(interval.showsIteration(1));
+		assertFalse(interval.updatesChart(2));
+		assertTrue(interval.showsIteration(3));
+		assertTrue(interval.updatesChart(3));
+
+		Config pausingConfig = new Config(10, 3, false);
+		pausingConfig.setMaxThroughput(true);
+		pausingConfig.setFrameRate(1);
+		RunPacer pausing = new RunPacer(pausingConfig);
+		assertFalse(pausing.updatesChart(1));
+		assertTrue(pausing.pausesAfter(3));
+		assertTrue(pausing.updatesChart(3));
+		assertFalse(pausing.updatesChart(4));
+	}
+
+}
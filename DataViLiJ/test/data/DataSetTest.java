@@ -0,0 +1,326 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Columns of the data set and the map views built over them.
+ *
+ * @author Neil Opena
+ */
+public class DataSetTest {
+
+	public DataSetTest() {
+	}
+
+	/**
+	 * Test of addInstance and the map views, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. more instances than the initial capacity (columns and name table grow)
+	 * 2. duplicate name (rejected, first instance kept)
+	 * 3. views iterate in insertion order and look up by name
+	 * 4. unknown name (null location, -1 index)
+	 */
+	@Test
+	public void testAddInstance() {
+		System.out.println("addInstance");
+		DataSet dataset = new DataSet();
+		int numInstances = 1000;
+		for (int i = 0; i < numInstances; i++) {
+			assertTrue(dataset.addInstance("@" + i, "label" + (i % 3), i, -i));
+		}
+		assertFalse(dataset.addInstance("@5", "other", 0, 0));
+
+		assertEquals(numInstances, dataset.size());
+		assertEquals(numInstances, dataset.getLocations().size());
+		assertEquals(Arrays.asList("@0", "@1", "@2"), new ArrayList<>(dataset.getLabels().keySet()).subList(0, 3));
+		assertEquals("label2", dataset.getLabels().get("@5"));
+		assertEquals(5, dataset.getLocations().get("@5").getX(), 0);
+		assertEquals(-5, dataset.getLocations().get("@5").getY(), 0);
+		assertEquals(999, dataset.indexOf("@999"));
+		assertEquals(-1, dataset.indexOf("@1000"));
+		assertNull(dataset.getLocations().get("@1000"));
+	}
+
+	/**
+	 * Test of changing labels, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. put on the labels view (current label changed, original label kept)
+	 * 2. updateLabel and setValue of an entry (same as put)
+	 * 3. put of a new name (unsupported)
+	 * 4. put on the original labels view (unsupported)
+	 */
+	@Test
+	public void testUpdateLabel() {
+		System.out.println("updateLabel");
+		DataSet dataset = new DataSet();
+		dataset.addInstance("@a", "label1", 1, 1);
+		dataset.addInstance("@b", "label1", 2, 2);
+
+		assertEquals("label1", dataset.getLabels().put("@a", "0"));
+		dataset.updateLabel("@b", "1");
+		assertEquals("0", dataset.getLabel(0));
+		assertEquals("1", dataset.getLabels().get("@b"));
+		assertEquals("label1", dataset.getOriginalLabels().get("@a"));
+
+		for (Map.Entry<String, String> entry : dataset.getLabels().entrySet()) {
+			entry.setValue("2");
+		}
+		assertEquals("2", dataset.getLabel(1));
+
+		try {
+			dataset.getLabels().put("@c", "0");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			dataset.getOriginalLabels().put("@a", "0");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(2, dataset.size());
+	}
+
+	/**
+	 * Test of the bounds kept while instances are added, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. empty data set (infinite bounds)
+	 * 2. negative and positive values, minimum added last
+	 * 3. median of the x values (estimated from the sketch)
+	 */
+	@Test
+	public void testBounds() {
+		System.out.println("bounds");
+		DataSet dataset = new DataSet();
+		assertEquals(Double.POSITIVE_INFINITY, dataset.getMinX(), 0);
+		assertEquals(Double.NEGATIVE_INFINITY, dataset.getMaxY(), 0);
+
+		dataset.addInstance("@a", "label", 3, -2);
+		dataset.addInstance("@b", "label", 7.5, 4);
+		dataset.addInstance("@c", "label", -1, 1);
+		assertEquals(-1, dataset.getMinX(), 0);
+		assertEquals(7.5, dataset.getMaxX(), 0);
+		assertEquals(-2, dataset.getMinY(), 0);
+		assertEquals(4, dataset.getMaxY(), 0);
+		assertEquals(3, dataset.getXQuantile(0.5), 0);
+	}
+
+	/**
+	 * Test of getSpatialIndex, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. two calls without changes (same index, built once)
+	 * 2. label changed (index kept, labels do not move instances)
+	 * 3. instance added (new index that finds it)
+	 */
+	@Test
+	public void testGetSpatialIndex() {
+		System.out.println("getSpatialIndex");
+		DataSet dataset = new DataSet();
+		dataset.addInstance("@a", "label", 0, 0);
+		dataset.addInstance("@b", "label", 10, 10);
+		SpatialIndex index = dataset.getSpatialIndex();
+		assertTrue(index == dataset.getSpatialIndex());
+		assertEquals(1, index.nearest(9, 9));
+
+		dataset.updateLabel("@a", "other");
+		assertTrue(index == dataset.getSpatialIndex());
+
+		dataset.addInstance("@c", "label", 8, 8);
+		SpatialIndex rebuilt = dataset.getSpatialIndex();
+		assertFalse(index == rebuilt);
+		assertEquals(3, rebuilt.size());
+		assertEquals(2, rebuilt.nearest(9, 8.5));
+	}
+
+	/**
+	 * Test of publishLabels and takeLabels, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. nothing published (null)
+	 * 2. labels published, changed, then taken (the published copy)
+	 * 3. taken twice (null the second time, nothing new)
+	 * 4. published twice before being taken (the latest)
+	 * 5. many publications (no more than three snapshots ever used)
+	 */
+	@Test
+	public void testPublishLabels() {
+		System.out.println("publishLabels");
+		DataSet dataset = new DataSet();
+		dataset.addInstance("@a", "red", 0, 0);
+		dataset.addInstance("@b", "blue", 1, 1);
+		assertNull(dataset.takeLabels());
+
+		dataset.publishLabels(1);
+		dataset.setLabel(0, "green");
+		LabelSnapshot taken = dataset.takeLabels();
+		assertEquals(1, taken.getStamp());
+		assertEquals(2, taken.size());
+		assertEquals("red", taken.getLabel(0));
+		assertEquals("blue", taken.getLabel(1));
+		assertNull(dataset.takeLabels());
+
+		dataset.publishLabels(2);
+		dataset.setLabel(1, "green");
+		dataset.publishLabels(3);
+		taken = dataset.takeLabels();
+		assertEquals(3, taken.getStamp());
+		assertEquals("green", taken.getLabel(0));
+		assertEquals("green", taken.getLabel(1));
+
+		Set<LabelSnapshot> used = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (int stamp = 4; stamp < 100; stamp++) {
+			dataset.publishLabels(stamp);
+			if (stamp % 3 == 0) {
+				used.add(dataset.takeLabels());
+			}
+		}
+		assertTrue(used.size() <= 3);
+	}
+
+	/**
+	 * Test of publishLabels and takeLabels from two threads, of class
+	 * DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. every label changed at once between publications (every snapshot
+	 * taken holds a single label, never a mix of two publications)
+	 * 2. stamps taken (increasing, the reader never goes back)
+	 */
+	@Test
+	public void testPublishLabelsConcurrently() throws InterruptedException {
+		System.out.println("publishLabels concurrently");
+		DataSet dataset = new DataSet();
+		int size = 10000;
+		for (int i = 0; i < size; i++) {
+			dataset.addInstance("@" + i, "0", i, i);
+		}
+		int publications = 2000;
+		String[] labels = {"0", "1"};
+		int[] assignments = new int[size];
+		Thread writer = new Thread(() -> {
+			for (int stamp = 1; stamp <= publications; stamp++) {
+				Arrays.fill(assignments, stamp % 2);
+				dataset.setLabels(assignments, labels);
+				dataset.publishLabels(stamp);
+			}
+		});
+		writer.start();
+		int lastStamp = 0;
+		while (lastStamp < publications) {
+			boolean writing = writer.isAlive();
+			LabelSnapshot taken = dataset.takeLabels();
+			if (taken == null) {
+				assertTrue("the last labels were never published", writing);
+				continue;
+			}
+			assertTrue(taken.getStamp() > lastStamp);
+			lastStamp = taken.getStamp();
+			String expected = labels[lastStamp % 2];
+			for (int i = 0; i < size; i++) {
+				assertEquals(expected, taken.getLabel(i));
+			}
+		}
+		writer.join();
+	}
+
+	/**
+	 * Test of getLabelVersion and getChangedSince, of class DataSet.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. label set to the label it already has (not a change)
+	 * 2. labels changed through setLabel, updateLabel, the label map and
+	 * setLabels (every changed instance once, in increasing order)
+	 * 3. current version (nothing changed since)
+	 * 4. instance added (older changes forgotten, null)
+	 * 5. more changes than twice the size (oldest changes forgotten, null)
+	 */
+	@Test
+	public void testGetChangedSince() {
+		System.out.println("getChangedSince");
+		DataSet dataset = new DataSet();
+		for (int i = 0; i < 10; i++) {
+			dataset.addInstance("@" + i, "a", i, i);
+		}
+		long start = dataset.getLabelVersion();
+		dataset.setLabel(3, "a");
+		assertEquals(start, dataset.getLabelVersion());
+
+		dataset.setLabel(7, "b");
+		dataset.updateLabel("@2", "b");
+		dataset.getLabels().put("@7", "c");
+		long middle = dataset.getLabelVersion();
+		int[] assignments = new int[10];
+		assignments[9] = 1;
+		dataset.setLabels(assignments, new String[]{"a", "b"});
+		assertArrayEquals(new int[]{2, 7, 9}, dataset.getChangedSince(start));
+		assertArrayEquals(new int[]{2, 7, 9}, dataset.getChangedSince(middle));
+		assertArrayEquals(new int[0], dataset.getChangedSince(dataset.getLabelVersion()));
+
+		long beforeAdding = dataset.getLabelVersion();
+		dataset.addInstance("@10", "a", 10, 10);
+		assertNull(dataset.getChangedSince(beforeAdding));
+
+		long beforeFlipping = dataset.getLabelVersion();
+		for (int flip = 0; flip < 30; flip++) {
+			dataset.setLabel(0, flip % 2 == 0 ? "b" : "a");
+		}
+		assertNull(dataset.getChangedSince(beforeFlipping));
+		long recent = dataset.getLabelVersion();
+		dataset.setLabel(5, "c");
+		assertArrayEquals(new int[]{5}, dataset.getChangedSince(recent));
+	}
+
+	/**
+	 * Test of getChangedSince, of class LabelSnapshot.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. first snapshot taken (any instance may differ, null)
+	 * 2. snapshot after another was taken (the instances changed in between)
+	 * 3. version of the snapshot itself (nothing)
+	 */
+	@Test
+	public void testSnapshotChangedSince() {
+		System.out.println("snapshot getChangedSince");
+		DataSet dataset = new DataSet();
+		for (int i = 0; i < 10; i++) {
+			dataset.addInstance("@" + i, "a", i, i);
+		}
+		dataset.publishLabels(1);
+		LabelSnapshot first = dataset.takeLabels();
+		assertNull(first.getChangedSince(-1));
+		long firstVersion = first.getLabelVersion();
+
+		dataset.setLabel(4, "b");
+		dataset.setLabel(1, "b");
+		dataset.publishLabels(2);
+		LabelSnapshot second = dataset.takeLabels();
+		assertArrayEquals(new int[]{1, 4}, second.getChangedSince(firstVersion));
+		assertEquals("b", second.getLabel(4));
+		assertEquals("a", second.getLabel(5));
+		assertArrayEquals(new int[0], second.getChangedSince(second.getLabelVersion()));
+	}
+
+}
@@ -0,0 +1,62 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Quantiles estimated by the streaming sketch, compared with the exact
+ * quantiles of the same values.
+ *
+ * @author Neil Opena
+ */
+public class QuantileSketchTest {
+
+	public QuantileSketchTest() {
+	}
+
+	/**
+	 * Test of getQuantile, of class QuantileSketch.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. fewer values than the capacity (exact quantiles)
+	 * 2. 100000 shuffled values (several levels, estimate within 1% of the rank)
+	 * 3. a few huge outliers (the 1st and 99th percentiles leave them out)
+	 * 4. 0 and 1 (exact minimum and maximum)
+	 */
+	@Test
+	public void testGetQuantile() {
+		System.out.println("getQuantile");
+		QuantileSketch small = new QuantileSketch();
+		for (int i = 100; i > 0; i--) {
+			small.add(i);
+		}
+		assertEquals(50, small.getQuantile(0.5), 0);
+		assertEquals(90, small.getQuantile(0.9), 0);
+
+		int numValues = 100000;
+		List<Double> values = new ArrayList<>();
+		for (int i = 0; i < numValues; i++) {
+			values.add((double) i);
+		}
+		values.add(-1e12);
+		values.add(1e12);
+		Collections.shuffle(values, new Random(7));
+		QuantileSketch sketch = new QuantileSketch();
+		values.forEach(sketch::add);
+
+		assertEquals(numValues + 2, sketch.getCount());
+		for (double fraction : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+			assertEquals(fraction * numValues, sketch.getQuantile(fraction), 0.01 * numValues);
+		}
+		assertTrue(sketch.getQuantile(0.99) < numValues);
+		assertEquals(-1e12, sketch.getQuantile(0), 0);
+		assertEquals(1e12, sketch.getQuantile(1), 0);
+	}
+
+}
@@ -0,0 +1,229 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Lookups in the grid index over instance locations.
+ *
+ * @author Neil Opena
+ */
+public class SpatialIndexTest {
+
+	public SpatialIndexTest() {
+	}
+
+	private static double[][] randomInstances(long seed, int size) {
+		Random random = new Random(seed);
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = random.nextGaussian() * 100;
+			ys[i] = random.nextDouble() * 10;
+		}
+		return new double[][]{xs, ys};
+	}
+
+	private static double squaredDistance(double[] xs, double[] ys, int i, double x, double y) {
+		return (xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y);
+	}
+
+	/**
+	 * Test of nearest, of class SpatialIndex.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. location close to an instance (that instance)
+	 * 2. location between two instances (the closer one)
+	 * 3. nothing within the radii (-1)
+	 * 4. radii scaled differently along each axis (distance measured in radii)
+	 * 5. NaN instance (not indexed)
+	 * 6. random instances (same result as a linear scan)
+	 */
+	@Test
+	public void testNearest() {
+		System.out.println("nearest");
+		double[] xs = {0, 10, 10, 100, Double.NaN};
+		double[] ys = {0, 0, 10, 0, 5};
+		SpatialIndex index = new SpatialIndex(xs, ys, xs.length);
+		assertEquals(0, index.nearest(0.5, 0.5, 2, 2));
+		assertEquals(1, index.nearest(8, 3, 5, 5));
+		assertEquals(-1, index.nearest(50, 50, 5, 5));
+		//2 is 9 away along y, 1 is 2 away along x; 1 is closer in radii
+		assertEquals(1, index.nearest(8, 1, 3, 30));
+		//with a small y radius, 1 is out of reach and so is 2
+		assertEquals(-1, index.nearest(10, 5, 1, 1));
+
+		Random random = new Random(7);
+		int size = 5000;
+		double[] randomXs = new double[size];
+		double[] randomYs = new double[size];
+		for (int i = 0; i < size; i++) {
+			randomXs[i] = random.nextGaussian() * 100;
+			randomYs[i] = random.nextDouble() * 10;
+		}
+		SpatialIndex randomIndex = new SpatialIndex(randomXs, randomYs, size);
+		for (int q = 0; q < 200; q++) {
+			double x = random.nextGaussian() * 100;
+			double y = random.nextDouble() * 10;
+			int expected = -1;
+			double best = 1;
+			for (int i = 0; i < size; i++) {
+				double dx = (randomXs[i] - x) / 4;
+				double dy = (randomYs[i] - y) / 0.5;
+				if (dx * dx + dy * dy <= best) {
+					best = dx * dx + dy * dy;
+					expected = i;
+				}
+			}
+			int found = randomIndex.nearest(x, y, 4, 0.5);
+			if (expected < 0) {
+				assertEquals(-1, found);
+			} else {
+				double dx = (randomXs[found] - x) / 4;
+				double dy = (randomYs[found] - y) / 0.5;
+				assertEquals(best, dx * dx + dy * dy, 0);
+			}
+		}
+	}
+
+	/**
+	 * Test of nearest with a number of instances, of class SpatialIndex.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. single nearest instance (the closest one, even far from every instance)
+	 * 2. more instances asked than indexed (all of them, nearest first)
+	 * 3. random instances and locations (same distances as sorting them all)
+	 */
+	@Test
+	public void testNearestK() {
+		System.out.println("nearest k");
+		double[] xs = {0, 10, 10, 100, Double.NaN};
+		double[] ys = {0, 0, 10, 0, 5};
+		SpatialIndex index = new SpatialIndex(xs, ys, xs.length);
+		assertEquals(2, index.nearest(12, 9));
+		assertEquals(3, index.nearest(1000, -1000));
+		assertArrayEquals(new int[]{1, 2, 0, 3}, index.nearest(11, 4, 10));
+
+		double[][] instances = randomInstances(11, 5000);
+		double[] randomXs = instances[0];
+		double[] randomYs = instances[1];
+		SpatialIndex randomIndex = new SpatialIndex(randomXs, randomYs, randomXs.length);
+		Random random = new Random(12);
+		for (int q = 0; q < 100; q++) {
+			double x = random.nextGaussian() * 150;
+			double y = random.nextDouble() * 20 - 5;
+			double[] expected = new double[randomXs.length];
+			for (int i = 0; i < randomXs.length; i++) {
+				expected[i] = squaredDistance(randomXs, randomYs, i, x, y);
+			}
+			Arrays.sort(expected);
+			int[] found = randomIndex.nearest(x, y, 7);
+			assertEquals(7, found.length);
+			for (int n = 0; n < found.length; n++) {
+				assertEquals(expected[n], squaredDistance(randomXs, randomYs, found[n], x, y), 0);
+			}
+		}
+	}
+
+	/**
+	 * Test of nearest into arrays of the caller, of class SpatialIndex.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. no instance indexed (none found)
+	 * 2. arrays longer than k (only the first k entries written)
+	 * 3. fine and coarse grids, locations inside and outside of the grid
+	 * (same distances as sorting them all, whatever the number of instances per cell)
+	 */
+	@Test
+	public void testNearestIntoArrays() {
+		System.out.println("nearest into arrays");
+		int[] nearest = new int[10];
+		double[] distances = new double[10];
+		assertEquals(0, new SpatialIndex(new double[0], new double[0], 0).nearest(1, 1, 3, nearest, distances));
+
+		double[][] instances = randomInstances(13, 3000);
+		double[] xs = instances[0];
+		double[] ys = instances[1];
+		for (double instancesPerCell : new double[]{0.25, 1, 16}) {
+			SpatialIndex index = new SpatialIndex(xs, ys, xs.length, instancesPerCell);
+			Random random = new Random(14);
+			for (int q = 0; q < 100; q++) {
+				double x = random.nextGaussian() * 150;
+				double y = random.nextDouble() * 20 - 5;
+				double[] expected = new double[xs.length];
+				for (int i = 0; i < xs.length; i++) {
+					expected[i] = squaredDistance(xs, ys, i, x, y);
+				}
+				Arrays.sort(expected);
+				Arrays.fill(nearest, -1);
+				assertEquals(5, index.nearest(x, y, 5, nearest, distances));
+				for (int n = 0; n < 5; n++) {
+					assertEquals(expected[n], distances[n], 0);
+					assertEquals(expected[n], squaredDistance(xs, ys, nearest[n], x, y), 0);
+				}
+				assertEquals(-1, nearest[5]);
+			}
+		}
+	}
+
+	/**
+	 * Test of withinRadius and inBox, of class SpatialIndex.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. radius of 0 (the instances at the exact same location, duplicates)
+	 * 2. box with an instance on its edge (edges are inclusive)
+	 * 3. empty box (no instance)
+	 * 4. random instances (same instances as a linear scan)
+	 */
+	@Test
+	public void testWithinRadiusAndInBox() {
+		System.out.println("withinRadius and inBox");
+		double[] xs = {1, 2, 1, 5, 1};
+		double[] ys = {1, 2, 1, 5, 1.5};
+		SpatialIndex index = new SpatialIndex(xs, ys, xs.length);
+		int[] duplicates = index.withinRadius(1, 1, 0);
+		Arrays.sort(duplicates);
+		assertArrayEquals(new int[]{0, 2}, duplicates);
+		int[] boxed = index.inBox(1, 1.5, 2, 2);
+		Arrays.sort(boxed);
+		assertArrayEquals(new int[]{1, 4}, boxed);
+		assertEquals(0, index.inBox(3, 3, 2, 2).length);
+
+		double[][] instances = randomInstances(13, 5000);
+		double[] randomXs = instances[0];
+		double[] randomYs = instances[1];
+		SpatialIndex randomIndex = new SpatialIndex(randomXs, randomYs, randomXs.length);
+		Random random = new Random(14);
+		for (int q = 0; q < 100; q++) {
+			double x = random.nextGaussian() * 100;
+			double y = random.nextDouble() * 10;
+			double radius = random.nextDouble() * 5;
+			int[] expectedNear = new int[randomXs.length];
+			int[] expectedBoxed = new int[randomXs.length];
+			int near = 0;
+			int inBox = 0;
+			for (int i = 0; i < randomXs.length; i++) {
+				if (squaredDistance(randomXs, randomYs, i, x, y) <= radius * radius) {
+					expectedNear[near++] = i;
+				}
+				if (Math.abs(randomXs[i] - x) <= radius && Math.abs(randomYs[i] - y) <= radius / 4) {
+					expectedBoxed[inBox++] = i;
+				}
+			}
+			int[] found = randomIndex.withinRadius(x, y, radius);
+			Arrays.sort(found);
+			assertArrayEquals(Arrays.copyOf(expectedNear, near), found);
+			found = randomIndex.inBox(x - radius, y - radius / 4, x + radius, y + radius / 4);
+			Arrays.sort(found);
+			assertArrayEquals(Arrays.copyOf(expectedBoxed, inBox), found);
+		}
+	}
+
+}
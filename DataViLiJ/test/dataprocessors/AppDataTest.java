@@ -9,7 +9,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import javafx.scene.chart.XYChart;
+import javafx.scene.layout.StackPane;
 import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -59,5 +64,32 @@ public class AppDataTest {
 		assertTrue(newData.toString().contains(toSave));
 
 	}
+
+	/**
+	 * Test of clearSeriesStyle, of class AppData.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. symbol of a point moved from the first to the third series, styled
+	 * again by the chart (only the classes of the third series left)
+	 * 2. class not given by the chart (kept)
+	 * 3. point without a symbol yet (nothing to do)
+	 */
+	@Test
+	public void testClearSeriesStyle() {
+		System.out.println("clearSeriesStyle");
+		XYChart.Data<Number, Number> point = new XYChart.Data<>(1, 2);
+		point.setNode(new StackPane());
+		point.getNode().getStyleClass().addAll("chart-line-symbol", "series0", "data12", "default-color0", "selected");
+
+		AppData.clearSeriesStyle(point);
+		//what the chart adds to a symbol it reuses
+		point.getNode().getStyleClass().addAll("chart-line-symbol", "series2", "data3", "default-color2");
+		assertEquals(Arrays.asList("selected", "chart-line-symbol", "series2", "data3", "default-color2"), point.getNode().getStyleClass());
+
+		XYChart.Data<Number, Number> unstyled = new XYChart.Data<>(3, 4);
+		AppData.clearSeriesStyle(unstyled);
+		assertNull(unstyled.getNode());
+	}
 	
 }
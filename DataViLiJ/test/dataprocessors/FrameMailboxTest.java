@@ -0,0 +1,47 @@
+package dataprocessors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Only the latest posted state is taken, the replaced ones are counted.
+ *
+ * @author Neil Opena
+ */
+public class FrameMailboxTest {
+
+	public FrameMailboxTest() {
+	}
+
+	/**
+	 * Test of post and poll, of class FrameMailbox.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. empty mailbox (nothing to take)
+	 * 2. three states posted before a poll (latest taken, two dropped)
+	 * 3. poll right after a poll (slot emptied)
+	 * 4. clear (slot emptied and count reset)
+	 */
+	@Test
+	public void testPostPoll() {
+		System.out.println("postPoll");
+		FrameMailbox<Integer> mailbox = new FrameMailbox<>();
+		assertNull(mailbox.poll());
+
+		mailbox.post(1);
+		mailbox.post(2);
+		mailbox.post(3);
+		assertEquals(Integer.valueOf(3), mailbox.poll());
+		assertEquals(2, mailbox.getDroppedCount());
+		assertNull(mailbox.poll());
+
+		mailbox.post(4);
+		assertEquals(2, mailbox.getDroppedCount());
+		mailbox.clear();
+		assertNull(mailbox.poll());
+		assertEquals(0, mailbox.getDroppedCount());
+	}
+
+}
@@ -0,0 +1,159 @@
+package dataprocessors;
+
+import data.DataSet;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Parsing of tsd lines straight from bytes. The values must be the same as
+ * the ones produced by {@link Double#parseDouble(String)} and the invalid
+ * lines must be reported with their line number.
+ *
+ * @author Neil Opena
+ */
+public class TSDParserTest {
+
+	public TSDParserTest() {
+	}
+
+	private int parse(String text, TSDParser parser) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		return parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, 1);
+	}
+
+	/**
+	 * Test of the parsed coordinates, of class TSDParser.
+	 *
+	 * Numbers tested and reason:
+	 *
+	 * 1. "1", "-0", "3.12", "+4.15" (Standard cases - fast path)
+	 * 2. "1e5", "2.5E-3" (Exponents)
+	 * 3. " 7.25 " (Surrounding whitespace, accepted by Double.parseDouble)
+	 * 4. "123456789012345678", "0.1234567890123456789" (Too many digits for the fast path)
+	 * 5. "1.7976931348623157E308", "4.9e-324" (Boundary values)
+	 * 6. "0x1p3", "NaN", "1d" (Other forms accepted by Double.parseDouble)
+	 */
+	@Test
+	public void testParseDouble() {
+		System.out.println("parseDouble");
+		String[] numbers = {"1", "-0", "3.12", "+4.15", "1e5", "2.5E-3", " 7.25 ", "123456789012345678",
+			"0.1234567890123456789", "1.7976931348623157E308", "4.9e-324", "0x1p3", "NaN", "1d"};
+
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < numbers.length; i++) {
+			text.append("@").append(i).append("\tlabel\t").append(numbers[i]).append(",").append(numbers[numbers.length - 1 - i]).append("\n");
+		}
+		DataSet dataset = new DataSet();
+		TSDParser parser = new TSDParser(dataset);
+		assertEquals(numbers.length + 1, parse(text.toString(), parser));
+
+		for (int i = 0; i < numbers.length; i++) {
+			double x = Double.parseDouble(numbers[i]);
+			double y = Double.parseDouble(numbers[numbers.length - 1 - i]);
+			assertEquals(Double.doubleToRawLongBits(x), Double.doubleToRawLongBits(dataset.getLocations().get("@" + i).getX()));
+			assertEquals(Double.doubleToRawLongBits(y), Double.doubleToRawLongBits(dataset.getLocations().get("@" + i).getY()));
+		}
+	}
+
+	/**
+	 * Test of the reported invalid line, of class TSDParser.
+	 *
+	 * Texts tested and reason:
+	 *
+	 * 1. second line has a non-numerical location
+	 * 2. third line has a name without '@'
+	 * 3. second line repeats the first name
+	 * 4. second line is empty
+	 */
+	@Test
+	public void testInvalidLine() {
+		System.out.println("invalidLine");
+		String[] texts = {
+			"@a\tlabel1\t1,1\n@b\tlabel1\tx,y\n",
+			"@a\tlabel1\t1,1\n@b\tlabel1\t1,1\nc\tlabel1\t1,1\n",
+			"@a\tlabel1\t1,1\n@a\tlabel1\t2,2\n",
+			"@a\tlabel1\t1,1\n\n@b\tlabel1\t2,2\n"};
+		int[] lines = {2, 3, 2, 2};
+		String[] messages = {"", new TSDProcessor.InvalidDataNameException("c").getMessage(),
+			new TSDProcessor.DuplicateNameException("@a").getMessage(), new TSDProcessor.InvalidDataNameException("").getMessage()};
+
+		for (int i = 0; i < texts.length; i++) {
+			TSDParser parser = new TSDParser(new DataSet());
+			assertEquals(-1, parse(texts[i], parser));
+			assertEquals(lines[i], parser.getErrorLine());
+			assertEquals(messages[i], parser.getErrorMessage());
+		}
+	}
+
+	/**
+	 * Test of trimEmptyLines, of class TSDParser.
+	 *
+	 * Texts tested and reason:
+	 *
+	 * 1. line followed by empty lines (pressing Enter at the end of the
+	 * text area, the empty lines are left out and the line is accepted)
+	 * 2. windows line endings (the empty lines are left out as well)
+	 * 3. no empty line at the end (nothing left out)
+	 * 4. only empty lines (no data left)
+	 */
+	@Test
+	public void testTrimEmptyLines() {
+		System.out.println("trimEmptyLines");
+		String[] texts = {"@a\tlabel1\t1,1\n\n\n", "@a\tlabel1\t1,1\r\n\r\n", "@a\tlabel1\t1,1", "\n\n"};
+		int[] ends = {13, 13, 13, 0};
+		for (int i = 0; i < texts.length; i++) {
+			ByteBuffer buffer = ByteBuffer.wrap(texts[i].getBytes(StandardCharsets.UTF_8));
+			int end = TSDParser.trimEmptyLines(buffer, 0, buffer.limit());
+			assertEquals(ends[i], end);
+			if (end > 0) {
+				DataSet dataset = new DataSet();
+				assertEquals(2, new TSDParser(dataset).parse(buffer, 0, end, 1));
+				assertEquals(1, dataset.size());
+			}
+		}
+	}
+
+	/**
+	 * Test of the first reported error when the data is split into several
+	 * chunks, of class TSDParser. The result must be the one of a
+	 * sequential parse.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. duplicate of the first name in a later chunk, followed by an invalid line (duplicate reported)
+	 * 2. invalid line in the first chunk, followed by a duplicate (invalid line reported)
+	 * 3. no error (every line added in file order)
+	 */
+	@Test
+	public void testChunkedParse() {
+		System.out.println("chunkedParse");
+		int numLines = 3 * TSDParser.CHUNK_SIZE / 20;
+		int[][] errors = {{numLines - 10, numLines - 5}, {numLines - 5, 7}, {-1, -1}};
+		for (int[] error : errors) {
+			StringBuilder text = new StringBuilder();
+			for (int line = 1; line <= numLines; line++) {
+				if (line == error[0]) {
+					text.append("@1\tlabel\t1,1\n");
+				} else if (line == error[1]) {
+					text.append("@").append(line).append("\tlabel\t1\n");
+				} else {
+					text.append("@").append(line).append("\tlabel\t").append(line).append(",1\n");
+				}
+			}
+			DataSet dataset = new DataSet();
+			TSDParser parser = new TSDParser(dataset);
+			int result = parse(text.toString(), parser);
+			if (error[0] < 0) {
+				assertEquals(numLines + 1, result);
+				assertEquals(numLines, dataset.getLocations().size());
+				assertEquals("@" + numLines, dataset.getLocations().keySet().stream().reduce((a, b) -> b).get());
+			} else {
+				assertEquals(-1, result);
+				assertEquals(Math.min(error[0], error[1]), parser.getErrorLine());
+			}
+		}
+	}
+
+}
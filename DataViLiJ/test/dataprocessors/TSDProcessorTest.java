@@ -5,6 +5,12 @@
  */
 package dataprocessors;
 
+import data.DataSet;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 /**
@@ -80,4 +86,31 @@ public class TSDProcessorTest {
 		instance.processString(tsdString);
 	}
 
+	/**
+	 * Test of processFile method, of class TSDProcessor.
+	 * A whole file is validated and loaded in one pass.
+	 *
+	 * Files tested and reason:
+	 *
+	 * 1. large-num.tsd (Standard case - every line becomes an instance, first ten lines kept)
+	 * 2. invalid-duplicate.tsd (Duplicate instance name on line 5)
+	 */
+	@Test
+	public void testProcessFile() throws Exception {
+		System.out.println("processFile");
+		TSDProcessor instance = new TSDProcessor();
+		Path dataDirectory = Paths.get(".").toAbsolutePath().resolve("data-vilij/resources/data");
+
+		DataSet dataset = instance.processFile(dataDirectory.resolve("large-num.tsd"));
+		assertEquals(54, dataset.getLocations().size());
+		assertEquals(TSDProcessor.PREVIEW_LINES, instance.getPreview().split("\n").length);
+
+		try {
+			instance.processFile(dataDirectory.resolve("invalid-duplicate.tsd"));
+			fail("duplicate name was not detected");
+		} catch (Exception e) {
+			assertTrue(e.getMessage().endsWith("5: Duplicate name = @Instance4"));
+		}
+	}
+
 }
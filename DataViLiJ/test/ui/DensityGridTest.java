@@ -0,0 +1,69 @@
+package ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Density of the points drawn by the canvas chart for very large data sets.
+ *
+ * @author Neil Opena
+ */
+public class DensityGridTest {
+
+	private static final int RED = 0xffff0000;
+	private static final int BLUE = 0xff0000ff;
+
+	public DensityGridTest() {
+	}
+
+	private static int pixel(DensityGrid grid, int x, int y) {
+		return grid.getPixels()[y * grid.getWidth() + x];
+	}
+
+	/**
+	 * Test of update, of class DensityGrid.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. first update (every bin drawn, densest bin opaque, colors mixed by count)
+	 * 2. update with one point changing group (only its bin drawn again)
+	 * 3. update with nothing changed (no bin drawn)
+	 * 4. update with new bounds (every bin drawn again)
+	 */
+	@Test
+	public void testUpdate() {
+		System.out.println("update");
+		DensityGrid grid = new DensityGrid();
+		//3 points in the top left bin, 1 in the bottom right bin of a 10 by 10 picture
+		double[] xs = {0.1, 0.1, 0.1, 9.9};
+		double[] ys = {9.9, 9.9, 9.9, 0.1};
+		int[] groups = {0, 0, 1, 1};
+		int[] colors = {RED, BLUE};
+		grid.update(xs, ys, groups, colors, 4, 10, 10, 0, 10, 0, 10);
+		int bins = (10 / DensityGrid.BIN_SIZE) * (10 / DensityGrid.BIN_SIZE);
+		assertEquals(bins, grid.getLastDrawnBins());
+
+		int mixed = pixel(grid, 0, 0);
+		assertEquals(255, mixed >>> 24);
+		assertEquals(0xff * 2 / 3, (mixed >> 16) & 0xff);
+		assertEquals(0xff / 3, mixed & 0xff);
+		int single = pixel(grid, 9, 9);
+		assertTrue((single >>> 24) < 255);
+		assertEquals(0x0000ff, single & 0xffffff);
+		assertEquals(0, pixel(grid, 5, 5));
+
+		groups[3] = 0;
+		grid.update(xs, ys, groups, colors, 4, 10, 10, 0, 10, 0, 10);
+		assertEquals(1, grid.getLastDrawnBins());
+		assertEquals(0xff0000, pixel(grid, 9, 9) & 0xffffff);
+		assertEquals(mixed, pixel(grid, 0, 0));
+
+		grid.update(xs, ys, groups, colors, 4, 10, 10, 0, 10, 0, 10);
+		assertEquals(0, grid.getLastDrawnBins());
+
+		grid.update(xs, ys, groups, colors, 4, 10, 10, 0, 20, 0, 20);
+		assertEquals(bins, grid.getLastDrawnBins());
+	}
+
+}
@@ -0,0 +1,55 @@
+package ui;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Points drawn into the pixel buffer of the canvas chart.
+ *
+ * @author Neil Opena
+ */
+public class PointRasterTest {
+
+	private static final int RED = 0xffff0000;
+	private static final int BLUE = 0xff0000ff;
+
+	public PointRasterTest() {
+	}
+
+	private static int pixel(PointRaster raster, int x, int y) {
+		return raster.getPixels()[y * raster.getWidth() + x];
+	}
+
+	/**
+	 * Test of draw, of class PointRaster.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. point at the center of the bounds (square around the center pixel)
+	 * 2. point at the top left corner (clipped square, y axis pointing up)
+	 * 3. point far outside of the bounds and NaN point (not drawn)
+	 * 4. reset (buffer cleared)
+	 */
+	@Test
+	public void testDraw() {
+		System.out.println("draw");
+		PointRaster raster = new PointRaster();
+		raster.reset(20, 10);
+		double[] xs = {5, 0, 100, Double.NaN};
+		double[] ys = {5, 10, 100, 0};
+		int[] groups = {0, 1, 0, 0};
+		int[] colors = {RED, BLUE};
+		raster.draw(xs, ys, groups, colors, 4, 0, 10, 0, 10);
+
+		assertEquals(RED, pixel(raster, 10, 5));
+		assertEquals(RED, pixel(raster, 10 - PointRaster.POINT_RADIUS, 5 + PointRaster.POINT_RADIUS));
+		assertEquals(0, pixel(raster, 10 + PointRaster.POINT_RADIUS + 1, 5));
+		assertEquals(BLUE, pixel(raster, 0, 0));
+		assertEquals(BLUE, pixel(raster, PointRaster.POINT_RADIUS, PointRaster.POINT_RADIUS));
+		assertEquals(0, pixel(raster, 19, 9));
+
+		raster.reset(20, 10);
+		assertEquals(0, pixel(raster, 10, 5));
+	}
+
+}
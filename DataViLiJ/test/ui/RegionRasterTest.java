@@ -0,0 +1,82 @@
+package ui;
+
+import algorithms.DecisionRegions;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Regions of a classifier drawn into the pixel buffer of the canvas chart.
+ *
+ * @author Neil Opena
+ */
+public class RegionRasterTest {
+
+	private static final int RED = 0x40ff0000;
+	private static final int BLUE = 0x400000ff;
+
+	public RegionRasterTest() {
+	}
+
+	/**
+	 * Left half plane red, bottom right quarter blue, nothing in the top
+	 * right quarter
+	 */
+	private static final class Quarters implements DecisionRegions {
+
+		@Override
+		public int getRegionCount() {
+			return 2;
+		}
+
+		@Override
+		public String getLabel(int region) {
+			return region == 0 ? "left" : "bottom";
+		}
+
+		@Override
+		public void classify(double xStart, double yStart, double xStep, double yStep, int columns, int rows, int[] target, int offset, int stride) {
+			for (int row = 0; row < rows; row++) {
+				for (int column = 0; column < columns; column++) {
+					double x = xStart + column * xStep;
+					double y = yStart + row * yStep;
+					target[offset + row * stride + column] = x < 0 ? 0 : y < 0 ? 1 : -1;
+				}
+			}
+		}
+	}
+
+	private static int pixel(RegionRaster raster, int x, int y) {
+		return raster.getPixels()[y * raster.getWidth() + x];
+	}
+
+	/**
+	 * Test of draw, of class RegionRaster.
+	 *
+	 * Cases tested and reason:
+	 *
+	 * 1. plot larger than a tile and not a multiple of it (every pixel classified at its center)
+	 * 2. location without a region (transparent)
+	 * 3. smaller plot in the same buffer (buffer reused, laid out at the new width)
+	 */
+	@Test
+	public void testDraw() {
+		System.out.println("draw");
+		RegionRaster raster = new RegionRaster();
+		int width = 2 * RegionRaster.TILE_SIZE + 22;
+		int height = RegionRaster.TILE_SIZE + 9;
+		raster.draw(new Quarters(), new int[]{RED, BLUE}, width, height, -width / 2.0, width / 2.0, -height, 0);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int expected = x < width / 2 ? RED : BLUE;
+				assertEquals(x + ", " + y, expected, pixel(raster, x, y));
+			}
+		}
+
+		raster.draw(new Quarters(), new int[]{RED, BLUE}, 10, 4, -1, 1, -1, 1);
+		assertEquals(10, raster.getWidth());
+		assertEquals(RED, pixel(raster, 4, 0));
+		assertEquals(0, pixel(raster, 5, 1));
+		assertEquals(BLUE, pixel(raster, 9, 2));
+		assertEquals(RED, pixel(raster, 0, 3));
+	}
+}